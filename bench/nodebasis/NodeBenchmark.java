@@ -0,0 +1,175 @@
+package nodebasis;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import surrounding.Field;
+import coordination.Position;
+
+/**
+ * Benchmarks of the per node and per message work done during an update:
+ * a <code>Node</code> going through a deep task queue, an <code>AgentMessage</code>
+ * taking the routing table of a node, a node merging the routing table of an
+ * <code>AgentMessage</code> into its own, and a <code>RequestMessage</code> checking
+ * whether it has visited a node.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Node
+ * @see AgentMessage
+ * @see RequestMessage
+ * */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NodeBenchmark{
+	
+	/**
+	 * A node without neighbours, holding a number of agent messages it can't
+	 * send. Every update therefore goes through the whole task queue.
+	 */
+	@State(Scope.Thread)
+	public static class QueuedNode{
+		
+		@Param({"10", "100", "1000", "10000"})
+		public int queueDepth;
+		
+		public Field field;
+		public Node node;
+		
+		@Setup(Level.Trial)
+		public void setUp(){
+			field = new Field(1, -1, -1, 1, 0);
+			node = new Node(field, new Position(0, 0), 1, Integer.MAX_VALUE, 1);
+			for(int i=0; i<queueDepth; i++){
+				node.generateNewTask(node.generateNewEvent(i + 1));
+			}
+			node.update();
+			node.reset();
+		}
+	}
+	
+	/**
+	 * A node with a number of events in its routing table, and an agent message
+	 * visiting it. The agent message comes from a node knowing about as many
+	 * other events, and the events known by both.
+	 */
+	@State(Scope.Thread)
+	public static class VisitedNode{
+		
+		@Param({"10", "100", "1000", "10000"})
+		public int routingMapSize;
+		
+		public Node node;
+		public AgentMessage agentMessage;
+		
+		@Setup(Level.Trial)
+		public void setUp(){
+			Field field = new Field(1, -1, -1, 1, 0);
+			Node otherNode = new Node(field, new Position(1, 0), 1, 1, 1);
+			node = new Node(field, new Position(0, 0), 1, 1, 1);
+			for(int i=0; i<routingMapSize; i++){
+				node.generateNewEvent(i + 1);
+				otherNode.generateNewEvent(i + 1 + routingMapSize / 2);
+			}
+			agentMessage = new AgentMessage(otherNode, Integer.MAX_VALUE, 0);
+			agentMessage.update(otherNode);
+		}
+	}
+	
+	/**
+	 * A request message which has been passed along by a number of nodes,
+	 * and a node it hasn't visited. The nodes are given indices, as if they
+	 * were part of a loaded node network.
+	 */
+	@State(Scope.Thread)
+	public static class TravelledRequest{
+		
+		@Param({"10", "100", "1000"})
+		public int visitedNodes;
+		
+		public RequestMessage requestMessage;
+		public Node unvisitedNode;
+		
+		@Setup(Level.Trial)
+		public void setUp(){
+			Field field = new Field(1, -1, -1, 1, 0);
+			Node[] nodes = new Node[visitedNodes + 1];
+			for(int i=0; i<nodes.length; i++){
+				nodes[i] = new Node(field, new Position(i, 0), 1, 1, 1);
+				nodes[i].setIndex(i);
+			}
+			requestMessage = new RequestMessage(1, Integer.MAX_VALUE, 0, nodes[0]);
+			for(int i=1; i<visitedNodes; i++){
+				requestMessage.update(nodes[i]);
+			}
+			unvisitedNode = nodes[visitedNodes];
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Measures an update of a node which fails to send every message in its
+	 * task queue.
+	 * </p>
+	 * @param state the node.
+	 */
+	@Benchmark
+	public void nodeUpdate(QueuedNode state){
+		state.node.update();
+		state.node.reset();
+	}
+	
+	/**
+	 * <p>
+	 * Measures an agent message taking the routing table of a node.
+	 * </p>
+	 * @param state the node and the agent message.
+	 */
+	@Benchmark
+	public void agentMessageUpdate(VisitedNode state){
+		state.agentMessage.update(state.node);
+	}
+	
+	/**
+	 * <p>
+	 * Measures a node merging the routing table of an agent message into
+	 * its own, without keeping the result.
+	 * </p>
+	 * @param state the node and the agent message.
+	 * @return the merged routing table.
+	 */
+	@Benchmark
+	public RoutingTable routingTableMerge(VisitedNode state){
+		return state.node.getRoutingTable().merge(state.agentMessage.getRoutingTable(),
+				state.agentMessage.getLastVisitedNode());
+	}
+	
+	/**
+	 * <p>
+	 * Measures checking whether a request message has visited a node,
+	 * for a node it hasn't visited.
+	 * </p>
+	 * @param state the request message and the node.
+	 * @return whether the node has been visited.
+	 */
+	@Benchmark
+	public boolean requestMessageHasVisitedNode(TravelledRequest state){
+		return state.requestMessage.hasVisitedNode(state.unvisitedNode);
+	}
+}
@@ -0,0 +1,152 @@
+package surrounding;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import nodebasis.Node;
+import nodebasis.ResultSink;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import coordination.Position;
+
+/**
+ * Benchmarks of the <code>Field</code> class, on grids generated by the
+ * <code>StandardNodeNetworkGenerator</code>. The nodes are put 10 units from
+ * each other, and the density of the network is varied through the signal strength:
+ * 15 gives up to 8 neighbours per node, 25 up to 20 and 35 up to 36.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field
+ * @see StandardNodeNetworkGenerator
+ * */
+@Fork(value = 1, jvmArgsAppend = {"-Xmx16g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FieldBenchmark{
+	
+	public static final int NODE_DISTANCE = 10;
+	public static final int REQUEST_LIFE = 45;
+	public static final int AGENT_LIFE = 50;
+	public static final long SEED = 20160519L;
+	
+	/**
+	 * A running simulation, with the same event, agent and request
+	 * settings as the <code>SimTester</code>. The results are discarded.
+	 * The nodes are updated either tile by tile or by actors of their own;
+	 * the latter needs a Java runtime with virtual threads, and the trial
+	 * is turned down otherwise. The events either live forever, or expire,
+	 * in which case every node holding an event stays active, with nothing
+	 * else to do, until it expires.
+	 */
+	@State(Scope.Benchmark)
+	public static class RunningField{
+		
+		@Param({"50", "100", "250", "316", "500", "1000"})
+		public int gridSize;
+		
+		@Param({"15", "25", "35"})
+		public int signalStrength;
+		
+		@Param({"1"})
+		public int numberOfThreads;
+		
+		@Param({"false", "true"})
+		public boolean actorExecution;
+		
+		@Param({"0", "400"})
+		public int eventTimeToLive;
+		
+		public Field field;
+		
+		@Setup(Level.Trial)
+		public void setUp(){
+			if(actorExecution && !Field.isActorExecutionSupported()){
+				throw new IllegalStateException("actor execution needs Java 21 or later");
+			}
+			field = new Field(Integer.MAX_VALUE, 10000, 2, 400, 4, SEED);
+			field.setEventTimeToLive(eventTimeToLive);
+			field.loadNodeNetwork(generate(field, gridSize, signalStrength));
+			field.setNumberOfThreads(numberOfThreads);
+			field.setActorExecution(actorExecution);
+			field.setResultSink(ResultSink.DISCARD);
+			field.setSimulationIsRunning(true);
+		}
+	}
+	
+	/**
+	 * A <code>Field</code> and a generated node network, which hasn't
+	 * been loaded yet.
+	 */
+	@State(Scope.Benchmark)
+	public static class UnloadedField{
+		
+		@Param({"50", "100", "250", "500", "1000"})
+		public int gridSize;
+		
+		@Param({"15", "25", "35"})
+		public int signalStrength;
+		
+		public Field field;
+		public HashMap<Position, Node> nodeMap;
+		
+		@Setup(Level.Invocation)
+		public void setUp(){
+			field = new Field(Integer.MAX_VALUE, 10000, 2, 400, 4, SEED);
+			nodeMap = generate(field, gridSize, signalStrength);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Measures a single update of the whole node network, in a simulation which
+	 * keeps running across the measurement.
+	 * </p>
+	 * @param state the running simulation.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void update(RunningField state){
+		state.field.update();
+	}
+	
+	/**
+	 * <p>
+	 * Measures loading a node network, including the neighbour search of
+	 * every node.
+	 * </p>
+	 * @param state the field and the node network to load.
+	 * @return the loaded field.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 5, batchSize = 1)
+	public Field loadNodeNetwork(UnloadedField state){
+		state.field.loadNodeNetwork(state.nodeMap);
+		return state.field;
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private static HashMap<Position, Node> generate(Field field, int gridSize,
+			int signalStrength){
+		return new StandardNodeNetworkGenerator(gridSize, gridSize, NODE_DISTANCE,
+				signalStrength, REQUEST_LIFE, AGENT_LIFE, field).generate();
+	}
+}
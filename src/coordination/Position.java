@@ -1,10 +1,11 @@
 package coordination;
 
-import org.apache.commons.lang.builder.HashCodeBuilder;
-
 /**
 * The <code>Position class</code> represents a two-dimensional point consisting of an x- and a y-value.
 * Inspector and navigator methods such as <code>getX</code> and <code>getY</code> are provided. 
+* </br>
+* A position can be packed into a single <code>long</code> (see <code>toLong</code>), which
+* is what collections keyed by position use instead of <code>Position</code> objects.
 * 
 * @author  Alexander Beliaev
 * @version 1.0
@@ -46,15 +47,58 @@ public class Position{
 		return y;
 	}
 	
+	/**
+	 * <p>
+	 * Returns the position packed into a <code>long</code>, with the x-value in its
+	 * upper half and the y-value in its lower half. Two positions are equal if and
+	 * only if their packed values are.
+	 * </p>
+	 * @return the packed position.
+	 * @see #fromLong(long)
+	 */
+	public long toLong(){
+		return toLong(x, y);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the specified x- and y-values packed into a <code>long</code>, as
+	 * returned by <code>toLong()</code> of a position with those values.
+	 * </p>
+	 * @param x the x value.
+	 * @param y the y value.
+	 * @return the packed position.
+	 */
+	public static long toLong(int x, int y){
+		return ((long)x << 32) | (y & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * <p>
+	 * Creates a <code>Position</code> object from a packed position.
+	 * </p>
+	 * @param position the packed position.
+	 * @return the position.
+	 * @see #toLong()
+	 */
+	public static Position fromLong(long position){
+		return new Position((int)(position >>> 32), (int)position);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the hash code of the position. It is the same as the one which used to be
+	 * computed by a <code>HashCodeBuilder</code> with the primes 92821 and 31, so hash codes
+	 * written to earlier results still match, but computed without creating any objects.
+	 * </p>
+	 * @return the hash code.
+	 */
 	@Override
 	public int hashCode(){
 		final int primeA = 92821;
 		final int primeB = 31;
 		
-		return new HashCodeBuilder(primeA, primeB)
-			.append(getX())
-			.append(getY())
-			.toHashCode();
+		return (primeA * primeB + x) * primeB + y;
 	}
 	
 	/**
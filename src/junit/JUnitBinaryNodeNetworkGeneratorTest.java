@@ -0,0 +1,93 @@
+package junit;
+
+import coordination.Position;
+import nodebasis.Node;
+import org.junit.Assert;
+import org.junit.Test;
+import surrounding.BinaryNodeNetworkGenerator;
+import surrounding.Field;
+import surrounding.FileNodeNetworkGenerator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class JUnitBinaryNodeNetworkGeneratorTest {
+
+    private static final String NETWORK = "1;2;3;4;5\n"
+            + "2;3;4;5;1\n"
+            + "3;4;5;1;2\n"
+            + "4;5;1;2;3\n"
+            + "5;1;2;3;4\n";
+
+    @Test
+    public void binaryNetworkShouldMatchTextNetwork() throws IOException {
+        Field textField = new Field(1,1,1,1,1);
+        textField.loadNodeNetwork(new FileNodeNetworkGenerator(new StringReader(NETWORK), textField).generate());
+
+        for (boolean includeNeighbours : new boolean[]{false, true}) {
+            Path path = Files.createTempFile("network", ".bnn");
+            try {
+                BinaryNodeNetworkGenerator.convert(new StringReader(NETWORK), path, includeNeighbours);
+                Field binaryField = new Field(1,1,1,1,1);
+                BinaryNodeNetworkGenerator generator = new BinaryNodeNetworkGenerator(path, binaryField);
+                HashMap<Position, Node> nodeMap = generator.generate();
+
+                Assert.assertNull(generator.getException());
+                Assert.assertEquals(includeNeighbours, generator.hasNeighbours());
+                Assert.assertEquals(5, nodeMap.size());
+                binaryField.loadNodeNetwork(nodeMap, !generator.hasNeighbours());
+                Assert.assertEquals(textField.getStringRepresentation(), binaryField.getStringRepresentation());
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void truncatedFileShouldNotBeRead() throws IOException {
+        Path path = Files.createTempFile("network", ".bnn");
+        try {
+            BinaryNodeNetworkGenerator.convert(new StringReader(NETWORK), path, true);
+            byte[] bytes = Files.readAllBytes(path);
+            Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+            BinaryNodeNetworkGenerator generator = new BinaryNodeNetworkGenerator(path, new Field(1,1,1,1,1));
+
+            Assert.assertNull(generator.generate());
+            Assert.assertTrue(generator.getException() instanceof IOException);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void nodesSharingAPositionShouldNotBeRead() throws IOException {
+        Path path = Files.createTempFile("network", ".bnn");
+        try {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+                out.writeInt(BinaryNodeNetworkGenerator.MAGIC);
+                out.writeInt(0);
+                out.writeInt(2);
+                out.writeInt(0);
+                out.writeLong(0);
+                for (int i = 0; i < 2; i++) {
+                    out.writeInt(1);
+                    out.writeInt(2);
+                    out.writeInt(3);
+                    out.writeInt(4);
+                    out.writeInt(5);
+                }
+            }
+            BinaryNodeNetworkGenerator generator = new BinaryNodeNetworkGenerator(path, new Field(1,1,1,1,1));
+
+            Assert.assertNull(generator.generate());
+            Assert.assertTrue(generator.getException() instanceof IOException);
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
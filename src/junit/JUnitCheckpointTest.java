@@ -0,0 +1,128 @@
+package junit;
+
+import nodebasis.EvictionPolicy;
+import nodebasis.ResultFormat;
+import nodebasis.StreamResultSink;
+import org.junit.Assert;
+import org.junit.Test;
+import surrounding.Field;
+import surrounding.StandardNodeNetworkGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+public class JUnitCheckpointTest {
+
+    private static final long SEED = 42L;
+
+    private static Field createField(ByteArrayOutputStream out) {
+        Field field = new Field(1500, 300, 2, 50, 6, SEED);
+        field.loadNodeNetwork(new StandardNodeNetworkGenerator(30, 30, 10, 15, 45, 50, field).generate());
+        field.setResultSink(new StreamResultSink(out, ResultFormat.CSV, false));
+        field.setEventTimeToLive(400);
+        field.setRoutingTableCapacity(64);
+        field.setEvictionPolicy(EvictionPolicy.FARTHEST_EVENT_FIRST);
+        field.setSimulationIsRunning(true);
+        return field;
+    }
+
+    private static void run(Field field, int updates) {
+        for (int i = 0; i < updates; i++) {
+            field.update();
+        }
+        field.getResultSink().flush();
+    }
+
+    @Test
+    public void restoredSimulationShouldCarryOnAsIfUninterrupted() throws IOException {
+        ByteArrayOutputStream uninterrupted = new ByteArrayOutputStream();
+        ByteArrayOutputStream interrupted = new ByteArrayOutputStream();
+        Path path = Files.createTempFile("simulation", ".checkpoint");
+
+        try {
+            run(createField(uninterrupted), 900);
+
+            Field field = createField(interrupted);
+            run(field, 450);
+            field.writeCheckpoint(path);
+
+            Field restored = createField(interrupted);
+            restored.setSimulationIsRunning(false);
+            restored.restoreCheckpoint(path);
+            restored.setSimulationIsRunning(true);
+            Assert.assertEquals(450, restored.getCurrentTime());
+            run(restored, 450);
+
+            Assert.assertTrue(uninterrupted.size() > 0);
+            Assert.assertEquals(uninterrupted.toString(), interrupted.toString());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void damagedCheckpointShouldBeTurnedDown() throws IOException {
+        Path path = Files.createTempFile("simulation", ".checkpoint");
+
+        try {
+            Field field = createField(new ByteArrayOutputStream());
+            run(field, 100);
+            field.writeCheckpoint(path);
+            byte[] bytes = Files.readAllBytes(path);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(path, bytes);
+
+            Field restored = createField(new ByteArrayOutputStream());
+            restored.setSimulationIsRunning(false);
+            try {
+                restored.restoreCheckpoint(path);
+                Assert.fail("damaged checkpoint was restored");
+            } catch (IOException e) {
+                Assert.assertEquals(0, restored.getCurrentTime());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void unreadableCheckpointShouldLeaveFieldAsItWas() throws IOException {
+        ByteArrayOutputStream untouched = new ByteArrayOutputStream();
+        ByteArrayOutputStream turnedDown = new ByteArrayOutputStream();
+        Path path = Files.createTempFile("simulation", ".checkpoint");
+
+        try {
+            Field field = createField(new ByteArrayOutputStream());
+            run(field, 300);
+            field.writeCheckpoint(path);
+            byte[] bytes = Files.readAllBytes(path);
+            byte[] truncated = Arrays.copyOf(bytes, bytes.length - 12);
+            CRC32 crc = new CRC32();
+            crc.update(truncated, 0, truncated.length - 8);
+            ByteBuffer.wrap(truncated).putLong(truncated.length - 8, crc.getValue());
+            Files.write(path, truncated);
+
+            run(createField(untouched), 200);
+            Field restored = createField(turnedDown);
+            run(restored, 100);
+            restored.setSimulationIsRunning(false);
+            try {
+                restored.restoreCheckpoint(path);
+                Assert.fail("unreadable checkpoint was restored");
+            } catch (IOException e) {
+                Assert.assertEquals(100, restored.getCurrentTime());
+            }
+            restored.setSimulationIsRunning(true);
+            run(restored, 100);
+
+            Assert.assertEquals(untouched.toString(), turnedDown.toString());
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package junit;
 
+import org.junit.Assert;
 import org.junit.Test;
 import surrounding.Field;
 import surrounding.FieldRunner;
+import surrounding.StandardNodeNetworkGenerator;
 
 /**
  * Created by c15nkn on 2016-05-17.
@@ -31,4 +33,19 @@ public class JUnitFieldRunnerTest {
         testFieldRunner.run();
 
     }
+
+    @Test
+    public void testIfUncappedRunCompletesAllUpdates() {
+
+        Field testField = new Field(500,100,2,50,2,1L);
+        testField.loadNodeNetwork(new StandardNodeNetworkGenerator(10, 10,
+                10, 15, 45, 50, testField).generate());
+        FieldRunner testFieldRunner = new FieldRunner(testField,
+                FieldRunner.UNCAPPED_UPDATES_PER_SECOND);
+        testFieldRunner.run();
+
+        Assert.assertFalse(testField.getSimulationIsRunning());
+        Assert.assertEquals(501, testField.getCurrentTime());
+        Assert.assertTrue(testFieldRunner.getMeasuredUpdatesPerSecond() > 0);
+    }
 }
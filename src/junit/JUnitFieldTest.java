@@ -1,12 +1,26 @@
 package junit;
 import coordination.Position;
+import nodebasis.ExpirationReader;
 import nodebasis.Node;
+import nodebasis.RequestReader;
+import nodebasis.ResultSink;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import surrounding.Field;
+import surrounding.StandardNodeNetworkGenerator;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import static junit.framework.TestCase.assertFalse;
 
@@ -46,4 +60,468 @@ public class JUnitFieldTest {
         Field testField = new Field(1,1,1,1,100);
         testField.loadNodeNetwork(testMap);
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFieldNumberOfThreadsIsZero() {
+        Field testField = new Field(1,1,1,1,1);
+        testField.setNumberOfThreads(0);
+    }
+
+    @Test
+    public void parallelUpdateShouldMatchSequentialUpdate() {
+        List<String> sequentialResults = runSimulation(new Field(300,-1,-1,1,0), 1);
+        List<String> parallelResults = runSimulation(new Field(300,-1,-1,1,0), 4);
+
+        Assert.assertFalse(sequentialResults.isEmpty());
+        Assert.assertEquals(sequentialResults, parallelResults);
+    }
+
+    @Test
+    public void fieldsWithSameSeedShouldMatch() {
+        List<String> firstResults = runSimulation(new Field(300,200,2,40,6,42L), 1);
+        List<String> secondResults = runSimulation(new Field(300,200,2,40,6,42L), 1);
+        List<String> parallelResults = runSimulation(new Field(300,200,2,40,6,42L), 4);
+
+        Assert.assertEquals(firstResults, secondResults);
+        Assert.assertEquals(firstResults, parallelResults);
+    }
+
+    @Test
+    public void spatialFieldsShouldMatchWhateverTheNumberOfThreads() {
+        Field firstField = new Field(300,200,2,40,6,42L);
+        Field secondField = new Field(300,200,2,40,6,42L);
+        Field thirdField = new Field(300,200,2,40,6,42L);
+
+        firstField.setSpatialNodeOrder(true);
+        secondField.setSpatialNodeOrder(true);
+        thirdField.setSpatialNodeOrder(true);
+        List<String> firstResults = runSimulation(firstField, 1);
+        List<String> secondResults = runSimulation(secondField, 3);
+        List<String> thirdResults = runSimulation(thirdField, 7);
+
+        Assert.assertFalse(firstResults.isEmpty());
+        Assert.assertEquals(firstResults, secondResults);
+        Assert.assertEquals(firstResults, thirdResults);
+    }
+
+    @Test
+    public void actorExecutionShouldMatchTileExecution() {
+        Assume.assumeTrue(Field.isActorExecutionSupported());
+        Field tileField = new Field(300,200,2,40,6,42L);
+        Field actorField = new Field(300,200,2,40,6,42L);
+
+        actorField.setActorExecution(true);
+        List<String> tileResults = runSimulation(tileField, 1);
+        List<String> actorResults = runSimulation(actorField, 1);
+
+        Assert.assertFalse(tileResults.isEmpty());
+        Assert.assertEquals(tileResults, actorResults);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void actorExecutionWithoutVirtualThreadsShouldFail() {
+        Assume.assumeFalse(Field.isActorExecutionSupported());
+        Field field = new Field(300,200,2,40,6,42L);
+
+        field.setActorExecution(true);
+    }
+
+    @Test
+    public void changedNodeNetworkShouldMatchLoadedNodeNetwork() {
+        Field changedField = new Field(300,200,2,40,6,42L);
+        Field loadedField = new Field(300,200,2,40,6,42L);
+        HashMap<Position, Node> changedMap = new StandardNodeNetworkGenerator(20, 20,
+                10, 15, 45, 50, changedField).generate();
+        HashMap<Position, Node> loadedMap = new HashMap<Position, Node>();
+        List<Node> removedNodes = new ArrayList<Node>();
+
+        changedField.loadNodeNetwork(changedMap);
+        changedField.setSimulationIsRunning(true);
+        for(int i = 0; i < 50; i++) {
+            changedField.update();
+        }
+        for(int y = 0; y < 20; y++) {
+            for(int x = 0; x < 20; x++) {
+                Position position = new Position(x*10, y*10);
+                if((x + 2*y) % 5 == 0) {
+                    removedNodes.add(changedMap.remove(position));
+                    changedField.removeNode(removedNodes.get(removedNodes.size() - 1));
+                } else if(x % 4 == 0) {
+                    changedField.setSignalStrength(changedMap.get(position), 5 + 7*(y % 4));
+                }
+                if(x % 4 == 2) {
+                    Node node = new Node(changedField, new Position(x*10 + 5, y*10 + 3), 25, 50, 45);
+                    changedField.addNode(node);
+                    changedMap.put(node.getPosition(), node);
+                }
+            }
+            if(y % 5 == 0) {
+                Node node = new Node(changedField, new Position(1000 + y*5, 1000), 30, 50, 45);
+                changedField.addNode(node);
+                changedMap.put(node.getPosition(), node);
+            }
+            changedField.update();
+        }
+
+        for(Node node : changedMap.values()) {
+            loadedMap.put(node.getPosition(), new Node(loadedField, node.getPosition(),
+                    node.getSignalStrength(), 50, 45));
+        }
+        loadedField.loadNodeNetwork(loadedMap);
+        for(Node node : changedMap.values()) {
+            Assert.assertEquals(positionsOf(loadedField.getNodesWithinRangeofNode(
+                    loadedMap.get(node.getPosition()))),
+                    positionsOf(changedField.getNodesWithinRangeofNode(node)));
+        }
+        Assert.assertEquals(sortedLines(loadedField.getStringRepresentation()),
+                sortedLines(changedField.getStringRepresentation()));
+        for(Node node : removedNodes) {
+            Assert.assertTrue(node.isRemoved());
+            Assert.assertEquals(-1, node.getIndex());
+        }
+
+        for(int i = 0; i < 300; i++) {
+            changedField.update();
+        }
+        Assert.assertFalse(changedField.getSimulationIsRunning());
+    }
+
+    @Test
+    public void requestReturningToRemovedNodeShouldBeDiscarded() {
+        Field testField = new Field(300,-1,-1,1,0);
+        HashMap<Position, Node> testMap = new StandardNodeNetworkGenerator(5, 1,
+                10, 10, 45, 50, testField).generate();
+        final List<String> expired = new ArrayList<String>();
+        ExpirationReader reader = new ExpirationReader() {
+            @Override
+            public void readIdOfExpiredObject(String str) {
+                expired.add(str);
+            }
+
+            @Override
+            public ReaderMode getReaderMode() {
+                return ReaderMode.ALL;
+            }
+        };
+        Node origin = testMap.get(new Position(0, 0));
+
+        testField.loadNodeNetwork(testMap);
+        testField.setSimulationIsRunning(true);
+        for(Node node : testMap.values()) {
+            node.setExpirationReader(reader);
+        }
+        testMap.get(new Position(40, 0)).generateNewEvent(1);
+        origin.generateNewTask(1);
+        testField.update();
+        testField.removeNode(origin);
+        testMap.remove(origin.getPosition());
+
+        for(int i = 0; i < 100; i++) {
+            testField.update();
+        }
+        for(Node node : testMap.values()) {
+            Assert.assertFalse(node.hasPendingWork());
+        }
+        Assert.assertEquals(1, expired.size());
+    }
+
+    @Test
+    public void everyExpiredRequestShouldBeReportedOnce() {
+        for(final ExpirationReader.ReaderMode mode : new ExpirationReader.ReaderMode[]{
+                ExpirationReader.ReaderMode.ALL, ExpirationReader.ReaderMode.ABANDONED_REQUESTS}) {
+            Field testField = new Field(1500,300,2,50,6,42L);
+            HashMap<Position, Node> testMap = new StandardNodeNetworkGenerator(30, 30,
+                    10, 15, 45, 50, testField).generate();
+            final List<String> expired = new ArrayList<String>();
+            ExpirationReader reader = new ExpirationReader() {
+                @Override
+                public void readIdOfExpiredObject(String str) {
+                    expired.add(str);
+                }
+
+                @Override
+                public ReaderMode getReaderMode() {
+                    return mode;
+                }
+            };
+
+            testField.loadNodeNetwork(testMap);
+            testField.setResultSink(ResultSink.DISCARD);
+            testField.setSimulationIsRunning(true);
+            for(Node node : testMap.values()) {
+                node.setExpirationReader(reader);
+            }
+            for(int i = 0; i < 1500; i++) {
+                testField.update();
+            }
+
+            Assert.assertFalse(expired.isEmpty());
+            Assert.assertEquals(expired.size(), new HashSet<String>(expired).size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addingNodeAtOccupiedPositionShouldFail() {
+        Field testField = new Field(300,200,2,40,6,42L);
+        testField.loadNodeNetwork(new StandardNodeNetworkGenerator(5, 5,
+                10, 15, 45, 50, testField).generate());
+        testField.addNode(new Node(testField, new Position(10, 10), 15, 50, 45));
+    }
+
+    @Test
+    public void nodeHoldingEventShouldStayActiveUntilEventExpires() {
+        Field testField = new Field(300,-1,-1,40,0,42L);
+        HashMap<Position, Node> testMap = new StandardNodeNetworkGenerator(5, 5,
+                10, 15, 45, 50, testField).generate();
+        Node testNode = testMap.get(new Position(20, 20));
+
+        testField.setEventTimeToLive(5);
+        testField.loadNodeNetwork(testMap);
+        testField.setSimulationIsRunning(true);
+        testNode.generateNewEvent(1);
+        testField.update();
+
+        Assert.assertEquals(1, testField.getNumberOfActiveNodes());
+        Assert.assertTrue(testNode.hasPendingWork());
+        for(int i = 0; i < 10; i++) {
+            testField.update();
+        }
+        Assert.assertEquals(0, testField.getNumberOfActiveNodes());
+        Assert.assertFalse(testNode.hasPendingWork());
+    }
+
+    @Test
+    public void distributedFieldShouldMatchSingleField() throws Exception {
+        final InetSocketAddress[] addresses = new InetSocketAddress[3];
+        final List<List<String>> regionResults = new ArrayList<List<String>>();
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        List<String> distributedResults = new ArrayList<String>();
+
+        for(int i = 0; i < addresses.length; i++) {
+            ServerSocketChannel channel = ServerSocketChannel.open();
+            channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            addresses[i] = (InetSocketAddress) channel.getLocalAddress();
+            channel.close();
+            regionResults.add(new ArrayList<String>());
+        }
+        for(int i = 0; i < addresses.length; i++) {
+            final int region = i;
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        regionResults.get(region).addAll(runSimulation(
+                                new Field(300,200,2,40,6,42L), 2, region, addresses));
+                    } catch(Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        for(List<String> results : regionResults) {
+            distributedResults.addAll(results);
+        }
+        Collections.sort(distributedResults);
+
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        Assert.assertFalse(regionResults.get(1).isEmpty());
+        Assert.assertEquals(runSimulation(new Field(300,200,2,40,6,42L), 1), distributedResults);
+    }
+
+    @Test
+    public void fieldShouldReturnGivenSeed() {
+        Field testField = new Field(1,1,1,1,1,1234L);
+        Assert.assertEquals(1234L, testField.getSeed());
+    }
+
+    @Test
+    public void spatialNodeOrderShouldKeepNeighbours() {
+        Field testField = new Field(1,1,1,1,1);
+        Field spatialField = new Field(1,1,1,1,1);
+        HashMap<Position, Node> testMap = new StandardNodeNetworkGenerator(30, 30,
+                10, 15, 45, 50, testField).generate();
+        HashMap<Position, Node> spatialMap = new StandardNodeNetworkGenerator(30, 30,
+                10, 15, 45, 50, spatialField).generate();
+
+        spatialField.setSpatialNodeOrder(true);
+        testField.loadNodeNetwork(testMap);
+        spatialField.loadNodeNetwork(spatialMap);
+
+        Assert.assertEquals(0, spatialMap.get(new Position(0, 0)).getIndex());
+        Assert.assertEquals(1, spatialMap.get(new Position(10, 0)).getIndex());
+        Assert.assertEquals(2, spatialMap.get(new Position(0, 10)).getIndex());
+        Assert.assertEquals(3, spatialMap.get(new Position(10, 10)).getIndex());
+        for (Position position : testMap.keySet()) {
+            List<Position> expected = new ArrayList<Position>();
+            List<Position> actual = new ArrayList<Position>();
+            for (Node node : testField.getNodesWithinRangeofNode(testMap.get(position))) {
+                expected.add(node.getPosition());
+            }
+            for (Node node : spatialField.getNodesWithinRangeofNode(spatialMap.get(position))) {
+                actual.add(node.getPosition());
+            }
+            Assert.assertEquals(expected.size(), actual.size());
+            Assert.assertTrue(actual.containsAll(expected));
+        }
+    }
+
+    /*
+        Runs a simulation where every fifth node has an event and sends an agent,
+        and every seventh node requests one of the events. Returns what the
+        nodes reported, sorted, with the (run specific) node names replaced
+        by the node positions.
+    */
+    private List<String> runSimulation(Field testField, int numberOfThreads) {
+        try {
+            return runSimulation(testField, numberOfThreads, 0, null);
+        } catch(IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private List<String> positionsOf(List<Node> nodes) {
+        List<String> positions = new ArrayList<String>();
+
+        for(Node node : nodes) {
+            positions.add(node.getPosition().getX() + ";" + node.getPosition().getY());
+        }
+        Collections.sort(positions);
+        return positions;
+    }
+
+    private List<String> sortedLines(String text) {
+        List<String> lines = new ArrayList<String>(Arrays.asList(text.split("\n")));
+
+        Collections.sort(lines);
+        return lines;
+    }
+
+    /*
+        Runs the same simulation, distributed over the given addresses if there
+        are any, in which case only the nodes of the given region, and of its
+        halo, are loaded, and only the nodes of the region report.
+    */
+    private List<String> runSimulation(Field testField, int numberOfThreads, int region,
+            InetSocketAddress[] addresses) throws IOException {
+        HashMap<Position, Node> testMap = new StandardNodeNetworkGenerator(30, 30,
+                10, 15, 45, 50, testField).generate();
+        List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        Map<String, String> names = new HashMap<String, String>();
+        HashMap<Position, Node> regionMap = new HashMap<Position, Node>();
+        HashMap<Position, Node> haloMap = new HashMap<Position, Node>();
+        int eventId = 0;
+        int nodeCount = 0;
+
+        if(addresses == null) {
+            testField.loadNodeNetwork(testMap);
+        } else {
+            splitIntoRegion(testMap, region, addresses.length, regionMap, haloMap);
+            testField.distribute(region, addresses, regionMap, haloMap);
+        }
+        testField.setNumberOfThreads(numberOfThreads);
+        testField.setSimulationIsRunning(true);
+
+        for(int y = 0; y < 30; y++) {
+            for(int x = 0; x < 30; x++) {
+                Node testNode = testMap.get(new Position(x*10, y*10));
+                RecordingReader reader = new RecordingReader(testNode, names, results);
+                names.put(testNode.toString(), testNode.getStringRepresentation());
+                testNode.setExpirationReader(reader);
+                testNode.setRequestReader(reader);
+                if(nodeCount % 5 == 0) {
+                    eventId++;
+                    testNode.generateNewTask(testNode.generateNewEvent(eventId));
+                }
+                nodeCount++;
+            }
+        }
+        nodeCount = 0;
+        for(int y = 0; y < 30; y++) {
+            for(int x = 0; x < 30; x++) {
+                if(nodeCount % 7 == 0) {
+                    testMap.get(new Position(x*10, y*10)).generateNewTask(nodeCount % eventId + 1);
+                }
+                nodeCount++;
+            }
+        }
+
+        for(int i = 0; i < 300; i++) {
+            testField.update();
+        }
+
+        Collections.sort(results);
+        return results;
+    }
+
+    /*
+        Puts the nodes of the given region, i.e. of the given range of the
+        spatial order a single field keeps the nodes in, into the region map,
+        and the nodes of the other regions within range of them, or having
+        them within range, into the halo map.
+    */
+    private void splitIntoRegion(HashMap<Position, Node> testMap, int region,
+            int numberOfRegions, HashMap<Position, Node> regionMap,
+            HashMap<Position, Node> haloMap) {
+        Field orderField = new Field(300,200,2,40,6,42L);
+        HashMap<Position, Node> orderMap = new StandardNodeNetworkGenerator(30, 30,
+                10, 15, 45, 50, orderField).generate();
+        int from = orderMap.size() * region / numberOfRegions;
+        int to = orderMap.size() * (region + 1) / numberOfRegions;
+
+        orderField.loadNodeNetwork(orderMap);
+        for(Node node : orderMap.values()) {
+            if(node.getIndex() >= from && node.getIndex() < to) {
+                regionMap.put(node.getPosition(), testMap.get(node.getPosition()));
+            }
+        }
+        for(Node node : testMap.values()) {
+            for(Node member : regionMap.values()) {
+                long dx = node.getPosition().getX() - member.getPosition().getX();
+                long dy = node.getPosition().getY() - member.getPosition().getY();
+                long range = Math.max(node.getSignalStrength(), member.getSignalStrength());
+                if(!regionMap.containsKey(node.getPosition()) && dx*dx + dy*dy <= range*range) {
+                    haloMap.put(node.getPosition(), node);
+                }
+            }
+        }
+    }
+
+    private static class RecordingReader extends ExpirationReader implements RequestReader {
+
+        private final Node node;
+        private final Map<String, String> names;
+        private final List<String> results;
+
+        RecordingReader(Node node, Map<String, String> names, List<String> results) {
+            this.node = node;
+            this.names = names;
+            this.results = results;
+        }
+
+        @Override
+        public void readIdOfExpiredObject(String str) {
+            results.add("expired " + rename(str) + " at " + node.getStringRepresentation());
+        }
+
+        @Override
+        public ReaderMode getReaderMode() {
+            return ReaderMode.ALL;
+        }
+
+        @Override
+        public void readSuccessfulRequestId(String str) {
+            results.add("returned " + rename(str) + " at " + node.getStringRepresentation());
+        }
+
+        private String rename(String id) {
+            int separator = id.lastIndexOf('.');
+            return names.get(id.substring(0, separator)) + id.substring(separator);
+        }
+    }
 }
\ No newline at end of file
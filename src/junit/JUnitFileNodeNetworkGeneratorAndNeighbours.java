@@ -175,6 +175,50 @@ public class JUnitFileNodeNetworkGeneratorAndNeighbours{
 		System.out.println("");
 	}
 
+	@Test
+	public void testIfNodeSuccessfullyFindsNeighboursWithNegativeCoordinates(){
+		Field field = new Field(1,1,1,1,1);
+		HashMap<Position, Node> map = new HashMap<Position, Node>();
+		Node testNode = new Node(field, new Position(0,0), 2,1,1);
+		ArrayList<String> strList = new ArrayList<String>();
+		String testString = "-2;0;1;1;1\n"
+				+"-1;0;1;1;1\n"
+				+"0;-2;1;1;1\n"
+				+"0;-1;1;1;1\n"
+				+"-1;-1;1;1;1\n"
+				+"1;-1;1;1;1\n"
+				+"-1;1;1;1;1\n";
+		
+		for(int y=-3; y<=1; y++){
+			for(int x=-3; x<=1; x++){
+				map.put(new Position(x, y), new Node(field, new Position(x, y), 1,1,1));
+			}
+		}
+		field.loadNodeNetwork(map);
+		
+		for(Node node : field.getNodesWithinRangeofNode(testNode)){
+			strList.add(node.getStringRepresentation());
+		}
+		
+		System.out.println("---------------------------");
+		System.out.println("Test if node can find neighbours with negative coordinates:");
+		System.out.println("expected neighbours (in addition to non-negative ones):\n");
+		System.out.println(testString);
+		System.out.println("got neighbours:\n");
+		for(String str : strList){
+			System.out.println(str);
+		}
+		
+		assertEquals(10, strList.size());
+		for(String str : testString.split("\n")){
+			assertEquals(true, strList.contains(str));
+		}
+		
+		System.out.println("");
+		System.out.println("Result: success");
+		System.out.println("");
+	}
+
 	private Exception read(String file, Field field) throws IOException{
 		FileReader fileReader;
         FileNodeNetworkGenerator nGen;
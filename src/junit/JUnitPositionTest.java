@@ -40,4 +40,19 @@ public class JUnitPositionTest {
         Position y = new Position(1, 2);
         Assert.assertTrue(x.hashCode() == y.hashCode());
     }
+
+    @Test
+    public void hashCodeShouldNotHaveChanged() {
+        Assert.assertEquals(89201014, new Position(1, 2).hashCode());
+    }
+
+    @Test
+    public void packedPositionsShouldBeEqualOnlyIfPositionsAre() {
+        Position x = new Position(-5, 7);
+
+        Assert.assertEquals(x, Position.fromLong(x.toLong()));
+        Assert.assertEquals(x.toLong(), Position.toLong(-5, 7));
+        Assert.assertTrue(x.toLong() != new Position(7, -5).toLong());
+        Assert.assertTrue(new Position(0, -1).toLong() != new Position(-1, 0).toLong());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package junit;
+
+import coordination.Position;
+import nodebasis.AsyncResultSink;
+import nodebasis.Event;
+import nodebasis.Node;
+import nodebasis.ResultFormat;
+import nodebasis.StreamResultSink;
+import org.junit.Assert;
+import org.junit.Test;
+import surrounding.Field;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+public class JUnitResultSinkTest {
+
+    private final Field field = new Field(1,1,1,1,1);
+    private final Node node = new Node(field, new Position(3,4), 15, 50, 45);
+    private final Event event = new Event(7, 2, new Node(field, new Position(10,20), 15, 50, 45));
+
+    @Test
+    public void asyncSinkShouldWriteEveryResultInOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AsyncResultSink sink = new AsyncResultSink(out, ResultFormat.CSV, 4);
+        StringBuilder expected = new StringBuilder();
+        String separator = System.getProperty("line.separator");
+
+        for (int i = 0; i < 1000; i++) {
+            if (i % 3 == 0) {
+                sink.expiredRequestRetrieved(i, node, 2);
+                expected.append("expired,").append(i).append(",3,4,15,50,45,2,,,,").append(separator);
+            } else {
+                sink.eventRetrieved(i, node, 1, event);
+                expected.append("retrieved,").append(i).append(",3,4,15,50,45,1,10,20,2,7").append(separator);
+            }
+        }
+        sink.close();
+
+        Assert.assertEquals(expected.toString(), out.toString("US-ASCII"));
+    }
+
+    @Test
+    public void textShouldMatchPrintedResults() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamResultSink sink = new StreamResultSink(out, ResultFormat.TEXT, false);
+
+        sink.eventRetrieved(9, node, 1, event);
+        sink.flush();
+
+        Assert.assertEquals("9: " + node + " (" + node.getStringRepresentation() + ")"
+                + " received event details from request sent at 1 -- x:10; y:20, time: 2, id: 7"
+                + System.getProperty("line.separator"), out.toString());
+    }
+
+    @Test
+    public void binaryShouldHoldTwelveIntsPerResult() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamResultSink sink = new StreamResultSink(out, ResultFormat.BINARY, false);
+        DataInputStream in;
+
+        sink.eventRetrieved(9, node, 1, event);
+        sink.flush();
+        in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+
+        Assert.assertEquals(48, out.size());
+        Assert.assertEquals(0, in.readInt());
+        Assert.assertEquals(9, in.readInt());
+        Assert.assertEquals(3, in.readInt());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedSinkShouldNotReceive() throws IOException {
+        AsyncResultSink sink = new AsyncResultSink(new ByteArrayOutputStream(), ResultFormat.TEXT);
+
+        sink.close();
+        sink.eventRetrieved(0, node, 0, event);
+    }
+}
@@ -0,0 +1,134 @@
+package junit;
+
+import coordination.Position;
+import nodebasis.ImplicitEvent;
+import nodebasis.Node;
+import nodebasis.RoutingTable;
+import org.junit.Assert;
+import org.junit.Test;
+import surrounding.Field;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class JUnitRoutingTableTest {
+
+    private final Field field = new Field(1,1,1,1,1);
+    private final Node nodeA = new Node(field, new Position(0,0), 1, 1, 1);
+    private final Node nodeB = new Node(field, new Position(1,0), 1, 1, 1);
+
+    @Test
+    public void putShouldNotChangeOldTable() {
+        RoutingTable empty = RoutingTable.EMPTY;
+        RoutingTable one = empty.put(new ImplicitEvent(1, 0, nodeA));
+        RoutingTable two = one.put(new ImplicitEvent(1, 3, nodeB));
+
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertEquals(0, one.get(1).getDistance());
+        Assert.assertEquals(3, two.get(1).getDistance());
+        Assert.assertEquals(1, two.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeIdShouldNotBePut() {
+        RoutingTable.EMPTY.put(new ImplicitEvent(-1, 0, nodeA));
+    }
+
+    @Test
+    public void tableShouldMatchTreeMap() {
+        Random random = new Random(7);
+        TreeMap<Integer, ImplicitEvent> expected = new TreeMap<Integer, ImplicitEvent>();
+        RoutingTable table = RoutingTable.EMPTY;
+        List<Integer> ids = new ArrayList<Integer>();
+        ImplicitEvent implicitEvent;
+        int id;
+
+        for (int i = 0; i < 5000; i++) {
+            id = i % 3 == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(2000);
+            if (random.nextInt(4) == 0) {
+                expected.remove(id);
+                table = table.remove(id);
+            } else {
+                implicitEvent = new ImplicitEvent(id, i, nodeA);
+                expected.put(id, implicitEvent);
+                table = table.put(implicitEvent);
+            }
+        }
+
+        for (ImplicitEvent entry : table) {
+            ids.add(entry.getId());
+            Assert.assertSame(expected.get(entry.getId()), entry);
+        }
+        Assert.assertEquals(new ArrayList<Integer>(expected.keySet()), ids);
+        Assert.assertEquals(expected.size(), table.size());
+        Assert.assertNull(table.get(Integer.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void mergeShouldTakeNewAndCloserEntries() {
+        Random random = new Random(11);
+        Map<Integer, ImplicitEvent> expected = new HashMap<Integer, ImplicitEvent>();
+        RoutingTable own = RoutingTable.EMPTY;
+        RoutingTable other = RoutingTable.EMPTY;
+        RoutingTable merged;
+        ImplicitEvent ownEntry;
+        ImplicitEvent otherEntry;
+
+        for (int id = 0; id < 3000; id += 1 + random.nextInt(3)) {
+            if (random.nextBoolean()) {
+                own = own.put(new ImplicitEvent(id, random.nextInt(10), nodeA));
+            }
+            if (random.nextBoolean()) {
+                other = other.put(new ImplicitEvent(id, random.nextInt(10), nodeA));
+            }
+        }
+        merged = own.merge(other, nodeB);
+
+        for (ImplicitEvent entry : own) {
+            expected.put(entry.getId(), entry);
+        }
+        for (ImplicitEvent entry : other) {
+            ownEntry = expected.get(entry.getId());
+            if (ownEntry == null || ownEntry.getDistance() > entry.getDistance() + 1) {
+                expected.put(entry.getId(), new ImplicitEvent(entry.getId(), entry.getDistance() + 1, nodeB));
+            }
+        }
+
+        Assert.assertEquals(expected.size(), merged.size());
+        for (ImplicitEvent entry : expected.values()) {
+            otherEntry = merged.get(entry.getId());
+            Assert.assertEquals(entry.getDistance(), otherEntry.getDistance());
+            Assert.assertSame(entry.getNode(), otherEntry.getNode());
+        }
+    }
+
+    @Test
+    public void farthestShouldReturnOldestOfFarthestEntries() {
+        RoutingTable table = RoutingTable.EMPTY;
+
+        for (int id = 0; id < 1000; id++) {
+            table = table.put(new ImplicitEvent(id, id % 97 == 0 ? 9 : id % 5, nodeA));
+        }
+
+        Assert.assertEquals(0, table.farthest().getId());
+        Assert.assertEquals(97, table.remove(0).farthest().getId());
+        Assert.assertEquals(194, table.remove(0).remove(97).farthest().getId());
+        Assert.assertEquals(1, table.remove(0).first().getId());
+        Assert.assertNull(RoutingTable.EMPTY.farthest());
+    }
+
+    @Test
+    public void mergeWithoutAnythingNewShouldReturnSameTable() {
+        RoutingTable own = RoutingTable.EMPTY.put(new ImplicitEvent(4, 1, nodeA));
+        RoutingTable other = RoutingTable.EMPTY.put(new ImplicitEvent(4, 1, nodeA));
+
+        Assert.assertSame(own, own.merge(own, nodeB));
+        Assert.assertSame(own, own.merge(other, nodeB));
+        Assert.assertSame(own, own.merge(other, null));
+        Assert.assertSame(own, own.merge(RoutingTable.EMPTY, null));
+    }
+}
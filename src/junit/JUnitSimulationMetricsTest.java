@@ -0,0 +1,95 @@
+package junit;
+
+import coordination.Position;
+import nodebasis.Node;
+import org.junit.Assert;
+import org.junit.Test;
+import surrounding.Field;
+import surrounding.Histogram;
+import surrounding.LatencyHistogram;
+import surrounding.RequestLatency;
+import surrounding.SimulationMetrics;
+import surrounding.StandardNodeNetworkGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+
+import javax.management.ObjectName;
+
+public class JUnitSimulationMetricsTest {
+
+    @Test
+    public void histogramShouldRoundPercentilesUpToTheirBucket() {
+        Histogram histogram = new Histogram();
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(50.5, histogram.getMean(), 0.0);
+        Assert.assertEquals(63, histogram.getValueAtPercentile(50));
+        Assert.assertEquals(100, histogram.getValueAtPercentile(99));
+        Assert.assertEquals(1, histogram.getValueAtPercentile(0));
+        Assert.assertEquals(100, histogram.getMax());
+    }
+
+    @Test
+    public void latencyHistogramShouldKeepItsPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        Assert.assertEquals(100000, histogram.getCount());
+        Assert.assertEquals(1000, histogram.getMin());
+        Assert.assertEquals(50000000, histogram.getValueAtPercentile(50), 50000000 / 128);
+        Assert.assertEquals(99900000, histogram.getValueAtPercentile(99.9), 99900000 / 128);
+        Assert.assertEquals(100000000, histogram.getValueAtPercentile(100));
+        Assert.assertEquals(0, new LatencyHistogram().getValueAtPercentile(50));
+    }
+
+    @Test
+    public void metricsShouldCountTheSimulation() throws Exception {
+        Field field = new Field(300, 100, 2, 20, 4, 7L);
+        HashMap<Position, Node> nodeMap = new StandardNodeNetworkGenerator(10, 10, 10, 15,
+                45, 50, field).generate();
+        SimulationMetrics metrics = field.getMetrics();
+        ObjectName name = new ObjectName("surrounding:type=SimulationMetrics,name=\"test\"");
+
+        field.loadNodeNetwork(nodeMap);
+        field.setSimulationIsRunning(true);
+        for (int i = 0; i < 300; i++) {
+            field.update();
+        }
+
+        Assert.assertEquals(300, metrics.getUpdates());
+        Assert.assertTrue(metrics.getRequestMessagesCreated() > 0);
+        Assert.assertTrue(metrics.getMessagesDelivered() > 0);
+        Assert.assertTrue(metrics.getTaskQueueDepth().getCount() > 0);
+        Assert.assertTrue(metrics.getSuccessfulRequests() <= metrics.getRequestMessagesCreated());
+        Assert.assertEquals(metrics.getSuccessfulRequests(),
+                metrics.getRequestLatency().getUpdates().getCount());
+        long byNode = 0;
+        for (RequestLatency latency : metrics.getRequestLatencyByNode().values()) {
+            byNode += latency.getHops().getCount();
+        }
+        Assert.assertEquals(metrics.getSuccessfulRequests(), byNode);
+        if (metrics.getSuccessfulRequests() > 0) {
+            Assert.assertTrue(metrics.getRequestLatency().getHops().getMin() >= 1);
+            Assert.assertTrue(metrics.getRequestLatency().getUpdates().getMin()
+                    >= 2 * metrics.getRequestLatency().getHops().getMin());
+        }
+
+        metrics.registerMBean("test");
+        try {
+            Assert.assertEquals(300L, ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(name, "Updates"));
+        } finally {
+            metrics.unregisterMBean();
+        }
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getUpdates());
+    }
+}
@@ -21,7 +21,9 @@ import surrounding.StandardNodeNetworkGenerator;
  * </br>
  * There are 50*50 nodes, spread out by 10 units from each other.
  * Each node has a signal strength of 15 units, therefore having 
- * up to 8 neighbors.
+ * up to 8 neighbors.</br>
+ * </br>
+ * The nodes are updated using one thread per available processor.
  * 
  * @author  Alexander Beliaev
  * @version 1.0
@@ -55,6 +57,7 @@ public class SimTester{
 		field.loadNodeNetwork(new StandardNodeNetworkGenerator(node_count_x,
 				node_count_y, node_distance, node_signal_strength,
 				request_life, agent_life, field).generate());
+		field.setNumberOfThreads(Runtime.getRuntime().availableProcessors());
 		new Thread(new FieldRunner(field)).start();
 	}
 }
@@ -1,10 +1,6 @@
 package nodebasis;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
-
-import coordination.Position;
+import java.io.IOException;
 
 /**
  * The <code>AgentMessage</code> class extends the <code>Message</code> class, and is
@@ -13,7 +9,11 @@ import coordination.Position;
  * </br>
  * It is important to note that whenever 
  * a node receives an instance to this class, that the node foremost fetches data from
- * the message before proceeding with updating the message itself. 
+ * the message before proceeding with updating the message itself.</br>
+ * </br>
+ * The message doesn't copy the routing table of the nodes it visits. It keeps the
+ * table of the last visited node as it is, together with that node, and the entries
+ * are read as being one step further away, through that node.
  * 
  * @author  Alexander Beliaev
  * @version 1.0
@@ -24,8 +24,9 @@ public class AgentMessage extends Message{
 	
 	private final String agentId;
 	
-	private Map<Integer, ImplicitEvent> routingMap;
-	private Map<Position, Node> visitedNodes;
+	private RoutingTable routingTable;
+	private Node lastVisitedNode;
+	private NodeSet visitedNodes;
 	
 	/**
 	 * <p>
@@ -42,13 +43,10 @@ public class AgentMessage extends Message{
 			NullPointerException{
 		super(messageLife);
 		if(node != null){
-			routingMap = new HashMap<Integer, ImplicitEvent>();
-			visitedNodes = new HashMap<Position, Node>();
-			visitedNodes.put(node.getPosition(), node);
+			routingTable = node.getRoutingTable();
+			visitedNodes = new NodeSet();
+			visitedNodes.add(node);
 			
-			for(Entry<Integer, ImplicitEvent> entry : node.getRoutingMap().entrySet()){
-				routingMap.put(entry.getKey(), entry.getValue());
-			}
 			agentId = node.toString() + "." + time;
 		}else{
 			throw new NullPointerException("null node given");
@@ -57,33 +55,59 @@ public class AgentMessage extends Message{
 	
 	/**
 	 * <p>
-	 * Fetch data from the routing map (by calling <code>getRoutingMap()</code>) of this instance before calling this 
-	 * method. When this method is called the internal data is cleared, to
-	 * then be redefined with data from the given <code>Node</code>.</br>
+	 * Creates an <code>AgentMessage</code> object from a checkpoint, as written by
+	 * <code>writeCheckpoint</code>.
+	 * </p>
+	 * @param in the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be read.
+	 */
+	AgentMessage(CheckpointInput in) throws IOException{
+		super(in);
+		agentId = in.readString();
+		routingTable = in.readRoutingTable();
+		lastVisitedNode = in.readNode();
+		visitedNodes = NodeSet.readCheckpoint(in);
+	}
+	
+	/**
+	 * <p>
+	 * Fetch data from the routing table (by calling <code>getRoutingTable()</code>) of this instance before calling this 
+	 * method. When this method is called the internal data is replaced
+	 * by the routing table of the given <code>Node</code>.</br>
 	 * </br>
 	 * This method must be called before passing on this message to another <code>Node</code>.
 	 * </p>
 	 * @param node currently visited <code>Node</code>.
 	 */
 	protected void update(Node node){
-		routingMap.clear();
-		
-		for(Entry<Integer, ImplicitEvent> entry : node.getRoutingMap().entrySet()){
-			routingMap.put(entry.getKey(), new ImplicitEvent(entry.getValue().getId(),
-					entry.getValue().getDistance()+1, node));
-		}
-		visitedNodes.put(node.getPosition(), node);
+		routingTable = node.getRoutingTable();
+		lastVisitedNode = node;
+		visitedNodes.add(node);
 	}
 	
 	/**
 	 * <p>
-	 * Returns the routing map which the agent message holds. It contains
-	 * directions to various events.
+	 * Returns the routing table which the agent message holds. It contains
+	 * directions to various events, as seen from the last visited node (see
+	 * <code>getLastVisitedNode()</code>).
 	 * </p>
-	 * @return a HashMap<Integer, ImplicitEvent> with directions to various events.
+	 * @return a <code>RoutingTable</code> with directions to various events.
 	 */
-	protected HashMap<Integer, ImplicitEvent> getRoutingMap(){
-		return new HashMap<Integer, ImplicitEvent>(routingMap);
+	protected RoutingTable getRoutingTable(){
+		return routingTable;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the node which the agent message last visited, and through
+	 * which the entries of its routing table lead. If the message hasn't
+	 * been passed along yet, the entries are as they are, and <code>null</code>
+	 * is returned.
+	 * </p>
+	 * @return the last visited <code>Node</code>, or <code>null</code>.
+	 */
+	protected Node getLastVisitedNode(){
+		return lastVisitedNode;
 	}
 	
 	/**
@@ -96,13 +120,26 @@ public class AgentMessage extends Message{
 	 * <code>false</code> otherwise.
 	 */
 	protected boolean hasVisitedNode(Node node){
-		if(node != null){
-			return visitedNodes.containsValue(node);
-		}
-		return false;
+		return visitedNodes.contains(node);
 	}
 	
 	public String getAgentId(){
 		return agentId;
 	}
+	
+	/**
+	 * <p>
+	 * Writes the state of the message to a checkpoint.
+	 * </p>
+	 * @param out the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be written.
+	 */
+	@Override
+	void writeCheckpoint(CheckpointOutput out) throws IOException{
+		super.writeCheckpoint(out);
+		out.writeString(agentId);
+		out.writeRoutingTable(routingTable);
+		out.writeNode(lastVisitedNode);
+		visitedNodes.writeCheckpoint(out);
+	}
 }
@@ -0,0 +1,228 @@
+package nodebasis;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The <code>AsyncResultSink</code> class writes the results on a thread of its own,
+ * so receiving a result only means copying a few <code>int</code>s. The results are
+ * held as records in a ring buffer, allocated once when the sink is created, which
+ * the writer thread drains to the stream in batches. Should the buffer be full, the
+ * receiving thread waits for the writer to catch up.</br>
+ * </br>
+ * The sink only keeps track of one receiving thread, which is how the
+ * <code>Field</code> hands over its results. The sink should be closed once the
+ * simulation is over, which writes out the remaining results. The stream itself
+ * is flushed, but not closed.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see ResultFormat
+ * */
+public class AsyncResultSink implements ResultSink, Closeable{
+	
+	/**
+	 * The number of records the buffer holds unless otherwise specified.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 14;
+	
+	private static final long PARK_NANOS = 1000000L;
+	
+	private final DataOutputStream out;
+	private final ResultFormat format;
+	private final int[] records;
+	private final int mask;
+	private final Thread writer;
+	private volatile long received;
+	private volatile long written;
+	private volatile long flushed;
+	private volatile boolean closed;
+	private volatile IOException failure;
+	
+	/**
+	 * <p>
+	 * Creates an <code>AsyncResultSink</code> object writing to the specified
+	 * stream, in the specified format, with a buffer of the default capacity.
+	 * </p>
+	 * @param out the stream to write to.
+	 * @param format the format to write the results in.
+	 * @throws java.lang.NullPointerException if either the stream or the format
+	 * is null.
+	 */
+	public AsyncResultSink(OutputStream out, ResultFormat format) throws NullPointerException{
+		this(out, format, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * <p>
+	 * Creates an <code>AsyncResultSink</code> object writing to the specified
+	 * stream, in the specified format. The capacity of the buffer is rounded
+	 * up to the closest power of two.
+	 * </p>
+	 * @param out the stream to write to.
+	 * @param format the format to write the results in.
+	 * @param capacity the number of records the buffer holds.
+	 * @throws java.lang.IllegalArgumentException if the capacity is less than 1
+	 * or greater than 2<sup>26</sup>.
+	 * @throws java.lang.NullPointerException if either the stream or the format
+	 * is null.
+	 */
+	public AsyncResultSink(OutputStream out, ResultFormat format, int capacity)
+			throws IllegalArgumentException, NullPointerException{
+		if(out == null){
+			throw new NullPointerException("out can not be null");
+		}else if(format == null){
+			throw new NullPointerException("format can not be null");
+		}else if(capacity < 1 || capacity > 1 << 26){
+			throw new IllegalArgumentException("capacity must be between 1 and 2^26");
+		}
+		if(Integer.bitCount(capacity) != 1){
+			capacity = Integer.highestOneBit(capacity) << 1;
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		this.format = format;
+		records = new int[capacity * ResultFormat.RECORD_SIZE];
+		mask = capacity - 1;
+		writer = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				drain();
+			}
+		}, "result-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+	
+	/**
+	 * @throws java.lang.IllegalStateException if the sink is closed.
+	 * @throws java.io.UncheckedIOException if writing an earlier result failed.
+	 */
+	@Override
+	public void eventRetrieved(int time, Node node, int timeSent, Event event)
+			throws IllegalStateException, UncheckedIOException{
+		ResultFormat.record(records, claim(), time, node, timeSent, event);
+		received++;
+	}
+	
+	/**
+	 * @throws java.lang.IllegalStateException if the sink is closed.
+	 * @throws java.io.UncheckedIOException if writing an earlier result failed.
+	 */
+	@Override
+	public void expiredRequestRetrieved(int time, Node node, int eventTime)
+			throws IllegalStateException, UncheckedIOException{
+		ResultFormat.record(records, claim(), time, node, eventTime, null);
+		received++;
+	}
+	
+	/**
+	 * <p>
+	 * Waits until every result received so far has been written, and the
+	 * stream flushed.
+	 * </p>
+	 * @throws java.io.UncheckedIOException if writing the results failed.
+	 */
+	@Override
+	public void flush() throws UncheckedIOException{
+		long target = received;
+		
+		while(flushed < target && failure == null && writer.isAlive()){
+			LockSupport.unpark(writer);
+			Thread.yield();
+		}
+		checkFailure();
+	}
+	
+	/**
+	 * <p>
+	 * Writes out the remaining results, and stops the writer thread. Closing
+	 * a closed sink has no effect.
+	 * </p>
+	 * @throws java.io.IOException if writing the results failed.
+	 */
+	@Override
+	public void close() throws IOException{
+		closed = true;
+		LockSupport.unpark(writer);
+		try{
+			writer.join();
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		if(failure != null){
+			throw failure;
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns the offset of the next free record, waiting for the writer
+	 * if the buffer is full.
+	 * */
+	private int claim(){
+		long position = received;
+		
+		if(closed){
+			throw new IllegalStateException("the sink is closed");
+		}
+		while(position - written > mask){
+			checkFailure();
+			LockSupport.unpark(writer);
+			Thread.yield();
+		}
+		return (int)(position & mask) * ResultFormat.RECORD_SIZE;
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private void checkFailure() throws UncheckedIOException{
+		if(failure != null){
+			throw new UncheckedIOException(failure);
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * The body of the writer thread. Writes the records as they are received,
+	 * and flushes the stream whenever it has caught up.
+	 * */
+	private void drain(){
+		long position = written;
+		long end;
+		boolean done;
+		
+		try{
+			do{
+				done = closed;
+				end = received;
+				if(position == end){
+					if(flushed != position){
+						out.flush();
+						flushed = position;
+					}
+					if(!done){
+						LockSupport.parkNanos(this, PARK_NANOS);
+					}
+				}else{
+					while(position < end){
+						format.write(records, (int)(position & mask) * ResultFormat.RECORD_SIZE, out);
+						position++;
+					}
+					written = position;
+					done = false;
+				}
+			}while(!done);
+		}catch(IOException e){
+			failure = e;
+		}
+	}
+}
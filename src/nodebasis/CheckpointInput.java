@@ -0,0 +1,264 @@
+package nodebasis;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import coordination.Position;
+
+/**
+ * The <code>CheckpointInput</code> class reads a checkpoint written by a
+ * <code>CheckpointOutput</code> from a buffer, typically a memory mapped file.
+ * The CRC-32 at the end of the checkpoint is checked before anything is read, so a
+ * truncated or damaged checkpoint is turned down before any state is restored.</br>
+ * </br>
+ * Nodes are read as indices into the nodes given by <code>setNodes</code>, or through
+ * the <code>NodeIndexing</code> given by <code>setNodeIndexing</code>, and every
+ * event is read as a single <code>Event</code> however many times it was written.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see CheckpointOutput
+ * */
+public final class CheckpointInput{
+	
+	private final ByteBuffer buffer;
+	private final IntObjectMap<Event> events;
+	private final List<RoutingTable> routingTables;
+	private final long nanoTime;
+	private Node[] nodes;
+	private NodeIndexing nodeIndexing;
+	
+	/**
+	 * <p>
+	 * Creates a <code>CheckpointInput</code> object reading the checkpoint held by
+	 * the specified buffer, from its position to its limit.
+	 * </p>
+	 * @param buffer the buffer.
+	 * @throws java.io.IOException if the checkpoint is truncated or damaged.
+	 */
+	public CheckpointInput(ByteBuffer buffer) throws IOException{
+		CRC32 crc = new CRC32();
+		ByteBuffer content;
+		
+		if(buffer.remaining() < 8){
+			throw new IOException("checkpoint is truncated");
+		}
+		content = buffer.duplicate();
+		content.limit(content.limit() - 8);
+		crc.update(content.duplicate());
+		if(crc.getValue() != buffer.getLong(buffer.limit() - 8)){
+			throw new IOException("checkpoint is damaged");
+		}
+		this.buffer = content;
+		events = new IntObjectMap<Event>();
+		routingTables = new ArrayList<RoutingTable>();
+		nanoTime = System.nanoTime();
+		nodes = new Node[0];
+	}
+	
+	/**
+	 * <p>
+	 * Sets the nodes which the node indices of the checkpoint refer to.
+	 * </p>
+	 * @param nodes the nodes, by their index when the checkpoint was written.
+	 */
+	public void setNodes(Node[] nodes){
+		this.nodes = nodes;
+	}
+	
+	/**
+	 * <p>
+	 * Sets what the node indices of the checkpoint are read as, instead of
+	 * indices into the nodes given by <code>setNodes</code>.
+	 * </p>
+	 * @param nodeIndexing the node indexing.
+	 */
+	public void setNodeIndexing(NodeIndexing nodeIndexing){
+		this.nodeIndexing = nodeIndexing;
+	}
+	
+	/**
+	 * <p>
+	 * Reads an <code>int</code>.
+	 * </p>
+	 * @return the value.
+	 * @throws java.io.IOException if the checkpoint ends.
+	 */
+	public int readInt() throws IOException{
+		try{
+			return buffer.getInt();
+		}catch(BufferUnderflowException e){
+			throw new IOException("unexpected end of checkpoint", e);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Reads a <code>long</code>.
+	 * </p>
+	 * @return the value.
+	 * @throws java.io.IOException if the checkpoint ends.
+	 */
+	public long readLong() throws IOException{
+		try{
+			return buffer.getLong();
+		}catch(BufferUnderflowException e){
+			throw new IOException("unexpected end of checkpoint", e);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Reads a <code>boolean</code>.
+	 * </p>
+	 * @return the value.
+	 * @throws java.io.IOException if the checkpoint ends.
+	 */
+	public boolean readBoolean() throws IOException{
+		try{
+			return buffer.get() != 0;
+		}catch(BufferUnderflowException e){
+			throw new IOException("unexpected end of checkpoint", e);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Reads a <code>String</code>, which may be <code>null</code>.
+	 * </p>
+	 * @return the value.
+	 * @throws java.io.IOException if the checkpoint ends.
+	 */
+	public String readString() throws IOException{
+		int length = readInt();
+		byte[] bytes;
+		
+		if(length < 0){
+			return null;
+		}else if(length > buffer.remaining()){
+			throw new IOException("unexpected end of checkpoint");
+		}
+		bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * <p>
+	 * Reads a <code>Position</code>.
+	 * </p>
+	 * @return the position.
+	 * @throws java.io.IOException if the checkpoint ends.
+	 */
+	public Position readPosition() throws IOException{
+		int x = readInt();
+		
+		return new Position(x, readInt());
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the whole checkpoint has been read.
+	 * </p>
+	 * @return <code>true</code> if the whole checkpoint has been read.
+	 */
+	public boolean isFinished(){
+		return !buffer.hasRemaining();
+	}
+	
+	/**
+	 * <p>
+	 * Reads a node, or null.
+	 * </p>
+	 */
+	Node readNode() throws IOException{
+		int index = readInt();
+		
+		if(index == -1){
+			return null;
+		}else if(nodeIndexing != null){
+			return nodeIndexing.getNode(index);
+		}else if(index < 0 || index >= nodes.length){
+			throw new IOException("unknown node in checkpoint: " + index);
+		}
+		return nodes[index];
+	}
+	
+	/**
+	 * <p>
+	 * Reads a node, which can't be null.
+	 * </p>
+	 */
+	Node readNonNullNode() throws IOException{
+		Node node = readNode();
+		
+		if(node == null){
+			throw new IOException("missing node in checkpoint");
+		}
+		return node;
+	}
+	
+	/**
+	 * <p>
+	 * Reads an event, returning the same event every time it is read. When
+	 * nodes are read through a <code>NodeIndexing</code>, the position of the
+	 * node where the event occurred is read along with it, since the node may
+	 * only be known by its index.
+	 * </p>
+	 */
+	Event readEvent() throws IOException{
+		int id = readInt();
+		int time = readInt();
+		Node node = readNonNullNode();
+		Position position = nodeIndexing != null ? readPosition() : node.getPosition();
+		Event event = events.get(id);
+		
+		if(event == null){
+			event = new Event(id, time, node, position);
+			events.put(id, event);
+		}
+		return event;
+	}
+	
+	/**
+	 * <p>
+	 * Reads a routing table, returning the same routing table every time it
+	 * is referred to.
+	 * </p>
+	 */
+	RoutingTable readRoutingTable() throws IOException{
+		int reference = readInt();
+		int size;
+		RoutingTable routingTable = RoutingTable.EMPTY;
+		
+		if(reference != -1){
+			if(reference < 0 || reference >= routingTables.size()){
+				throw new IOException("unknown routing table in checkpoint: " + reference);
+			}
+			return routingTables.get(reference);
+		}
+		size = readInt();
+		for(int i=0; i<size; i++){
+			routingTable = routingTable.put(new ImplicitEvent(readInt(), readInt(),
+					readInt(), readNode()));
+		}
+		routingTables.add(routingTable);
+		return routingTable;
+	}
+	
+	/**
+	 * <p>
+	 * Returns System.nanoTime() at the time the checkpoint was opened, which
+	 * wall-clock times are read relative to.
+	 * </p>
+	 */
+	long getNanoTime(){
+		return nanoTime;
+	}
+}
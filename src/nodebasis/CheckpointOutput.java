@@ -0,0 +1,246 @@
+package nodebasis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import coordination.Position;
+
+/**
+ * The <code>CheckpointOutput</code> class writes a checkpoint of a simulation to a
+ * channel. The checkpoint is written through a fixed size buffer, which is handed to
+ * the channel each time it fills up, so a checkpoint of any size is written without
+ * being held in memory.</br>
+ * </br>
+ * Numbers are written big-endian. Nodes are written as their index within the node
+ * network, unless a <code>NodeIndexing</code> is given, and each routing table is only written once, however many nodes and messages
+ * share it. A CRC-32 of everything written is kept, and written last by
+ * <code>finish()</code>.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see CheckpointInput
+ * */
+public final class CheckpointOutput{
+	
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+	private final CRC32 crc;
+	private final Map<RoutingTable, Integer> routingTables;
+	private final long nanoTime;
+	private NodeIndexing nodeIndexing;
+	
+	/**
+	 * <p>
+	 * Creates a <code>CheckpointOutput</code> object writing to the specified channel.
+	 * </p>
+	 * @param channel the channel.
+	 */
+	public CheckpointOutput(WritableByteChannel channel){
+		this.channel = channel;
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		crc = new CRC32();
+		routingTables = new IdentityHashMap<RoutingTable, Integer>();
+		nanoTime = System.nanoTime();
+	}
+	
+	/**
+	 * <p>
+	 * Sets the indices the nodes are written as, instead of their indices
+	 * within the node network.
+	 * </p>
+	 * @param nodeIndexing the node indexing.
+	 */
+	public void setNodeIndexing(NodeIndexing nodeIndexing){
+		this.nodeIndexing = nodeIndexing;
+	}
+	
+	/**
+	 * <p>
+	 * Writes an <code>int</code>.
+	 * </p>
+	 * @param value the value.
+	 * @throws java.io.IOException if the channel couldn't be written to.
+	 */
+	public void writeInt(int value) throws IOException{
+		ensureRemaining(4);
+		buffer.putInt(value);
+	}
+	
+	/**
+	 * <p>
+	 * Writes a <code>long</code>.
+	 * </p>
+	 * @param value the value.
+	 * @throws java.io.IOException if the channel couldn't be written to.
+	 */
+	public void writeLong(long value) throws IOException{
+		ensureRemaining(8);
+		buffer.putLong(value);
+	}
+	
+	/**
+	 * <p>
+	 * Writes a <code>boolean</code>, as one byte.
+	 * </p>
+	 * @param value the value.
+	 * @throws java.io.IOException if the channel couldn't be written to.
+	 */
+	public void writeBoolean(boolean value) throws IOException{
+		ensureRemaining(1);
+		buffer.put(value ? (byte)1 : (byte)0);
+	}
+	
+	/**
+	 * <p>
+	 * Writes a <code>String</code>, which may be <code>null</code>, as its length
+	 * followed by its UTF-8 bytes.
+	 * </p>
+	 * @param value the value.
+	 * @throws java.io.IOException if the channel couldn't be written to.
+	 */
+	public void writeString(String value) throws IOException{
+		byte[] bytes;
+		int offset = 0;
+		int length;
+		
+		if(value == null){
+			writeInt(-1);
+			return;
+		}
+		bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		while(offset < bytes.length){
+			ensureRemaining(1);
+			length = Math.min(buffer.remaining(), bytes.length - offset);
+			buffer.put(bytes, offset, length);
+			offset += length;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Writes a <code>Position</code>.
+	 * </p>
+	 * @param position the position.
+	 * @throws java.io.IOException if the channel couldn't be written to.
+	 */
+	public void writePosition(Position position) throws IOException{
+		writeInt(position.getX());
+		writeInt(position.getY());
+	}
+	
+	/**
+	 * <p>
+	 * Writes the CRC-32 of everything written so far, and hands what is left in
+	 * the buffer to the channel. Nothing should be written afterwards.
+	 * </p>
+	 * @throws java.io.IOException if the channel couldn't be written to.
+	 */
+	public void finish() throws IOException{
+		drain();
+		buffer.putLong(crc.getValue());
+		buffer.flip();
+		while(buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	
+	/**
+	 * <p>
+	 * Writes a node as its index, or -1 for null.
+	 * </p>
+	 */
+	void writeNode(Node node) throws IOException{
+		if(node == null){
+			writeInt(-1);
+		}else{
+			writeInt(nodeIndexing == null ? node.getIndex() : nodeIndexing.getIndexOf(node));
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Writes an event. The same event may be written several times, and is
+	 * read back as a single event. When nodes are written through a
+	 * <code>NodeIndexing</code>, the position of the node where the event
+	 * occurred is written along with it.
+	 * </p>
+	 */
+	void writeEvent(Event event) throws IOException{
+		writeInt(event.getId());
+		writeInt(event.getTime());
+		writeNode(event.getNode());
+		if(nodeIndexing != null){
+			writePosition(event.getPosition());
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Writes a routing table. A routing table which has already been written
+	 * is only referred to by its number.
+	 * </p>
+	 */
+	void writeRoutingTable(RoutingTable routingTable) throws IOException{
+		Integer reference = routingTables.get(routingTable);
+		
+		if(reference != null){
+			writeInt(reference);
+			return;
+		}
+		routingTables.put(routingTable, routingTables.size());
+		writeInt(-1);
+		writeInt(routingTable.size());
+		for(ImplicitEvent implicitEvent : routingTable){
+			writeInt(implicitEvent.getId());
+			writeInt(implicitEvent.getTime());
+			writeInt(implicitEvent.getDistance());
+			writeNode(implicitEvent.getNode());
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns System.nanoTime() at the time the checkpoint was started, which
+	 * wall-clock times are written relative to.
+	 * </p>
+	 */
+	long getNanoTime(){
+		return nanoTime;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Makes room for the specified number of bytes in the buffer, by handing
+	 * the buffer to the channel if needed.
+	 * */
+	private void ensureRemaining(int bytes) throws IOException{
+		if(buffer.remaining() < bytes){
+			drain();
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Hands the content of the buffer to the channel, and adds it to the CRC.
+	 * */
+	private void drain() throws IOException{
+		buffer.flip();
+		crc.update(buffer.duplicate());
+		while(buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
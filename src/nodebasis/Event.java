@@ -32,6 +32,23 @@ public class Event{
 		this.position = node.getPosition();
 		this.node = node;
 	}
+	
+	/**
+	 * <p>
+	 * Creates an <code>Event</code> object whose originating node is only known
+	 * by its index, and therefore doesn't know its own position.
+	 * </p>
+	 * @param id the id of the event.
+	 * @param time the time of the event.
+	 * @param node the originating node where the event occurred.
+	 * @param position the position of the originating node.
+	 */
+	Event(int id, int time, Node node, Position position){
+		this.id = id;
+		this.time = time;
+		this.position = position;
+		this.node = node;
+	}
 
 	/**
 	 * <p>
@@ -0,0 +1,20 @@
+package nodebasis;
+
+/**
+ * The <code>EvictionPolicy enum</code> describes which entry a <code>Node</code>
+ * drops from its routing table once the table has grown past its capacity.
+ * <ul>
+ * 		<li><code>OLDEST_EVENT_FIRST</code> drops the entry of the event with the
+ * 			lowest id, i.e. the event which occurred first.</li>
+ * 		<li><code>FARTHEST_EVENT_FIRST</code> drops the entry of the event which is
+ * 			the farthest away, or the oldest of those if there are several.</li>
+ * </ul>
+ * 
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see RoutingTable
+ * */
+public enum EvictionPolicy {
+	OLDEST_EVENT_FIRST, FARTHEST_EVENT_FIRST;
+}
@@ -2,7 +2,13 @@ package nodebasis;
 
 /**
  * Classes extending this abstract class can be used in purpose of monitoring
- * when a specific node discards an expired request or agent message. 
+ * when a specific node discards an expired request or agent message. </br>
+ * </br>
+ * A node which gives up on one of its own requests, since its request message
+ * hasn't returned in time, is only reported to a reader in the
+ * <code>ABANDONED_REQUESTS</code> mode. The request message is usually discarded
+ * as expired somewhere else as well, so a reader in any other mode is told about
+ * each request id once.
  * 
  * @author  Alexander Beliaev
  * @version 1.0
@@ -11,7 +17,7 @@ package nodebasis;
 public abstract class ExpirationReader{
 	
 	public enum ReaderMode{
-		EXPIRED_AGENTS, EXPIRED_REQUESTS, ALL;
+		EXPIRED_AGENTS, EXPIRED_REQUESTS, ALL, ABANDONED_REQUESTS;
 	}
 	
 	public abstract void readIdOfExpiredObject(String str);
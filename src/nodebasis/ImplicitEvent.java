@@ -2,8 +2,8 @@ package nodebasis;
 
 /**
  * The ImplicitEvent is figuratively speaking the shadow of an event which previously has
- * occurred within the node network. It holds the id of the event and a node which
- * knows the direction to the node where the event originated.
+ * occurred within the node network. It holds the id of the event, the time it occurred,
+ * and a node which knows the direction to the node where the event originated.
  * 
  * @author  Alexander Beliaev
  * @version 1.0
@@ -12,6 +12,7 @@ package nodebasis;
 public class ImplicitEvent{
 
 	private final int id;
+	private final int time;
 	private int distance;
 	private Node node;
 	
@@ -23,13 +24,13 @@ public class ImplicitEvent{
 	 * @see Event
 	 */
 	public ImplicitEvent(Event event){
-		this(event.getId(), 0, event.getNode());
+		this(event.getId(), event.getTime(), 0, event.getNode());
 	}
 	
 	/**
 	 * <p>
 	 * Creates an <code>ImplicitEvent</code> object with attributes resembling
-	 * a real event.
+	 * a real event, which occurred at time 0.
 	 * </p>
 	 * @param id the id of the event.
 	 * @param distance the distance to the event.
@@ -37,7 +38,23 @@ public class ImplicitEvent{
 	 * @see Event
 	 */
 	public ImplicitEvent(int id, int distance, Node node){
+		this(id, 0, distance, node);
+	}
+	
+	/**
+	 * <p>
+	 * Creates an <code>ImplicitEvent</code> object with attributes resembling
+	 * a real event.
+	 * </p>
+	 * @param id the id of the event.
+	 * @param time the time of the event.
+	 * @param distance the distance to the event.
+	 * @param node a node which knows the way to the event.
+	 * @see Event
+	 */
+	public ImplicitEvent(int id, int time, int distance, Node node){
 		this.id = id;
+		this.time = time;
 		this.distance = distance;
 		this.node = node;
 	}
@@ -53,6 +70,17 @@ public class ImplicitEvent{
 		return id;
 	}
 	
+	/**
+	 * <p>
+	 * Returns the time of the event.
+	 * </p>
+	 * @return the time of the event.
+	 * @see Event
+	 */
+	public int getTime(){
+		return time;
+	}
+	
 	/**
 	 * <p>
 	 * Sets the distance to the event.
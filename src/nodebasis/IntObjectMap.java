@@ -0,0 +1,195 @@
+package nodebasis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>IntObjectMap</code> class maps primitive <code>int</code> keys to
+ * objects, without boxing the keys or creating an entry object per mapping.
+ * The keys and values are kept in two parallel arrays, using open addressing
+ * with linear probing. A slot is free when its value is <code>null</code>,
+ * hence <code>null</code> values can't be stored.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @param <V> the type of the values.
+ * */
+class IntObjectMap<V>{
+	
+	private static final int DEFAULT_CAPACITY = 8;
+	
+	private int[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>IntObjectMap</code> object.
+	 * </p>
+	 */
+	IntObjectMap(){
+		keys = new int[DEFAULT_CAPACITY];
+		values = new Object[DEFAULT_CAPACITY];
+		mask = DEFAULT_CAPACITY - 1;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of mappings in the map.
+	 * </p>
+	 * @return the number of mappings.
+	 */
+	int size(){
+		return size;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the value mapped to the specified key, or <code>null</code> if
+	 * the key isn't mapped.
+	 * </p>
+	 * @param key the key.
+	 * @return the value, or <code>null</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	V get(int key){
+		for(int slot=slot(key); values[slot]!=null; slot=(slot+1)&mask){
+			if(keys[slot] == key){
+				return (V)values[slot];
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * <p>
+	 * Maps the specified key to the specified value, replacing any
+	 * value previously mapped to the key.
+	 * </p>
+	 * @param key the key.
+	 * @param value the value.
+	 * @return the previous value, or <code>null</code> if the key wasn't mapped.
+	 * @throws java.lang.NullPointerException if the value is <code>null</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	V put(int key, V value) throws NullPointerException{
+		int slot;
+		Object previous;
+		
+		if(value == null){
+			throw new NullPointerException("null values can not be stored");
+		}
+		for(slot=slot(key); values[slot]!=null; slot=(slot+1)&mask){
+			if(keys[slot] == key){
+				previous = values[slot];
+				values[slot] = value;
+				return (V)previous;
+			}
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size > values.length / 2){
+			resize(values.length * 2);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * <p>
+	 * Removes the mapping of the specified key, if any.
+	 * </p>
+	 * @param key the key.
+	 * @return the removed value, or <code>null</code> if the key wasn't mapped.
+	 */
+	@SuppressWarnings("unchecked")
+	V remove(int key){
+		int slot = slot(key);
+		Object removed;
+		
+		while(values[slot] != null && keys[slot] != key){
+			slot = (slot + 1) & mask;
+		}
+		removed = values[slot];
+		if(removed != null){
+			shiftBack(slot);
+			size--;
+		}
+		
+		return (V)removed;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the values of the map, in no particular order.
+	 * </p>
+	 * @return a new list holding the values.
+	 */
+	@SuppressWarnings("unchecked")
+	List<V> values(){
+		List<V> list = new ArrayList<V>(size);
+		
+		for(Object value : values){
+			if(value != null){
+				list.add((V)value);
+			}
+		}
+		return list;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Spreads the bits of the key, since event ids are consecutive.
+	 * */
+	private int slot(int key){
+		int hash = key * 0x9E3779B9;
+		
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Frees the slot, moving back any following mapping which would
+	 * otherwise no longer be found.
+	 * */
+	private void shiftBack(int free){
+		int home;
+		
+		for(int slot=(free+1)&mask; values[slot]!=null; slot=(slot+1)&mask){
+			home = slot(keys[slot]);
+			if(((slot - home) & mask) >= ((slot - free) & mask)){
+				keys[free] = keys[slot];
+				values[free] = values[slot];
+				free = slot;
+			}
+		}
+		values[free] = null;
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private void resize(int capacity){
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		int slot;
+		
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		for(int i=0; i<oldValues.length; i++){
+			if(oldValues[i] != null){
+				slot = slot(oldKeys[i]);
+				while(values[slot] != null){
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package nodebasis;
 
+import java.io.IOException;
+
 /**
  * A <code>Message</code> is a means for the a node to spread or fetch information between
  * other nodes. The class implements the Lifespan interface.
@@ -31,7 +33,33 @@ public abstract class Message implements Lifespan{
 		}
 	}
 	
+	/**
+	 * <p>
+	 * Creates a <code>Message</code> object from a checkpoint, as written by
+	 * <code>writeCheckpoint</code>.
+	 * </p>
+	 * @param in the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be read.
+	 */
+	Message(CheckpointInput in) throws IOException{
+		messageLifespan = in.readInt();
+		currentMessageLifespan = in.readInt();
+	}
+	
 	protected abstract void update(Node node);
+	protected abstract boolean hasVisitedNode(Node node);
+	
+	/**
+	 * <p>
+	 * Writes the state of the message to a checkpoint.
+	 * </p>
+	 * @param out the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be written.
+	 */
+	void writeCheckpoint(CheckpointOutput out) throws IOException{
+		out.writeInt(messageLifespan);
+		out.writeInt(currentMessageLifespan);
+	}
 	
 	/**
 	 * <p>
@@ -54,7 +82,7 @@ public abstract class Message implements Lifespan{
 	public boolean isDead(){
 		return currentMessageLifespan <= 0;
 	}
-
+	
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -63,7 +91,7 @@ public abstract class Message implements Lifespan{
 		result = prime * result + messageLifespan;
 		return result;
 	}
-
+	
 	/**
 	 * <p>
 	 * Returns <code>true</code> if and only if this <code>Message</code> and 
@@ -88,7 +116,7 @@ public abstract class Message implements Lifespan{
 			return false;
 		return true;
 	}
-
+	
 	
 	
 }
@@ -1,15 +1,17 @@
 package nodebasis;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import surrounding.Field;
+import surrounding.NodeStore;
+import surrounding.SimulationMetrics;
 import coordination.Position;
 
 /**
@@ -17,6 +19,7 @@ import coordination.Position;
  * The <code>Node</code> class resembles a wireless point. I has the ability to communicate
  * with nodes within its signal strength. The node creates tasks and stores them in
  * a priority queue in order to prioritize more important happenings, and to keep things tidy.
+ * Tasks of equal priority are handled in the order they were created.
  * </p>
  * <p>
  * Depending on what tasks the node hold, upon calling the update method the node
@@ -36,7 +39,10 @@ import coordination.Position;
  * the request still is active);
  * or passing it along accordingly.</br>
  * If either message has reached or is past its expiration date, the node will disregard it
- * by removing it from the priority queue, and then try the next task instead.</br> 
+ * by removing it from the priority queue, and then try the next task instead. The lifespan
+ * of a message counts the nodes it passes through rather than updates, so it is checked
+ * when the message is handled, and a message waiting in a queue never needs to be
+ * looked at for expiring. Only requests expire by time (see <code>update()</code>).</br> 
  * </br>
  * If a newly created agent message could not be sent, it will be put in a new
  * task as "handling an agent message" and ultimately returned to the priority queue.</br>
@@ -49,6 +55,39 @@ import coordination.Position;
  * a returning request message, and/or if an agent or request message has been discarded
  * by it.
  * </p>
+ * <p>
+ * A message sent during an update is not handed over to the receiving node right away,
+ * but is held by the sending node until <code>deliverMessages()</code> is called. This
+ * way an update only ever modifies the node being updated, which allows the <code>Field</code>
+ * to update several nodes at the same time. Since whether the receiving node is ready is
+ * only known once the message is delivered, a message is sent to one node at a time. A
+ * message which isn't accepted is returned to its sender and sent to the next neighbour
+ * during a later update, rather than being offered to another neighbour during the same
+ * update.
+ * </p>
+ * <p>
+ * Messages may also be posted to the mailbox of the receiving node (see
+ * <code>postMessage(int)</code>), which any number of threads may do at the same time
+ * without locking. The receiving node alone empties its mailbox, deciding which messages
+ * to accept in the order of the indices of their senders, so which messages are accepted
+ * doesn't depend on which thread happened to post first.
+ * </p>
+ * <p>
+ * A node may join or leave the node network of its <code>Field</code> between two
+ * updates (see <code>Field.addNode</code> and <code>Field.removeNode</code>). The
+ * neighbours of a leaving node forget their directions through it, and no message is
+ * sent to a node which has left, so a direction to it which is still held elsewhere,
+ * e.g. by a message underway, is given up when it is about to be followed. A request
+ * message on its way back can't go around a node which has left, since it retraces the
+ * path it came by, so it is discarded as expired once the node is next on its way.
+ * </p>
+ * <p>
+ * The state of the node which is looked at every update, i.e. until when it is busy and
+ * how much it holds, is kept in a <code>NodeStore</code> rather than by the node itself
+ * (see <code>setStore</code>), so the <code>Field</code> can tell which nodes have
+ * anything to do without following a reference to each of them. The node brings its
+ * place in the store up to date whenever any of it changes.
+ * </p>
  * 
  * @author  Alexander Beliaev
  * @version 1.0
@@ -56,17 +95,30 @@ import coordination.Position;
  * */
 public class Node{
 	
+	private static final AtomicReferenceFieldUpdater<Node, Delivery> MAILBOX =
+			AtomicReferenceFieldUpdater.newUpdater(Node.class, Delivery.class, "mailbox");
+	private static final AtomicInteger SERIALS = new AtomicInteger();
+	
+	private final int serial;
 	private final int agentLife;
 	private final int requestLife;
 	
-	private PriorityQueue<Task> taskQueue;
-	private Map<Integer, ImplicitEvent> routingMap;
+	private TaskQueue taskQueue;
+	private RoutingTable routingTable;
 	private Map<String, Request> requestMap;
-	private Map<Integer, Event> eventMap;
+	private IntObjectMap<Event> eventMap;
+	private ArrayDeque<Event> eventQueue;
+	private ArrayDeque<Request> requestQueue;
 	private List<Node> neighboursList;
+	private List<Delivery> outbox;
+	private List<Result> results;
+	private volatile Delivery mailbox;
 	private Position position;
-	private NodeState nodeState;
+	private NodeStore store;
+	private int slot;
 	private int signalStrength;
+	private int index = -1;
+	private boolean removed;
 	private Field field;
 	private ExpirationReader expirationReader;
 	private RequestReader requestReader;
@@ -92,7 +144,6 @@ public class Node{
 	public Node(Field field, Position position, int signalStrength,
 			int agentLife, int requestLife) throws IllegalArgumentException, 
 			NullPointerException{
-		Comparator<Task> taskComparator = new TaskComparator();
 		if(field == null){
 			throw new NullPointerException("field can not be null");
 		}else if(position == null){
@@ -108,17 +159,39 @@ public class Node{
 			this.signalStrength = signalStrength;
 			this.agentLife = agentLife;
 			this.requestLife = requestLife;
-		
-			nodeState = NodeState.READY;
+			serial = SERIALS.getAndIncrement();
 			
-			taskQueue = new PriorityQueue<Task>(10, taskComparator);
-			eventMap = new HashMap<Integer, Event>();
+			taskQueue = new TaskQueue();
+			eventMap = new IntObjectMap<Event>();
+			eventQueue = new ArrayDeque<Event>();
+			requestQueue = new ArrayDeque<Request>();
 			neighboursList = new ArrayList<Node>();
-			routingMap = new HashMap<Integer, ImplicitEvent>();
+			outbox = new ArrayList<Delivery>(1);
+			results = new ArrayList<Result>(1);
+			routingTable = RoutingTable.EMPTY;
 			requestMap = new HashMap<String, Request>();
 		}
 	}
 	
+	/**
+	 * <p>
+	 * Creates a placeholder for a node held by another process of a distributed
+	 * simulation, known by its index within the whole node network only. A
+	 * placeholder has no position, field or neighbours, and is never updated nor
+	 * sent any messages. It only stands in for the node where it is referred to,
+	 * such as the node where an event occurred, and is equal to the placeholders
+	 * with the same index.
+	 * </p>
+	 * @param index the index of the node within the whole node network.
+	 * @see NodeIndexing
+	 */
+	public Node(int index){
+		agentLife = 0;
+		requestLife = 0;
+		serial = SERIALS.getAndIncrement();
+		this.index = index;
+	}
+	
 	/**
 	 * <p>
 	 * The update method completes up to one task
@@ -134,7 +207,24 @@ public class Node{
 	 * method, or if it recently has received a message.
 	 * </p>
 	 * <p>
-	 * Any active requests will lose one life upon calling this method.
+	 * Messages sent during the update are held by the <code>Node</code> until
+	 * <code>deliverMessages()</code> is called. Apart from the <code>Node</code>
+	 * itself, and the messages it holds, the method doesn't modify anything, and
+	 * may therefore be called for different nodes from different threads.
+	 * </p>
+	 * <p>
+	 * Any active requests which have expired are discarded at the end of the update,
+	 * and reported to an expiration reader in the <code>ABANDONED_REQUESTS</code> mode.
+	 * Since every request of a node lives as long, the requests expire in the order they
+	 * were created, so only the expired ones are looked at. Before
+	 * anything else any expired events are forgotten, and the routing table is cut
+	 * down to its capacity (see <code>Field.setEventTimeToLive</code> and
+	 * <code>Field.setRoutingTableCapacity</code>). Since nodes without anything to do
+	 * aren't updated, their routing tables are only cut once they are given something to do.
+	 * </p>
+	 * <p>
+	 * What happens during the update is counted by the metrics of the <code>Field</code>
+	 * (see <code>Field.getMetrics()</code>).
 	 * </p>
 	 * @see AgentMessage
 	 * @see RequestMessage
@@ -142,15 +232,12 @@ public class Node{
 	 */
 	public void update(){
 		Task currentTask;
-		Request tempRequest;
+		Request request;
 		Message message;
 		ArrayList<Task> failedTasks;
-		Iterator<Map.Entry<String, Request>> iterator;
 		boolean successfulTask = false;
 		
-		for(Map.Entry<String, Request> entry : requestMap.entrySet()){
-			entry.getValue().decrementLifespan();
-		}
+		collectGarbage();
 		
 		if(this.getNodeState() == NodeState.READY && !taskQueue.isEmpty()){
 			failedTasks = new ArrayList<Task>(taskQueue.size());
@@ -161,8 +248,9 @@ public class Node{
 				case CREATE_AGENTMESSAGE:
 					Task newTaskA;
 					message = new AgentMessage(this, agentLife, field.getCurrentTime());
+					field.getMetrics().recordAgentMessageCreated();
 					taskQueue.poll();
-					if(sendMessage((AgentMessage)message)){
+					if(sendMessage((AgentMessage)message, 0)){
 						successfulTask = true;
 					}else{
 						newTaskA = new Task((AgentMessage)message,
@@ -175,10 +263,13 @@ public class Node{
 					Task newTaskR;
 					message = new RequestMessage((Integer)currentTask.getDataObject(),
 							requestLife, field.getCurrentTime(), this);
-					requestMap.put(((RequestMessage)message).getRequestId(),
-							new Request(requestLife));
+					request = new Request(((RequestMessage)message).getRequestId(),
+							requestLife, field.getCurrentTime());
+					requestMap.put(request.getRequestId(), request);
+					requestQueue.add(request);
+					field.getMetrics().recordRequestMessageCreated();
 					taskQueue.poll();
-					if(sendMessage((RequestMessage)message)){
+					if(sendMessage((RequestMessage)message, 0)){
 						successfulTask = true;
 					}else{
 						newTaskR = new Task((RequestMessage)message,
@@ -197,6 +288,7 @@ public class Node{
 					}
 					
 					if(((AgentMessage)message).isDead()){
+						field.getMetrics().recordExpiredAgentMessage();
 						if(expirationReader != null && (expirationReader.getReaderMode() == 
 								ExpirationReader.ReaderMode.ALL || 
 								expirationReader.getReaderMode() == 
@@ -204,11 +296,15 @@ public class Node{
 							expirationReader.readIdOfExpiredObject(((AgentMessage)message).getAgentId());
 						}
 						taskQueue.poll();
-					}else if(sendMessage((AgentMessage)message)){
-						taskQueue.poll();
-						successfulTask = true;
 					}else{
-						failedTasks.add(taskQueue.poll());
+						recordRetry(currentTask);
+						if(sendMessage((AgentMessage)message,
+								currentTask.getNumberOfTries())){
+							taskQueue.poll();
+							successfulTask = true;
+						}else{
+							failedTasks.add(taskQueue.poll());
+						}
 					}
 					break;
 				case HANDLE_REQUESTMESSAGE:
@@ -223,20 +319,24 @@ public class Node{
 						taskQueue.poll();
 						if(requestMap.containsKey(((RequestMessage)message)
 								.getRequestId())){
-							printEvent(((RequestMessage)message).getEvent(),
-									(RequestMessage)message);
+							results.add(new Result((RequestMessage)message, false));
+							field.getMetrics().recordSuccessfulRequest();
 							if(requestReader != null){
 								requestReader.readSuccessfulRequestId(((RequestMessage)message).getRequestId());
 							}
 							requestMap.remove(((RequestMessage)message)
 								.getRequestId());
 						}else{
-							printExpiredRequestOnRetrievedEvent(((RequestMessage)message).getEvent().getTime());
+							results.add(new Result((RequestMessage)message, true));
 						}
+					}else if(((RequestMessage)message).getReturnToSender() &&
+							((RequestMessage)message).getReturnAddress().isRemoved()){
+						discardExpiredMessage((RequestMessage)message);
+						taskQueue.poll();
 					}else if(((RequestMessage)message).getReturnToSender()){
+						recordRetry(currentTask);
 						if(sendMessage(((RequestMessage)message).getReturnAddress(),
-								((RequestMessage)message))){
-							((RequestMessage)message).resetCurrentMessageLife();
+								((RequestMessage)message), true)){
 							taskQueue.poll();
 							successfulTask = true;
 						}else{
@@ -244,15 +344,12 @@ public class Node{
 						}
 					}else if(((RequestMessage)message).isDead()){
 						//printFoundExpiredRequestMessage((RequestMessage)message);
-						if(expirationReader != null && (expirationReader.getReaderMode() == 
-								ExpirationReader.ReaderMode.ALL || 
-								expirationReader.getReaderMode() == 
-										ExpirationReader.ReaderMode.EXPIRED_REQUESTS)){
-							expirationReader.readIdOfExpiredObject(((RequestMessage)message).getRequestId());
-						}
+						discardExpiredMessage((RequestMessage)message);
 						taskQueue.poll();
 					}else{
-						if(sendMessage((RequestMessage)message)){
+						recordRetry(currentTask);
+						if(sendMessage((RequestMessage)message,
+								currentTask.getNumberOfTries())){
 							taskQueue.poll();
 							successfulTask = true;
 						}else{
@@ -264,22 +361,90 @@ public class Node{
 			}
 			
 			returnToTaskQueue(failedTasks);
-			
-			if(successfulTask){
-				setNodeState(NodeState.BUSY);
+		}
+		
+		expireRequests();
+		field.getMetrics().recordNode(taskQueue.size(), routingTable.size());
+		publishState();
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Counts a request message as expired, and lets the expiration reader
+	 * know. The message is discarded by the caller.
+	 * */
+	private void discardExpiredMessage(RequestMessage message){
+		field.getMetrics().recordExpiredRequestMessage();
+		if(expirationReader != null && (expirationReader.getReaderMode() == 
+				ExpirationReader.ReaderMode.ALL || 
+				expirationReader.getReaderMode() == 
+						ExpirationReader.ReaderMode.EXPIRED_REQUESTS)){
+			expirationReader.readIdOfExpiredObject(message.getRequestId());
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Discards the requests which have expired, letting the expiration reader
+	 * know if it reads abandoned requests. Requests which already have been
+	 * fulfilled, or have been replaced, are only dropped from the queue.
+	 * */
+	private void expireRequests(){
+		int currentTime = field.getCurrentTime();
+		Request request;
+		
+		while(!requestQueue.isEmpty() && requestQueue.peek().getExpiryTime() <= currentTime){
+			request = requestQueue.poll();
+			if(requestMap.get(request.getRequestId()) == request){
+				requestMap.remove(request.getRequestId());
+				field.getMetrics().recordExpiredRequest();
+				if(expirationReader != null && expirationReader.getReaderMode() == 
+						ExpirationReader.ReaderMode.ABANDONED_REQUESTS){
+					expirationReader.readIdOfExpiredObject(request.getRequestId());
+				}
 			}
 		}
+	}
 	
+	/*
+	 * Helper method.
+	 * 
+	 * Forgets expired events, and drops entries from the routing table
+	 * until it is within its capacity. Entries are expired in order of
+	 * event id, which is the order the Field creates events in, so only
+	 * the entries actually dropped are looked at.
+	 * */
+	private void collectGarbage(){
+		int timeToLive = field.getEventTimeToLive();
+		int capacity = field.getRoutingTableCapacity();
+		int expiryTime;
+		ImplicitEvent implicitEvent;
+		Event event;
 		
-		iterator = requestMap.entrySet().iterator();
-		while(iterator.hasNext()){
-			tempRequest = iterator.next().getValue();
-			if(tempRequest.isDead()){
-				if(tempRequest.getNumberOfTimesRevived() == 0){
-					tempRequest.reviveRequest();
+		if(timeToLive != Field.NO_LIMIT){
+			expiryTime = field.getCurrentTime() - timeToLive;
+			while(!eventQueue.isEmpty() && eventQueue.peek().getTime() <= expiryTime){
+				event = eventQueue.poll();
+				if(eventMap.get(event.getId()) == event){
+					eventMap.remove(event.getId());
+				}
+			}
+			implicitEvent = routingTable.first();
+			while(implicitEvent != null && implicitEvent.getTime() <= expiryTime){
+				routingTable = routingTable.remove(implicitEvent.getId());
+				implicitEvent = routingTable.first();
+			}
+		}
+		if(capacity != Field.NO_LIMIT){
+			while(routingTable.size() > capacity){
+				if(field.getEvictionPolicy() == EvictionPolicy.FARTHEST_EVENT_FIRST){
+					implicitEvent = routingTable.farthest();
 				}else{
-					iterator.remove();
+					implicitEvent = routingTable.first();
 				}
+				routingTable = routingTable.remove(implicitEvent.getId());
 			}
 		}
 	}
@@ -289,21 +454,30 @@ public class Node{
 	 * 
 	 * Checks if the message possesses any valuable information,
 	 * i.e. if the message knows a shorter path to an event, and if
-	 * the message knows of an event which this node doesn't.
+	 * the message knows of an event which this node doesn't. The
+	 * routing table of the message is shared, not copied, so only
+	 * the entries actually taken are created. Nothing is taken from
+	 * a message last passed along by a node which has since left the
+	 * node network, since the directions would lead through it.
 	 * */
 	private void update(AgentMessage agentMessage){
-		ImplicitEvent implicitEvent;
-		int distance;
-		
-		for(Entry<Integer, ImplicitEvent> entry : agentMessage.getRoutingMap().entrySet()){
-			implicitEvent = routingMap.get(entry.getKey());
-			distance = entry.getValue().getDistance();
-			
-			if(implicitEvent != null && implicitEvent.getDistance() > distance){
-				routingMap.replace(entry.getKey(), entry.getValue());
-			}else if(implicitEvent == null){
-				routingMap.put(entry.getKey(), entry.getValue());
-			}
+		if(agentMessage.getLastVisitedNode() != null &&
+				agentMessage.getLastVisitedNode().isRemoved()){
+			return;
+		}
+		routingTable = routingTable.merge(agentMessage.getRoutingTable(),
+				agentMessage.getLastVisitedNode());
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Counts the task as retried if it has been tried before, as it is about
+	 * to be tried again.
+	 * */
+	private void recordRetry(Task task){
+		if(task.getNumberOfTries() > 0){
+			field.getMetrics().recordRetry();
 		}
 	}
 	
@@ -314,9 +488,12 @@ public class Node{
 	 * the priority queue holding the tasks.
 	 * */
 	private void returnToTaskQueue(ArrayList<Task> taskList){
+		SimulationMetrics metrics = field.getMetrics();
+		
 		for(Task task : taskList){
 			task.incrementTries();
 			taskQueue.add(task);
+			metrics.recordFailedSend();
 		}
 	}
 	
@@ -328,107 +505,111 @@ public class Node{
 	 * */
 	/**
 	 * <p>
-	 * Attempts to send a request message (without specified receiving node).
-	 * It does it in this order, if any of the previous fails:
+	 * Sends a request message (without specified receiving node) to the first
+	 * of the following there is:
 	 * <ul>
-	 * 		<li>first checking in the routing table if there is a known
-	 * 			path to the event,</li>
-	 * 		<li>then checking any of the adjacent nodes which hasn't
-	 * 			yet passed along this request message,</li>
-	 * 		<li>and lastly checking any adjacent nodes if they are ready
-	 * 			to receive.</li>
+	 * 		<li>the node through which the routing table knows a path to the
+	 * 			event, unless it has left the node network, in which case the
+	 * 			path is forgotten. The lifespan of the message is renewed once the
+	 * 			node accepts it,</li>
+	 * 		<li>an adjacent node which hasn't yet passed along this request message,</li>
+	 * 		<li>any adjacent node.</li>
 	 * </ul></br>
-	 * If all of the above fail, then the node will abandon the associated task
-	 * until next update.</br>
+	 * Whether the receiving node is ready is only decided upon delivery (see
+	 * <code>sendMessage(Node, RequestMessage)</code>), so the message is only sent to
+	 * that one node. If it isn't accepted, it is returned to this node and sent again
+	 * during a later update, then to the next of the adjacent nodes (see
+	 * <code>selectNeighbour</code>), so a busy node doesn't hold up the message
+	 * while another one is ready. A known path is kept to, however.</br>
 	 * </br>
 	 * The method either returns true or false, depending on if
-	 * the message was successfully sent or not.
+	 * the message was successfully sent or not, i.e. if there was a node to send it to.
 	 * </p>
 	 * @param message the message to send.
+	 * @param numberOfTries the number of times the message has been tried before.
 	 * @return <code>true</code> if the message was sent, <code>false</code> otherwise.
 	 * @see RequestMessage
 	 */
-	protected boolean sendMessage(RequestMessage message){
-		Node legitNode;
-		boolean visitedAll = true;
+	protected boolean sendMessage(RequestMessage message, int numberOfTries){
+		ImplicitEvent implicitEvent = routingTable.get(message.getAddressedTo());
+		Node neighbour;
 		
-		if(routingMap.containsKey(message.getAddressedTo())){
-			legitNode = routingMap.get(message.getAddressedTo()).getNode();
-			if(sendMessage(legitNode, message)){
-				message.resetCurrentMessageLife();
-				return true;
-			}else{
-				return false;
-			}
-		}
-		
-		for(Node node : neighboursList){
-			if(!message.hasVisitedNode(node)){
-				visitedAll = false;
-				if(sendMessage(node, message)){
-					return true;
-				}
-			}
+		if(implicitEvent != null && implicitEvent.getNode() != null &&
+				implicitEvent.getNode().isRemoved()){
+			routingTable = routingTable.remove(implicitEvent.getId());
+			implicitEvent = null;
 		}
-		
-		if(visitedAll){
-			for(Node node : neighboursList){
-				if(sendMessage(node, message)){
-					return true;
-				}
-			}
+		if(implicitEvent != null){
+			return sendMessage(implicitEvent.getNode(), message, true);
 		}
+		neighbour = selectNeighbour(message, numberOfTries);
 		
-		return false;
+		return neighbour != null && sendMessage(neighbour, message);
 	}
 	
 	/**
 	 * <p>
-	 * Attempts to send an agent message (without specified receiving node).
-	 * It does it in this order, if any of the previous fails:
-	 * <ul>
-	 * 		<li>first checking any of the adjacent nodes which hasn't
-	 * 			yet passed along this agent message,</li>
-	 * 		<li>and lastly checking any adjacent nodes if they are ready
-	 * 			to receive.</li>
-	 * </ul></br>
-	 * If all of the above fail, then the node will abandon the associated task
-	 * until next update.</br>
+	 * Sends an agent message (without specified receiving node) to an adjacent
+	 * node which hasn't yet passed along this agent message, or to any adjacent
+	 * node if they all have (see <code>selectNeighbour</code>).</br>
+	 * </br>
+	 * Whether the receiving node is ready is only decided upon delivery (see
+	 * <code>sendMessage(Node, AgentMessage)</code>), so the message is only sent to
+	 * that one node. If it isn't accepted, it is returned to this node and sent again
+	 * during a later update, then to the next of the adjacent nodes.</br>
 	 * </br>
 	 * The method either returns true or false, depending on if
-	 * the message was successfully sent or not.
+	 * the message was successfully sent or not, i.e. if there was a node to send it to.
 	 * </p>
 	 * @param message the message to send.
+	 * @param numberOfTries the number of times the message has been tried before.
 	 * @return <code>true</code> if the message was sent, <code>false</code> otherwise.
 	 * @see AgentMessage
 	 */
-	protected boolean sendMessage(AgentMessage message){
-		boolean visitedAll = true;
+	protected boolean sendMessage(AgentMessage message, int numberOfTries){
+		Node neighbour = selectNeighbour(message, numberOfTries);
+		
+		return neighbour != null && sendMessage(neighbour, message);
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Returns the adjacent node to send a message to, or null if there is none.
+	 * The candidates are the adjacent nodes which haven't yet passed along the
+	 * message, or all adjacent nodes if they all have. The first candidate is
+	 * taken the first time the message is tried, the second the next time, and
+	 * so on, starting over once every candidate has been tried.
+	 * */
+	private Node selectNeighbour(Message message, int numberOfTries){
+		int candidates = 0;
 		
 		for(Node node : neighboursList){
 			if(!message.hasVisitedNode(node)){
-				visitedAll = false;
-				if(sendMessage(node, message)){
-					return true;
+				if(candidates++ == numberOfTries){
+					return node;
 				}
 			}
 		}
-		
-		if(visitedAll){
-			for(Node node : neighboursList){
-				if(sendMessage(node, message)){
-					return true;
-				}
+		if(candidates == 0){
+			return neighboursList.isEmpty() ? null :
+					neighboursList.get(numberOfTries % neighboursList.size());
+		}
+		candidates = numberOfTries % candidates;
+		for(Node node : neighboursList){
+			if(!message.hasVisitedNode(node) && candidates-- == 0){
+				return node;
 			}
 		}
-		
-		return false;
+		return null;
 	}
 	
 	/**
 	 * <p>
-	 * Attempts to send a request message to a specific node. The attempt
-	 * will only be successful if the receiving node is ready.</br>
+	 * Sends a request message to a specific node. The message is held by this
+	 * node until <code>deliverMessages()</code> is called, and the receiving node
+	 * isn't touched until then. Whether the receiving node is ready is decided
+	 * upon delivery. No message is sent to a node which has left the node network.</br>
 	 * </br>
 	 * The method either returns true or false, depending on if
 	 * the message was successfully sent or not.
@@ -439,17 +620,30 @@ public class Node{
 	 * @see RequestMessage
 	 */
 	protected boolean sendMessage(Node node, RequestMessage message){
-		if(node.getNodeState() == NodeState.READY){
-			node.generateNewTask(message);
-			return true;
+		return sendMessage(node, message, false);
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Sends a request message to a specific node, as the method above does.
+	 * If so specified, the lifespan of the message is renewed once the node
+	 * has accepted it, as it is when the message follows a known path.
+	 * */
+	private boolean sendMessage(Node node, RequestMessage message, boolean renewLife){
+		if(node.isRemoved()){
+			return false;
 		}
-		return false;
+		outbox.add(new Delivery(node, message, TaskAction.HANDLE_REQUESTMESSAGE, renewLife));
+		return true;
 	}
 	
 	/**
 	 * <p>
-	 * Attempts to send a agent message to a specific node. The attempt
-	 * will only be successful if the receiving node is ready.</br>
+	 * Sends an agent message to a specific node. The message is held by this
+	 * node until <code>deliverMessages()</code> is called, and the receiving node
+	 * isn't touched until then. Whether the receiving node is ready is decided
+	 * upon delivery. No message is sent to a node which has left the node network.</br>
 	 * </br>
 	 * The method either returns true or false, depending on if
 	 * the message was successfully sent or not.
@@ -460,11 +654,286 @@ public class Node{
 	 * @see AgentMessage
 	 */
 	protected boolean sendMessage(Node node, AgentMessage message){
-		if(node.getNodeState() == NodeState.READY){
-			node.generateNewTask(message);
-			return true;
+		if(node.isRemoved()){
+			return false;
 		}
-		return false;
+		outbox.add(new Delivery(node, message, TaskAction.HANDLE_AGENTMESSAGE, false));
+		return true;
+	}
+	
+	/**
+	 * <p>
+	 * Hands over the messages sent during the latest update to their receiving
+	 * nodes (see <code>deliverMessage(int)</code>), then returns the messages which
+	 * weren't accepted to the task queue of this node (see
+	 * <code>returnUndeliveredMessages()</code>), and lastly hands any request messages
+	 * which have returned to this node during the latest update over to the
+	 * <code>ResultSink</code> of the <code>Field</code>.</br>
+	 * </br>
+	 * The <code>Field</code> does each of these steps for every updated node before
+	 * moving on to the next step, which is what allows it to deliver messages from
+	 * several threads. This method does them all at once, for this node only.</br>
+	 * </br>
+	 * Since the receiving nodes are modified, this method must not be called
+	 * while any other node is being updated or is delivering its messages.
+	 * </p>
+	 * @see Field
+	 */
+	public void deliverMessages(){
+		for(int i=0; i<outbox.size(); i++){
+			deliverMessage(i);
+		}
+		returnUndeliveredMessages();
+		publishResults();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of messages sent during the latest update which are yet
+	 * to be delivered.
+	 * </p>
+	 * @return the number of sent messages.
+	 * @see #deliverMessage(int)
+	 */
+	public int getNumberOfSentMessages(){
+		return outbox.size();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the node which the specified sent message is addressed to.
+	 * </p>
+	 * @param message the number of the message, in the order they were sent.
+	 * @return the receiving node.
+	 */
+	public Node getReceiverOfMessage(int message){
+		return outbox.get(message).receiver;
+	}
+	
+	/**
+	 * <p>
+	 * Hands the specified sent message over to its receiving node. A message is
+	 * only accepted if the receiving node is ready, i.e. if it hasn't already
+	 * accepted another message at the current time. Apart from the message itself,
+	 * only the receiving node is modified, so messages to different nodes may be
+	 * delivered from different threads. Messages to the same node must be delivered
+	 * in the order of the indices of their senders, for the same messages to be
+	 * accepted every time.
+	 * </p>
+	 * @param message the number of the message, in the order they were sent.
+	 * @return <code>true</code> if the message was accepted, <code>false</code> otherwise.
+	 * @see #returnUndeliveredMessages()
+	 */
+	public boolean deliverMessage(int message){
+		Delivery delivery = outbox.get(message);
+		
+		delivery.returned = !delivery.receiver.acceptMessage(delivery.message,
+				delivery.action, delivery.renewLife);
+		return !delivery.returned;
+	}
+	
+	/**
+	 * <p>
+	 * Posts the specified sent message to the mailbox of its receiving node, to be
+	 * handed over once the receiving node empties its mailbox (see
+	 * <code>drainMailbox()</code>). The message is pushed onto the mailbox with a
+	 * compare-and-set, so any number of threads may post to the same node at the same
+	 * time without locking, and the receiving node isn't otherwise touched.
+	 * </p>
+	 * @param message the number of the message, in the order they were sent.
+	 * @return <code>true</code> if the mailbox was empty, i.e. if the receiving node
+	 * is yet to be told to empty it, <code>false</code> otherwise.
+	 * @see #returnUndeliveredMessages()
+	 */
+	public boolean postMessage(int message){
+		Delivery delivery = outbox.get(message);
+		Delivery head;
+		
+		delivery.order = ((long)index << 32) | message;
+		do{
+			head = delivery.receiver.mailbox;
+			delivery.next = head;
+		}while(!MAILBOX.compareAndSet(delivery.receiver, head, delivery));
+		return head == null;
+	}
+	
+	/**
+	 * <p>
+	 * Empties the mailbox of this node, handing the posted messages over in the
+	 * order of the indices of their senders, as <code>deliverMessage(int)</code>
+	 * would. The messages which aren't accepted are marked to be returned by their
+	 * senders. Only the thread updating this node may empty its mailbox, and the
+	 * senders must not return their undelivered messages before it is emptied.
+	 * </p>
+	 * @see #postMessage(int)
+	 */
+	public void drainMailbox(){
+		Delivery delivery = MAILBOX.getAndSet(this, null);
+		Delivery sorted = null;
+		Delivery previous;
+		Delivery next;
+		
+		while(delivery != null){
+			next = delivery.next;
+			if(sorted == null || delivery.order < sorted.order){
+				delivery.next = sorted;
+				sorted = delivery;
+			}else{
+				previous = sorted;
+				while(previous.next != null && previous.next.order < delivery.order){
+					previous = previous.next;
+				}
+				delivery.next = previous.next;
+				previous.next = delivery;
+			}
+			delivery = next;
+		}
+		while(sorted != null){
+			next = sorted.next;
+			sorted.next = null;
+			sorted.returned = !acceptMessage(sorted.message, sorted.action, sorted.renewLife);
+			sorted = next;
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Hands a message over to this node if it is ready, and returns whether it
+	 * was accepted. The lifespan of an accepted request message is renewed
+	 * afterwards if so specified, so an equal request message held by this
+	 * node is compared with the lifespan the message arrived with.
+	 * */
+	private boolean acceptMessage(Message message, TaskAction action, boolean renewLife){
+		if(getNodeState() != NodeState.READY){
+			return false;
+		}
+		if(action == TaskAction.HANDLE_AGENTMESSAGE){
+			generateNewTask((AgentMessage)message);
+		}else{
+			generateNewTask((RequestMessage)message);
+			if(renewLife){
+				((RequestMessage)message).resetCurrentMessageLife();
+			}
+		}
+		field.getMetrics().recordMessageDelivered();
+		return true;
+	}
+	
+	/**
+	 * <p>
+	 * Writes the specified sent message, for it to be delivered by a <code>Field</code>
+	 * in another process (see <code>receiveMessage</code>). Nodes are written as
+	 * their indices, which must refer to the same nodes in both processes.
+	 * </p>
+	 * @param message the number of the message, in the order they were sent.
+	 * @param out where to write the message.
+	 * @throws java.io.IOException if the message couldn't be written.
+	 */
+	public void writeMessage(int message, CheckpointOutput out) throws IOException{
+		Delivery delivery = outbox.get(message);
+		
+		out.writeBoolean(delivery.action == TaskAction.HANDLE_AGENTMESSAGE);
+		out.writeBoolean(delivery.renewLife);
+		delivery.message.writeCheckpoint(out);
+	}
+	
+	/**
+	 * <p>
+	 * Reads a message written by <code>writeMessage</code> in another process, and
+	 * hands it over to this node, as <code>deliverMessage(int)</code> does. The message
+	 * is read whether it is accepted or not.
+	 * </p>
+	 * @param in where to read the message.
+	 * @return <code>true</code> if the message was accepted, <code>false</code> otherwise.
+	 * @throws java.io.IOException if the message couldn't be read.
+	 */
+	public boolean receiveMessage(CheckpointInput in) throws IOException{
+		boolean agentMessage = in.readBoolean();
+		boolean renewLife = in.readBoolean();
+		
+		if(agentMessage){
+			return acceptMessage(new AgentMessage(in), TaskAction.HANDLE_AGENTMESSAGE, false);
+		}
+		return acceptMessage(new RequestMessage(in), TaskAction.HANDLE_REQUESTMESSAGE,
+				renewLife);
+	}
+	
+	/**
+	 * <p>
+	 * Marks the specified sent message as not accepted, for it to be returned by
+	 * <code>returnUndeliveredMessages()</code>. Used for messages delivered by
+	 * another process.
+	 * </p>
+	 * @param message the number of the message, in the order they were sent.
+	 */
+	public void setMessageReturned(int message){
+		outbox.get(message).returned = true;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the sent messages which weren't accepted to the task queue of this
+	 * node, to be sent again during a later update, and forgets about the sent
+	 * messages. Only this node is modified. Should be called once every sent message
+	 * has been delivered, and any messages to this node as well, so the returned
+	 * messages are handled after the ones received at the same time.
+	 * </p>
+	 */
+	public void returnUndeliveredMessages(){
+		SimulationMetrics metrics = field.getMetrics();
+		Task task;
+		
+		for(Delivery delivery : outbox){
+			if(delivery.returned){
+				task = new Task(delivery.message, delivery.action);
+				task.incrementTries();
+				taskQueue.add(task);
+				metrics.recordFailedSend();
+			}
+		}
+		if(!outbox.isEmpty()){
+			outbox.clear();
+			publishState();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Hands the request messages which have returned to this node during the
+	 * latest update over to the result sink of the field. For a request message
+	 * which returned in time the fetched event is handed over, and its latency
+	 * recorded, otherwise only the time of the event is handed over. This is
+	 * done by <code>deliverMessages()</code>, and must be done node by node, in
+	 * the order of the node indices, for the results to be received in the same
+	 * order every time.
+	 * </p>
+	 */
+	public void publishResults(){
+		ResultSink resultSink;
+		int currentTime;
+		long nanoTime;
+		
+		if(results.isEmpty()){
+			return;
+		}
+		resultSink = field.getResultSink();
+		currentTime = field.getCurrentTime();
+		nanoTime = System.nanoTime();
+		for(Result result : results){
+			if(result.expired){
+				resultSink.expiredRequestRetrieved(currentTime, this,
+						result.message.getEvent().getTime());
+			}else{
+				resultSink.eventRetrieved(currentTime, this,
+						result.message.getTimeOfCreation(), result.message.getEvent());
+				field.getMetrics().recordRequestLatency(position,
+						currentTime - result.message.getTimeOfCreation(),
+						nanoTime - result.message.getNanoTimeOfCreation(),
+						result.message.getHopCount());
+			}
+		}
+		results.clear();
 	}
 	
 	/**
@@ -483,7 +952,12 @@ public class Node{
 	public Event generateNewEvent(int id){
 		Event e = new Event(id, field.getCurrentTime(), this);
 		eventMap.put(id, e);
-		routingMap.put(id, new ImplicitEvent(e));
+		if(field.getEventTimeToLive() != Field.NO_LIMIT){
+			eventQueue.add(e);
+			field.activateNode(this);
+		}
+		routingTable = routingTable.put(new ImplicitEvent(e));
+		publishState();
 		return e;
 	}
 	
@@ -502,6 +976,8 @@ public class Node{
 	public void generateNewTask(Event event) throws NullPointerException{
 		if(event != null){
 			taskQueue.add(new Task(event, TaskAction.CREATE_AGENTMESSAGE));
+			publishState();
+			field.activateNode(this);
 		}else{
 			throw new NullPointerException("can not generate new task with"
 					+ " null event");
@@ -524,6 +1000,8 @@ public class Node{
 	public void generateNewTask(Integer id) throws NullPointerException{
 		if(id != null){
 			taskQueue.add(new Task(id, TaskAction.CREATE_REQUESTMESSAGE));
+			publishState();
+			field.activateNode(this);
 		}else{
 			throw new NullPointerException("can not generate new task with"
 					+ " null id");
@@ -537,7 +1015,9 @@ public class Node{
 	 * */
 	private void addMessageTask(Message message, TaskAction action){
 		taskQueue.add(new Task(message, action));
-		setNodeState(NodeState.BUSY);
+		getStore().setBusyUntil(slot, field.getCurrentTime());
+		publishState();
+		field.activateNode(this);
 	}
 	
 	/**
@@ -574,60 +1054,67 @@ public class Node{
 	 * @see RequestMessage
 	 */
 	protected void generateNewTask(RequestMessage message){
-		Iterator<Task> iterator;
-		Task currentTask;
-		boolean foundAlike = false;
-		iterator = taskQueue.iterator();
+		Task currentTask = taskQueue.getEqualRequest(message);
+		RequestMessage currentMessage;
 		
-		while(iterator.hasNext()){
-			currentTask = iterator.next();
-			
-			if(message.equals(currentTask.getDataObject())){
-				if(message.getReturnToSender() && 
-							!((RequestMessage)currentTask.getDataObject()).getReturnToSender()){
-					iterator.remove();
-					addMessageTask(message, TaskAction.HANDLE_REQUESTMESSAGE);
-				}else if((!message.getReturnToSender() && 
-						!((RequestMessage)currentTask.getDataObject()).getReturnToSender()) ||
-						(message.getReturnToSender() && 
-						((RequestMessage)currentTask.getDataObject()).getReturnToSender())){
-					if(message.compareTo(((RequestMessage)currentTask.getDataObject())) > 0){
-						iterator.remove();
-						addMessageTask(message, TaskAction.HANDLE_REQUESTMESSAGE);
-					}
-				}
-				foundAlike = true;
-				break;
-			}
-		}
-		
-		if(!foundAlike){
+		if(currentTask == null){
 			addMessageTask(message, TaskAction.HANDLE_REQUESTMESSAGE);
+		}else{
+			currentMessage = (RequestMessage)currentTask.getDataObject();
+			if(message.getReturnToSender() && !currentMessage.getReturnToSender()){
+				taskQueue.remove(currentTask);
+				addMessageTask(message, TaskAction.HANDLE_REQUESTMESSAGE);
+			}else if(message.getReturnToSender() == currentMessage.getReturnToSender() &&
+					message.compareTo(currentMessage) > 0){
+				taskQueue.remove(currentTask);
+				addMessageTask(message, TaskAction.HANDLE_REQUESTMESSAGE);
+			}
 		}
 	}
 	
 	
 	/**
 	 * <p>
-	 * Returns the current state of the node.
+	 * Returns whether this <code>Node</code> has anything to do during an update,
+	 * i.e. if it has any tasks, any active requests, or any events of its own which
+	 * are yet to expire. A <code>Node</code> without anything to do is left as it is
+	 * by an update, and the <code>Field</code> therefore skips it. This is read from
+	 * the node store.
+	 * </p>
+	 * @return <code>true</code> if the node has anything to do, <code>false</code> otherwise.
+	 * @see Field#activateNode(Node)
+	 * @see NodeStore#hasPendingWork(int)
+	 */
+	public boolean hasPendingWork(){
+		return getStore().hasPendingWork(slot);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the current state of the node. A node which has accepted a message
+	 * is busy until the current time of its <code>Field</code> has moved on, so
+	 * there is no state to be written back once an update is over.
 	 * </p>
 	 * @return the state of the node.
 	 */
 	protected NodeState getNodeState(){
-		return nodeState;
+		return getStore().getBusyUntil(slot) >= field.getCurrentTime() ?
+				NodeState.BUSY : NodeState.READY;
 	}
 	
 	/**
 	 * <p>
-	 * Returns the current routing map which this node holds. The
-	 * routing map tells from which adjacent nodes it received information
-	 * regarding specific events.
+	 * Returns the current routing table which this node holds. The
+	 * routing table tells from which adjacent nodes it received information
+	 * regarding specific events. Since routing tables can't be modified,
+	 * the table is returned as it is rather than copied.
 	 * </p>
-	 * @return a copy of the <code>HashMap</code> containing directions to
+	 * @return the <code>RoutingTable</code> containing directions to
 	 * events which the node know about.
+	 * @see RoutingTable
 	 */
-	protected HashMap<Integer, ImplicitEvent> getRoutingMap(){
-		return new HashMap<Integer, ImplicitEvent>(routingMap);
+	protected RoutingTable getRoutingTable(){
+		return routingTable;
 	}
 	
 	/**
@@ -654,6 +1141,182 @@ public class Node{
 		return signalStrength;
 	}
 	
+	/**
+	 * <p>
+	 * Sets the signal strength of this <code>Node</code>. This is done by the
+	 * <code>Field</code>, which then brings the neighbours of the node up to date.
+	 * </p>
+	 * @param signalStrength the signal strength.
+	 * @throws java.lang.IllegalArgumentException if the signal strength is less
+	 * than zero.
+	 * @see Field#setSignalStrength(Node, int)
+	 */
+	public void setSignalStrength(int signalStrength) throws IllegalArgumentException{
+		if(signalStrength < 0){
+			throw new IllegalArgumentException("signal strength must be positive");
+		}
+		this.signalStrength = signalStrength;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the amount of lives this <code>Node</code> instantiates its
+	 * agent messages with.
+	 * </p>
+	 * @return the amount of lives of new agent messages.
+	 */
+	protected int getAgentLife(){
+		return agentLife;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the amount of lives this <code>Node</code> instantiates its
+	 * request messages with.
+	 * </p>
+	 * @return the amount of lives of new request messages.
+	 */
+	protected int getRequestLife(){
+		return requestLife;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the index of this <code>Node</code> within the node network
+	 * of its <code>Field</code>. The indices run from 0 to one less than the
+	 * number of nodes in the network.
+	 * </p>
+	 * @return the index of this <code>Node</code>, or -1 if it isn't part
+	 * of a loaded node network.
+	 */
+	public int getIndex(){
+		return index;
+	}
+	
+	/**
+	 * <p>
+	 * Sets the index of this <code>Node</code> within the node network of its
+	 * <code>Field</code>. This is done by the <code>Field</code> when the
+	 * node network is loaded.
+	 * </p>
+	 * @param index the index of this <code>Node</code>.
+	 * @see Field
+	 */
+	public void setIndex(int index){
+		this.index = index;
+	}
+	
+	/**
+	 * <p>
+	 * Makes this <code>Node</code> a view of the specified place in a node store,
+	 * taking its state along, and gives it the same index. This is done by the
+	 * <code>Field</code> when the node joins the node network, or is moved to another
+	 * index. With a <code>null</code> store, the node is given a store of its own and
+	 * the index -1, as when it leaves the node network.
+	 * </p>
+	 * @param store the node store, or <code>null</code>.
+	 * @param index the index of the node within the store.
+	 * @see NodeStore
+	 */
+	public void setStore(NodeStore store, int index){
+		int busyUntil = getStore().getBusyUntil(slot);
+		
+		if(store == null){
+			this.store = new NodeStore(new Node[]{this});
+			slot = 0;
+			this.index = -1;
+		}else{
+			this.store = store;
+			slot = index;
+			this.index = index;
+		}
+		this.store.setBusyUntil(slot, busyUntil);
+		publishState();
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Returns the node store this node is a view of, giving the node a store
+	 * of its own if it hasn't been given one.
+	 * */
+	private NodeStore getStore(){
+		if(store == null){
+			store = new NodeStore(new Node[]{this});
+			slot = 0;
+		}
+		return store;
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Brings the place of this node in its store up to date with what the
+	 * node holds, along with the earliest time at which an update would expire
+	 * anything or cut down the routing table, as collectGarbage and
+	 * expireRequests would.
+	 * */
+	private void publishState(){
+		int timeToLive = field.getEventTimeToLive();
+		int capacity = field.getRoutingTableCapacity();
+		int dueTime = Integer.MAX_VALUE;
+		ImplicitEvent implicitEvent;
+		
+		if(!requestQueue.isEmpty()){
+			dueTime = requestQueue.peek().getExpiryTime();
+		}
+		if(timeToLive != Field.NO_LIMIT){
+			if(!eventQueue.isEmpty()){
+				dueTime = Math.min(dueTime, eventQueue.peek().getTime() + timeToLive);
+			}
+			implicitEvent = routingTable.first();
+			if(implicitEvent != null){
+				dueTime = Math.min(dueTime, implicitEvent.getTime() + timeToLive);
+			}
+		}
+		if(capacity != Field.NO_LIMIT && routingTable.size() > capacity){
+			dueTime = Integer.MIN_VALUE;
+		}
+		getStore().setState(slot, taskQueue.size(), requestMap.size(), eventQueue.size(),
+				routingTable.size(), dueTime);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the serial number of this <code>Node</code>, given to it when it was
+	 * created and never given to another node. Unlike the index of the node, it stays
+	 * the same when nodes are added to or removed from the node network.
+	 * </p>
+	 * @return the serial number.
+	 */
+	int getSerial(){
+		return serial;
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether this <code>Node</code> has been removed from the node network
+	 * of its <code>Field</code>.
+	 * </p>
+	 * @return <code>true</code> if the node has been removed.
+	 * @see Field#removeNode(Node)
+	 */
+	public boolean isRemoved(){
+		return removed;
+	}
+	
+	/**
+	 * <p>
+	 * Sets whether this <code>Node</code> has been removed from the node network of
+	 * its <code>Field</code>. This is done by the <code>Field</code>.
+	 * </p>
+	 * @param removed <code>true</code> if the node has been removed.
+	 * @see Field
+	 */
+	public void setRemoved(boolean removed){
+		this.removed = removed;
+	}
+	
 	/**
 	 * <p>
 	 * Returns the position object of this <code>Node</code>.
@@ -679,45 +1342,57 @@ public class Node{
 		}
 	}
 	
-	/*
-	 * Helper method.
-	 * */
-	private void setNodeState(NodeState nodeState){
-		this.nodeState = nodeState;
+	/**
+	 * <p>
+	 * Sets the list over neighboring nodes of this <code>Node</code>, for when the
+	 * neighbours are already known, e.g. read along with the node network.
+	 * </p>
+	 * @param neighbours the neighboring nodes.
+	 * @throws java.lang.NullPointerException if the list is <code>null</code>.
+	 * @see surrounding.BinaryNodeNetworkGenerator
+	 */
+	public void setNeighbours(List<Node> neighbours) throws NullPointerException{
+		if(neighbours == null){
+			throw new NullPointerException("neighbours can not be null");
+		}
+		neighboursList = neighbours;
 	}
 	
-	/*
-	 * Helper method.
-	 * 
-	 * This method is used in direct correlation to when a request message has
-	 * returned to the node (in time). It prints some interesting information
-	 * surrounding the event which the node sent for.
-	 * */
-	private void printEvent(Event event, RequestMessage message){
-		System.out.println(field.getCurrentTime() 
-				+ ": " + this.toString()
-				+ " (" + getStringRepresentation() + ")"
-				+ " received event details from request sent at "
-				+ message.getTimeOfCreation() + " --"
-				+ " x:" + event.getPosition().getX() 
-				+ "; y:" + event.getPosition().getY()
-				+ ", time: " + event.getTime()
-				+ ", id: " + event.getId());
+	/**
+	 * <p>
+	 * Adds a node to the list over neighboring nodes of this <code>Node</code>, for
+	 * when a node has joined the node network within range of this node.
+	 * </p>
+	 * @param node the neighbouring node.
+	 * @see Field#addNode(Node)
+	 */
+	public void addNeighbour(Node node){
+		neighboursList = new ArrayList<Node>(neighboursList);
+		neighboursList.add(node);
 	}
 	
-	/*
-	 * Helper method.
-	 * 
-	 * This method is used in direct correlation to when a request message has
-	 * returned to the node (expired).
-	 * */
-	private void printExpiredRequestOnRetrievedEvent(int timeSent){
-		System.out.println(field.getCurrentTime() 
-				+ ": " + this.toString()
-				+ " (" + getStringRepresentation() + ")"
-				+ " received expired event request sent at "
-				+ timeSent
-				+ ". Discarded.");
+	/**
+	 * <p>
+	 * Removes a node from the list over neighboring nodes of this <code>Node</code>,
+	 * and forgets every direction in the routing table leading through it, for when
+	 * the node has left the node network or is no longer within range.
+	 * </p>
+	 * @param node the node no longer neighbouring.
+	 * @see Field#removeNode(Node)
+	 */
+	public void removeNeighbour(Node node){
+		RoutingTable table = routingTable;
+		
+		if(neighboursList.contains(node)){
+			neighboursList = new ArrayList<Node>(neighboursList);
+			neighboursList.remove(node);
+		}
+		for(ImplicitEvent implicitEvent : table){
+			if(implicitEvent.getNode() == node){
+				routingTable = routingTable.remove(implicitEvent.getId());
+			}
+		}
+		publishState();
 	}
 	
 	/*
@@ -773,15 +1448,16 @@ public class Node{
 		final int prime = 31;
 		int result = 1;
 		result = prime * result
-				+ ((position == null) ? 0 : position.hashCode());
+				+ ((position == null) ? index : position.hashCode());
 		return result;
 	}
-
+	
 	/**
 	 * <p>
 	 * Returns <code>true</code> if and only if this <code>Node</code> and 
 	 * the compared object refer to the same (<code>this == other is true</code>), <b>or</b> if the <code>Position</code> of this <code>Node</code> is equal to
-	 * the <code>Position</code> of the compared <code>Node</code>.
+	 * the <code>Position</code> of the compared <code>Node</code>. Placeholders
+	 * (see <code>Node(int)</code>) are equal if their indices are.
 	 * </p>
 	 * @param obj the <code>Object</code> to compare to this.
 	 * @return <code>true</code> if this <code>Node</code> and the compared object refer to the same, or if their positions correspond.
@@ -801,7 +1477,7 @@ public class Node{
 		}
 		other = (Node) obj;
 		if(position == null){
-			if(other.position != null){
+			if(other.position != null || index != other.index){
 				return false;
 			}
 		}else if(!position.equals(other.position)){
@@ -812,11 +1488,173 @@ public class Node{
 	
 	/**
 	 * <p>
-	 * Sets the internal node state as ready.
+	 * Sets the internal node state as ready, without waiting for the current
+	 * time to move on.
 	 * </p>
 	 * @see NodeState
 	 */
 	public void reset(){
-		setNodeState(NodeState.READY);
+		getStore().setBusyUntil(slot, -1);
+	}
+	
+	/**
+	 * <p>
+	 * Writes the state of this <code>Node</code> to a checkpoint: its events, its
+	 * routing table, its requests, and its tasks along with the messages they hold.
+	 * The neighbours of the <code>Node</code> aren't written, since they follow from
+	 * the node network. The checkpoint must be written between two updates.
+	 * </p>
+	 * @param out the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be written.
+	 * @see Field#writeCheckpoint(java.nio.file.Path)
+	 */
+	public void writeCheckpoint(CheckpointOutput out) throws IOException{
+		out.writeInt(getStore().getBusyUntil(slot));
+		out.writeInt(eventMap.size());
+		for(Event event : eventMap.values()){
+			out.writeEvent(event);
+		}
+		out.writeInt(eventQueue.size());
+		for(Event event : eventQueue){
+			out.writeEvent(event);
+		}
+		out.writeRoutingTable(routingTable);
+		out.writeInt(requestQueue.size());
+		for(Request request : requestQueue){
+			out.writeString(request.getRequestId());
+			out.writeInt(request.getTime());
+			out.writeBoolean(requestMap.get(request.getRequestId()) == request);
+		}
+		taskQueue.writeCheckpoint(out);
+	}
+	
+	/**
+	 * <p>
+	 * Reads the state of this <code>Node</code> from a checkpoint, as written by
+	 * <code>writeCheckpoint</code>. The state isn't restored until
+	 * <code>restore()</code> is called on the returned object, so a checkpoint
+	 * which turns out to be unreadable further on leaves the <code>Node</code> as
+	 * it was.
+	 * </p>
+	 * @param in the checkpoint.
+	 * @return the state read, to be restored.
+	 * @throws java.io.IOException if the checkpoint couldn't be read.
+	 * @see Field#restoreCheckpoint(java.nio.file.Path)
+	 */
+	public CheckpointState readCheckpoint(CheckpointInput in) throws IOException{
+		CheckpointState state = new CheckpointState(this);
+		Request request;
+		Event event;
+		int size;
+		
+		state.busyUntil = in.readInt();
+		size = in.readInt();
+		for(int i=0; i<size; i++){
+			event = in.readEvent();
+			state.eventMap.put(event.getId(), event);
+		}
+		size = in.readInt();
+		for(int i=0; i<size; i++){
+			state.eventQueue.add(in.readEvent());
+		}
+		state.routingTable = in.readRoutingTable();
+		size = in.readInt();
+		for(int i=0; i<size; i++){
+			request = new Request(in.readString(), requestLife, in.readInt());
+			state.requestQueue.add(request);
+			if(in.readBoolean()){
+				state.requestMap.put(request.getRequestId(), request);
+			}
+		}
+		state.taskQueue = TaskQueue.readCheckpoint(in);
+		return state;
+	}
+	
+	/**
+	 * The state of a <code>Node</code> read from a checkpoint by
+	 * <code>Node.readCheckpoint</code>, waiting to be restored.
+	 *
+	 * @author  Alexander Beliaev
+	 * @version 1.0
+	 * @since   2026-10-18
+	 * @see Node#readCheckpoint(CheckpointInput)
+	 * */
+	public static final class CheckpointState{
+		
+		private final Node node;
+		private final IntObjectMap<Event> eventMap;
+		private final ArrayDeque<Event> eventQueue;
+		private final ArrayDeque<Request> requestQueue;
+		private final Map<String, Request> requestMap;
+		private RoutingTable routingTable;
+		private TaskQueue taskQueue;
+		private int busyUntil;
+		
+		private CheckpointState(Node node){
+			this.node = node;
+			eventMap = new IntObjectMap<Event>();
+			eventQueue = new ArrayDeque<Event>();
+			requestQueue = new ArrayDeque<Request>();
+			requestMap = new HashMap<String, Request>();
+		}
+		
+		/**
+		 * <p>
+		 * Replaces the state of the <code>Node</code> by the state read from
+		 * the checkpoint.
+		 * </p>
+		 * @return the <code>Node</code>.
+		 */
+		public Node restore(){
+			node.getStore().setBusyUntil(node.slot, busyUntil);
+			node.eventMap = eventMap;
+			node.eventQueue = eventQueue;
+			node.routingTable = routingTable;
+			node.requestQueue = requestQueue;
+			node.requestMap = requestMap;
+			node.taskQueue = taskQueue;
+			node.outbox.clear();
+			node.results.clear();
+			node.publishState();
+			return node;
+		}
+	}
+	
+	/*
+	 * A request message which has returned during an update, waiting to be
+	 * handed over to the result sink.
+	 * */
+	private static final class Result{
+		
+		private final RequestMessage message;
+		private final boolean expired;
+		
+		private Result(RequestMessage message, boolean expired){
+			this.message = message;
+			this.expired = expired;
+		}
+	}
+	
+	/*
+	 * A message sent during an update, waiting to be delivered. While posted,
+	 * it is linked to the message posted before it to the same mailbox.
+	 * */
+	private static final class Delivery{
+		
+		private final Node receiver;
+		private final Message message;
+		private final TaskAction action;
+		private final boolean renewLife;
+		private boolean returned;
+		private long order;
+		private Delivery next;
+		
+		private Delivery(Node receiver, Message message, TaskAction action,
+				boolean renewLife){
+			this.receiver = receiver;
+			this.message = message;
+			this.action = action;
+			this.renewLife = renewLife;
+		}
 	}
 }
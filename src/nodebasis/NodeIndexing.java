@@ -0,0 +1,39 @@
+package nodebasis;
+
+import java.io.IOException;
+
+/**
+ * Classes implementing this interface tell which index a node is written as, and
+ * which node an index is read back as, by a <code>CheckpointOutput</code> and a
+ * <code>CheckpointInput</code> which don't refer to the nodes by their index within
+ * a single node network. This is the case for the messages passed between the
+ * processes of a distributed simulation, each of which only holds part of the node
+ * network, and refers to the nodes by their index within the whole node network.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see CheckpointOutput#setNodeIndexing(NodeIndexing)
+ * @see CheckpointInput#setNodeIndexing(NodeIndexing)
+ * */
+public interface NodeIndexing{
+	
+	/**
+	 * <p>
+	 * Returns the index the specified node is written as.
+	 * </p>
+	 * @param node the node, which isn't <code>null</code>.
+	 * @return the index.
+	 */
+	public int getIndexOf(Node node);
+	
+	/**
+	 * <p>
+	 * Returns the node the specified index is read as.
+	 * </p>
+	 * @param index the index, which isn't -1.
+	 * @return the node.
+	 * @throws java.io.IOException if there is no node with the index.
+	 */
+	public Node getNode(int index) throws IOException;
+}
@@ -0,0 +1,173 @@
+package nodebasis;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import coordination.Position;
+
+/**
+ * The <code>NodeSet</code> class keeps track of the nodes a message has visited.
+ * The nodes are kept by their positions packed into <code>long</code>s (see
+ * <code>Position.toLong()</code>), in an open addressing table of primitive
+ * <code>long</code>s, so adding and checking a node neither scans the set nor
+ * allocates anything.</br>
+ * </br>
+ * Unlike the index of a node, which is handed on to another node when a node is
+ * removed from the node network, the position of a node never changes. Like
+ * <code>Node.equals(Object)</code>, two nodes at the same position are taken to be
+ * the same node.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Position#toLong()
+ * */
+class NodeSet{
+	
+	private static final long FREE = Long.MIN_VALUE;
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	private long[] positions;
+	private int mask;
+	private int size;
+	private boolean containsFree;
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>NodeSet</code> object.
+	 * </p>
+	 */
+	NodeSet(){
+		positions = new long[DEFAULT_CAPACITY];
+		mask = DEFAULT_CAPACITY - 1;
+		Arrays.fill(positions, FREE);
+	}
+	
+	/**
+	 * <p>
+	 * Adds the specified node to the set.
+	 * </p>
+	 * @param node the node to add.
+	 */
+	void add(Node node){
+		add(node.getPosition().toLong());
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the specified node is in the set. If the node
+	 * is <code>null</code>, this returns <code>false</code>.
+	 * </p>
+	 * @param node the node to check.
+	 * @return <code>true</code> if the node is in the set, <code>false</code> otherwise.
+	 */
+	boolean contains(Node node){
+		long position;
+		
+		if(node == null){
+			return false;
+		}
+		position = node.getPosition().toLong();
+		if(position == FREE){
+			return containsFree;
+		}
+		for(int slot=slot(position); positions[slot]!=FREE; slot=(slot+1)&mask){
+			if(positions[slot] == position){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * <p>
+	 * Writes the nodes of the set to a checkpoint, as their positions.
+	 * </p>
+	 * @param out the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be written.
+	 */
+	void writeCheckpoint(CheckpointOutput out) throws IOException{
+		out.writeInt(containsFree ? size + 1 : size);
+		if(containsFree){
+			out.writePosition(Position.fromLong(FREE));
+		}
+		for(long position : positions){
+			if(position != FREE){
+				out.writePosition(Position.fromLong(position));
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Creates a <code>NodeSet</code> object holding the nodes read from a checkpoint,
+	 * as written by <code>writeCheckpoint</code>.
+	 * </p>
+	 * @param in the checkpoint.
+	 * @return the set.
+	 * @throws java.io.IOException if the checkpoint couldn't be read.
+	 */
+	static NodeSet readCheckpoint(CheckpointInput in) throws IOException{
+		NodeSet nodeSet = new NodeSet();
+		int size = in.readInt();
+		
+		for(int i=0; i<size; i++){
+			nodeSet.add(in.readPosition().toLong());
+		}
+		return nodeSet;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Adds a packed position to the set. The one position packed into the
+	 * same value as a free slot is kept apart.
+	 * */
+	private void add(long position){
+		int slot;
+		
+		if(position == FREE){
+			containsFree = true;
+			return;
+		}
+		for(slot=slot(position); positions[slot]!=FREE; slot=(slot+1)&mask){
+			if(positions[slot] == position){
+				return;
+			}
+		}
+		positions[slot] = position;
+		if(++size > positions.length / 2){
+			resize(positions.length * 2);
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private int slot(long position){
+		long hash = position * 0x9E3779B97F4A7C15L;
+		
+		return (int)(hash ^ (hash >>> 32)) & mask;
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private void resize(int capacity){
+		long[] oldPositions = positions;
+		int slot;
+		
+		positions = new long[capacity];
+		mask = capacity - 1;
+		Arrays.fill(positions, FREE);
+		for(long position : oldPositions){
+			if(position != FREE){
+				slot = slot(position);
+				while(positions[slot] != FREE){
+					slot = (slot + 1) & mask;
+				}
+				positions[slot] = position;
+			}
+		}
+	}
+}
@@ -4,7 +4,12 @@ package nodebasis;
  * The Request class is used to keep track on the time elapsed since
  * a request message was created. The node can therefore determine if 
  * it should discard the request or continue the wait. The class implements 
- * the Lifespan interface.
+ * the Lifespan interface.</br>
+ * </br>
+ * A request also knows when it was created, which lets a node find out when the
+ * request expires without decrementing its lifespan on every update. The node
+ * revives a request once before discarding it, so the request expires once it
+ * has lived its lifespan twice.
  * 
  * @author  Alexander Beliaev
  * @version 1.0
@@ -13,6 +18,8 @@ package nodebasis;
 public class Request implements Lifespan{
 
 	private final int requestLifespan;
+	private final String requestId;
+	private final int time;
 	
 	private int numberOfTimesRevived;
 	private int currentRequestLifespan;
@@ -27,9 +34,25 @@ public class Request implements Lifespan{
 	 * to or less than zero.
 	 */
 	public Request(int requestLifespan){
+		this(null, requestLifespan, 0);
+	}
+	
+	/**
+	 * <p>
+	 * Creates a <code>Request</code> object for the request message with the
+	 * specified id, with the amount of lives the request message initially had,
+	 * created at the specified time.
+	 * </p>
+	 * @param requestId the id of the request message.
+	 * @param requestLifespan the amount of lives the request should possess.
+	 * @param time the time the request was created.
+	 */
+	public Request(String requestId, int requestLifespan, int time){
 		this.requestLifespan = this.currentRequestLifespan = 
 				(requestLifespan * 8);
 		this.numberOfTimesRevived = 0;
+		this.requestId = requestId;
+		this.time = time;
 	}
 	
 	/**
@@ -84,4 +107,34 @@ public class Request implements Lifespan{
 		return currentRequestLifespan;
 	}
 	
+	/**
+	 * <p>
+	 * Returns the id of the request message this request keeps track of.
+	 * </p>
+	 * @return the id of the request message, or <code>null</code> if not specified.
+	 */
+	public String getRequestId(){
+		return requestId;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the time the request was created.
+	 * </p>
+	 * @return the time of creation.
+	 */
+	public int getTime(){
+		return time;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the time at which the request expires, having been revived once.
+	 * </p>
+	 * @return the time of expiry.
+	 */
+	public int getExpiryTime(){
+		return time + 2 * requestLifespan;
+	}
+	
 }
@@ -1,11 +1,8 @@
 package nodebasis;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 import java.util.Stack;
 
-import coordination.Position;
-
 /**
  * The <code>RequestMessage</code> class extends the <code>Message</code> class, and is
  * defined by the sole purpose of fetching information regarding a specific event,
@@ -23,14 +20,16 @@ public class RequestMessage extends Message{
 	private final int lifeSpan;
 	private final String requestId;
 	private final int timeOfCreation;
+	private final long nanoTimeOfCreation;
 	private final Node originatingNode;
 	
 	private Stack<Node> routingStack;
-	private Map<Position, Node> visitedNodes;
+	private NodeSet visitedNodes;
 	private Event event;
 	private boolean returnToSender;
 	private int currentMessageLife;
 	private boolean isReturned;
+	private int hopCount;
 	
 	/**
 	 * Creates a <code>RequestMessage</code> object with the id to the sought event, the
@@ -54,21 +53,55 @@ public class RequestMessage extends Message{
 			this.addressedTo = addressedTo;
 			this.lifeSpan = this.currentMessageLife = messageLife;
 			this.timeOfCreation = timeOfCreation;
+			this.nanoTimeOfCreation = System.nanoTime();
 			this.requestId = "" + originatingNode.toString() + "." + timeOfCreation;
 			this.originatingNode = originatingNode;
 			
 			routingStack = new Stack<Node>();
-			visitedNodes = new HashMap<Position, Node>();
+			visitedNodes = new NodeSet();
 			setReturnToSender(false);
 			setIsReturned(false);
 			
 			routingStack.push(originatingNode);
-			visitedNodes.put(originatingNode.getPosition(), originatingNode);
+			visitedNodes.add(originatingNode);
 		}else{
 			throw new NullPointerException("null node given");
 		}
 	}
 	
+	/**
+	 * <p>
+	 * Creates a <code>RequestMessage</code> object from a checkpoint, as written by
+	 * <code>writeCheckpoint</code>. The wall-clock time of creation is moved along,
+	 * so the message is as old as it was when the checkpoint was written.
+	 * </p>
+	 * @param in the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be read.
+	 */
+	RequestMessage(CheckpointInput in) throws IOException{
+		super(in);
+		int size;
+		
+		addressedTo = in.readInt();
+		lifeSpan = in.readInt();
+		requestId = in.readString();
+		timeOfCreation = in.readInt();
+		nanoTimeOfCreation = in.getNanoTime() - in.readLong();
+		originatingNode = in.readNonNullNode();
+		
+		routingStack = new Stack<Node>();
+		size = in.readInt();
+		for(int i=0; i<size; i++){
+			routingStack.push(in.readNonNullNode());
+		}
+		visitedNodes = NodeSet.readCheckpoint(in);
+		event = in.readBoolean() ? in.readEvent() : null;
+		returnToSender = in.readBoolean();
+		currentMessageLife = in.readInt();
+		isReturned = in.readBoolean();
+		hopCount = in.readInt();
+	}
+	
 	/**
 	 * <p>
 	 * Updates the message by adding or removing nodes to an internal stack
@@ -85,9 +118,10 @@ public class RequestMessage extends Message{
 			event = node.getEventById(addressedTo);
 			if(event != null){
 				this.event = event;
+				hopCount = routingStack.size();
 				setReturnToSender(true);
 			}else{
-				visitedNodes.put(node.getPosition(), node);
+				visitedNodes.add(node);
 				routingStack.push(node);
 			}
 		}else{
@@ -107,7 +141,7 @@ public class RequestMessage extends Message{
 	 * 
 	 */
 	protected boolean hasVisitedNode(Node node){
-		return visitedNodes.containsValue(node);
+		return visitedNodes.contains(node);
 	}
 	
 	/**
@@ -194,6 +228,29 @@ public class RequestMessage extends Message{
 		return timeOfCreation;
 	}
 	
+	/**
+	 * <p>
+	 * Returns the wall-clock time this message was instantiated, as given by
+	 * <code>System.nanoTime()</code>.
+	 * </p>
+	 * @return the wall-clock time when this message was created, in nanoseconds.
+	 */
+	protected long getNanoTimeOfCreation(){
+		return nanoTimeOfCreation;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of hops this message made from its origin to the node
+	 * holding the sought event, i.e. the depth of its path back once the event
+	 * was found.
+	 * </p>
+	 * @return the number of hops, or 0 if the event hasn't been found.
+	 */
+	protected int getHopCount(){
+		return hopCount;
+	}
+	
 	/**
 	 * <p>
 	 * Returns the data fetched from the sought event.
@@ -292,4 +349,47 @@ public class RequestMessage extends Message{
 		return originatingNode;
 	}
 	
+	/**
+	 * <p>
+	 * Returns the serial number of the node where this message was created.
+	 * </p>
+	 * @return the serial number of the originating <code>Node</code>.
+	 * @see Node#getSerial()
+	 */
+	protected int getOriginSerial(){
+		return originatingNode.getSerial();
+	}
+	
+	/**
+	 * <p>
+	 * Writes the state of the message to a checkpoint.
+	 * </p>
+	 * @param out the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be written.
+	 */
+	@Override
+	void writeCheckpoint(CheckpointOutput out) throws IOException{
+		super.writeCheckpoint(out);
+		out.writeInt(addressedTo);
+		out.writeInt(lifeSpan);
+		out.writeString(requestId);
+		out.writeInt(timeOfCreation);
+		out.writeLong(out.getNanoTime() - nanoTimeOfCreation);
+		out.writeNode(originatingNode);
+		
+		out.writeInt(routingStack.size());
+		for(Node node : routingStack){
+			out.writeNode(node);
+		}
+		visitedNodes.writeCheckpoint(out);
+		out.writeBoolean(event != null);
+		if(event != null){
+			out.writeEvent(event);
+		}
+		out.writeBoolean(returnToSender);
+		out.writeInt(currentMessageLife);
+		out.writeBoolean(isReturned);
+		out.writeInt(hopCount);
+	}
+	
 }
@@ -0,0 +1,138 @@
+package nodebasis;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The <code>ResultFormat enum</code> describes how a <code>ResultSink</code>
+ * writes its results.
+ * <ul>
+ * 		<li><code>TEXT</code> writes one line per result, worded the way the
+ * 			nodes used to print them.</li>
+ * 		<li><code>CSV</code> writes one line per result, with the columns
+ * 			<code>type, time, node x, node y, signal strength, agent life, request life,
+ * 			time sent, event x, event y, event time, event id</code>. The type is
+ * 			<code>retrieved</code> or <code>expired</code>, and the columns of the
+ * 			event are left empty for the latter.</li>
+ * 		<li><code>BINARY</code> writes every result as the same columns, as 12 big-endian
+ * 			<code>int</code>s, the type being 0 for retrieved and 1 for expired.</li>
+ * </ul>
+ * Before being written a result is held as a record of primitive <code>int</code>s,
+ * so receiving a result neither formats nor allocates anything.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see ResultSink
+ * */
+public enum ResultFormat {
+	TEXT{
+		@Override
+		void write(int[] records, int offset, DataOutputStream out) throws IOException{
+			StringBuilder line = new StringBuilder(160);
+			
+			line.append(records[offset + TIME]).append(": ")
+					.append(Node.class.getName()).append('@')
+					.append(Integer.toHexString(records[offset + NODE_HASH]))
+					.append(" (").append(records[offset + NODE_X])
+					.append(';').append(records[offset + NODE_Y])
+					.append(';').append(records[offset + SIGNAL_STRENGTH])
+					.append(';').append(records[offset + AGENT_LIFE])
+					.append(';').append(records[offset + REQUEST_LIFE]).append(')');
+			if(records[offset + TYPE] == RETRIEVED){
+				line.append(" received event details from request sent at ")
+						.append(records[offset + TIME_SENT]).append(" --")
+						.append(" x:").append(records[offset + EVENT_X])
+						.append("; y:").append(records[offset + EVENT_Y])
+						.append(", time: ").append(records[offset + EVENT_TIME])
+						.append(", id: ").append(records[offset + EVENT_ID]);
+			}else{
+				line.append(" received expired event request sent at ")
+						.append(records[offset + TIME_SENT]).append(". Discarded.");
+			}
+			line.append(LINE_SEPARATOR);
+			out.writeBytes(line.toString());
+		}
+	},
+	CSV{
+		@Override
+		void write(int[] records, int offset, DataOutputStream out) throws IOException{
+			StringBuilder line = new StringBuilder(80);
+			
+			line.append(records[offset + TYPE] == RETRIEVED ? "retrieved" : "expired");
+			for(int i=TIME; i<RECORD_SIZE; i++){
+				if(i != NODE_HASH){
+					line.append(',');
+					if(i < EVENT_X || records[offset + TYPE] == RETRIEVED){
+						line.append(records[offset + i]);
+					}
+				}
+			}
+			line.append(LINE_SEPARATOR);
+			out.writeBytes(line.toString());
+		}
+	},
+	BINARY{
+		@Override
+		void write(int[] records, int offset, DataOutputStream out) throws IOException{
+			for(int i=TYPE; i<RECORD_SIZE; i++){
+				if(i != NODE_HASH){
+					out.writeInt(records[offset + i]);
+				}
+			}
+		}
+	};
+	
+	static final int RETRIEVED = 0;
+	static final int EXPIRED = 1;
+	
+	static final int TYPE = 0;
+	static final int TIME = 1;
+	static final int NODE_HASH = 2;
+	static final int NODE_X = 3;
+	static final int NODE_Y = 4;
+	static final int SIGNAL_STRENGTH = 5;
+	static final int AGENT_LIFE = 6;
+	static final int REQUEST_LIFE = 7;
+	static final int TIME_SENT = 8;
+	static final int EVENT_X = 9;
+	static final int EVENT_Y = 10;
+	static final int EVENT_TIME = 11;
+	static final int EVENT_ID = 12;
+	static final int RECORD_SIZE = 13;
+	
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+	
+	/*
+	 * Writes the record starting at the specified offset.
+	 * */
+	abstract void write(int[] records, int offset, DataOutputStream out) throws IOException;
+	
+	/*
+	 * Fills in the record starting at the specified offset. The event is null
+	 * for an expired request, in which case the time sent is the time of the event.
+	 * */
+	static void record(int[] records, int offset, int time, Node node, int timeSent,
+			Event event){
+		records[offset + TYPE] = event != null ? RETRIEVED : EXPIRED;
+		records[offset + TIME] = time;
+		records[offset + NODE_HASH] = node.hashCode();
+		records[offset + NODE_X] = node.getPosition().getX();
+		records[offset + NODE_Y] = node.getPosition().getY();
+		records[offset + SIGNAL_STRENGTH] = node.getSignalStrength();
+		records[offset + AGENT_LIFE] = node.getAgentLife();
+		records[offset + REQUEST_LIFE] = node.getRequestLife();
+		records[offset + TIME_SENT] = timeSent;
+		if(event != null){
+			records[offset + EVENT_X] = event.getPosition().getX();
+			records[offset + EVENT_Y] = event.getPosition().getY();
+			records[offset + EVENT_TIME] = event.getTime();
+			records[offset + EVENT_ID] = event.getId();
+		}else{
+			records[offset + EVENT_X] = 0;
+			records[offset + EVENT_Y] = 0;
+			records[offset + EVENT_TIME] = 0;
+			records[offset + EVENT_ID] = 0;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package nodebasis;
+
+/**
+ * Classes implementing this interface receive the results of the simulation, i.e.
+ * the events fetched by returning request messages. A <code>Node</code> hands its
+ * results to the <code>ResultSink</code> of its <code>Field</code> when it delivers
+ * its messages, which is done by one thread, node by node, in the same order every time.
+ * An implementation is therefore only called from one thread at a time.</br>
+ * </br>
+ * The <code>DISCARD</code> sink ignores every result, which is useful when
+ * measuring the simulation itself.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see StreamResultSink
+ * @see AsyncResultSink
+ * */
+public interface ResultSink{
+	
+	/**
+	 * A <code>ResultSink</code> which ignores every result.
+	 */
+	public static final ResultSink DISCARD = new ResultSink(){
+		
+		@Override
+		public void eventRetrieved(int time, Node node, int timeSent, Event event){
+		}
+		
+		@Override
+		public void expiredRequestRetrieved(int time, Node node, int eventTime){
+		}
+		
+		@Override
+		public void flush(){
+		}
+	};
+	
+	/**
+	 * <p>
+	 * Receives an event which was fetched by a request message, returned to
+	 * the node which sent it while the node still was waiting for it.
+	 * </p>
+	 * @param time the time the request message returned.
+	 * @param node the node which sent the request message.
+	 * @param timeSent the time the request message was sent.
+	 * @param event the fetched event.
+	 */
+	public void eventRetrieved(int time, Node node, int timeSent, Event event);
+	
+	/**
+	 * <p>
+	 * Receives notice of a request message which returned to the node which sent
+	 * it after the node had stopped waiting for it.
+	 * </p>
+	 * @param time the time the request message returned.
+	 * @param node the node which sent the request message.
+	 * @param eventTime the time of the event fetched by the request message.
+	 */
+	public void expiredRequestRetrieved(int time, Node node, int eventTime);
+	
+	/**
+	 * <p>
+	 * Writes out any results received so far, but not yet written.
+	 * </p>
+	 */
+	public void flush();
+}
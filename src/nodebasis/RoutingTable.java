@@ -0,0 +1,517 @@
+package nodebasis;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The <code>RoutingTable</code> class maps event ids to <code>ImplicitEvent</code>s,
+ * i.e. it holds the directions to the events a node knows about. A routing table
+ * is persistent: it is never modified, instead <code>put</code>, <code>remove</code>
+ * and <code>merge</code> return a new table which shares everything but the changed
+ * entries with the old one. Nodes and agent messages can therefore pass their tables
+ * to one another without copying them.</br>
+ * </br>
+ * Internally the table is a trie where each level holds 5 bits of the event id,
+ * most significant bits first, and where each trie node only stores the children
+ * actually present. The entries are thereby kept in ascending order of their ids.</br>
+ * </br>
+ * Since <code>ImplicitEvent</code>s are shared between tables, an
+ * <code>ImplicitEvent</code> must not be modified once put into a table.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see ImplicitEvent
+ * */
+public final class RoutingTable implements Iterable<ImplicitEvent>{
+	
+	/**
+	 * The routing table without entries.
+	 */
+	public static final RoutingTable EMPTY = new RoutingTable(null, 0);
+	
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	private static final int MAX_DEPTH = 7;
+	
+	private final TrieNode root;
+	private final int shift;
+	
+	private RoutingTable(TrieNode root, int shift){
+		this.root = root;
+		this.shift = shift;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of entries in the table.
+	 * </p>
+	 * @return the number of entries.
+	 */
+	public int size(){
+		return root == null ? 0 : root.size;
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the table is without entries.
+	 * </p>
+	 * @return <code>true</code> if the table has no entries, <code>false</code>
+	 * otherwise.
+	 */
+	public boolean isEmpty(){
+		return root == null;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the entry with the specified event id, or <code>null</code> if
+	 * the table holds no such entry.
+	 * </p>
+	 * @param id the id of the event.
+	 * @return the entry, or <code>null</code>.
+	 */
+	public ImplicitEvent get(int id){
+		TrieNode node = root;
+		int bit;
+		
+		if(node == null || id < 0 || !fits(id, shift)){
+			return null;
+		}
+		for(int level=shift; ; level-=BITS){
+			bit = 1 << ((id >>> level) & MASK);
+			if((node.bitmap & bit) == 0){
+				return null;
+			}else if(level == 0){
+				return (ImplicitEvent)node.array[node.index(bit)];
+			}
+			node = (TrieNode)node.array[node.index(bit)];
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the table holds an entry with the specified event id.
+	 * </p>
+	 * @param id the id of the event.
+	 * @return <code>true</code> if there is such an entry, <code>false</code> otherwise.
+	 */
+	public boolean containsKey(int id){
+		return get(id) != null;
+	}
+	
+	/**
+	 * <p>
+	 * Returns a table with the specified entry added, replacing any entry
+	 * with the same event id.
+	 * </p>
+	 * @param implicitEvent the entry to add.
+	 * @return the new table.
+	 * @throws java.lang.IllegalArgumentException if the id of the entry is negative.
+	 */
+	public RoutingTable put(ImplicitEvent implicitEvent) throws IllegalArgumentException{
+		int id = implicitEvent.getId();
+		TrieNode newRoot = root;
+		int newShift = shift;
+		
+		if(id < 0){
+			throw new IllegalArgumentException("event ids can not be negative");
+		}
+		if(newRoot == null){
+			newShift = 0;
+		}
+		while(!fits(id, newShift)){
+			if(newRoot != null){
+				newRoot = new TrieNode(1, new Object[]{newRoot});
+			}
+			newShift += BITS;
+		}
+		newRoot = insert(newRoot, newShift, id, implicitEvent);
+		
+		return newRoot == root ? this : new RoutingTable(newRoot, newShift);
+	}
+	
+	/**
+	 * <p>
+	 * Returns a table without the entry with the specified event id.
+	 * </p>
+	 * @param id the id of the event.
+	 * @return the new table, or this table if it has no such entry.
+	 */
+	public RoutingTable remove(int id){
+		TrieNode newRoot;
+		
+		if(!containsKey(id)){
+			return this;
+		}
+		newRoot = remove(root, shift, id);
+		
+		return newRoot == null ? EMPTY : new RoutingTable(newRoot, shift);
+	}
+	
+	/**
+	 * <p>
+	 * Returns a table where the entries of the specified table have been merged
+	 * into the entries of this table. An offered entry is taken if this table has
+	 * no entry for the event, or if the offered entry is closer to the event.</br>
+	 * </br>
+	 * If a node is specified, the offered entries are taken to be one step further away,
+	 * through that node, and only the entries actually taken are created. If no node
+	 * is specified, the offered entries are taken as they are.
+	 * </p>
+	 * @param other the table whose entries are offered.
+	 * @param node the node the offered entries lead through, or <code>null</code>.
+	 * @return the new table, or this table if no entry was taken.
+	 */
+	public RoutingTable merge(RoutingTable other, Node node){
+		TrieNode ownRoot = root;
+		TrieNode otherRoot = other.root;
+		int ownShift = shift;
+		int otherShift = other.shift;
+		TrieNode newRoot;
+		
+		if(other.isEmpty() || other == this){
+			return this;
+		}else if(isEmpty()){
+			ownShift = otherShift;
+		}
+		while(ownShift < otherShift){
+			ownRoot = new TrieNode(1, new Object[]{ownRoot});
+			ownShift += BITS;
+		}
+		while(otherShift < ownShift){
+			otherRoot = new TrieNode(1, new Object[]{otherRoot});
+			otherShift += BITS;
+		}
+		newRoot = merge(ownRoot, otherRoot, ownShift, node);
+		
+		return newRoot == ownRoot && ownShift == shift ? this :
+				new RoutingTable(newRoot, ownShift);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the entry with the lowest event id, i.e. the entry of the
+	 * event which occurred first.
+	 * </p>
+	 * @return the entry, or <code>null</code> if the table is empty.
+	 */
+	public ImplicitEvent first(){
+		Object child = root;
+		
+		while(child instanceof TrieNode){
+			child = ((TrieNode)child).array[0];
+		}
+		
+		return (ImplicitEvent)child;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the entry of the event which is the farthest away. If several
+	 * events are equally far away, the one with the lowest event id is returned.
+	 * </p>
+	 * @return the entry, or <code>null</code> if the table is empty.
+	 */
+	public ImplicitEvent farthest(){
+		Object child = root;
+		int maxDistance;
+		
+		if(root == null){
+			return null;
+		}
+		maxDistance = root.maxDistance;
+		while(child instanceof TrieNode){
+			for(Object grandChild : ((TrieNode)child).array){
+				if(grandChild instanceof TrieNode ?
+						((TrieNode)grandChild).maxDistance == maxDistance :
+						((ImplicitEvent)grandChild).getDistance() == maxDistance){
+					child = grandChild;
+					break;
+				}
+			}
+		}
+		
+		return (ImplicitEvent)child;
+	}
+	
+	/**
+	 * <p>
+	 * Returns an iterator over the entries of the table, in ascending
+	 * order of their event ids.
+	 * </p>
+	 * @return the iterator.
+	 */
+	@Override
+	public Iterator<ImplicitEvent> iterator(){
+		return new TableIterator(root, shift);
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Checks if the id is within reach of a trie whose root is at the given shift.
+	 * */
+	private static boolean fits(int id, int shift){
+		return shift + BITS >= Integer.SIZE - 1 || (id >>> (shift + BITS)) == 0;
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private static TrieNode insert(TrieNode node, int level, int id,
+			ImplicitEvent implicitEvent){
+		int bit = 1 << ((id >>> level) & MASK);
+		Object child;
+		Object newChild;
+		
+		if(node == null || (node.bitmap & bit) == 0){
+			newChild = level == 0 ? implicitEvent : insert(null, level - BITS, id,
+					implicitEvent);
+			return node == null ? new TrieNode(bit, new Object[]{newChild}) :
+				node.with(bit, newChild);
+		}
+		child = node.array[node.index(bit)];
+		newChild = level == 0 ? implicitEvent : insert((TrieNode)child, level - BITS, id,
+				implicitEvent);
+		
+		return newChild == child ? node : node.replaced(node.index(bit), newChild);
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns null if the trie node ends up without children.
+	 * */
+	private static TrieNode remove(TrieNode node, int level, int id){
+		int bit = 1 << ((id >>> level) & MASK);
+		TrieNode newChild;
+		
+		if(level == 0){
+			return node.without(bit);
+		}
+		newChild = remove((TrieNode)node.array[node.index(bit)], level - BITS, id);
+		
+		return newChild == null ? node.without(bit) :
+			node.replaced(node.index(bit), newChild);
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Merges two trie nodes on the same level. Identical trie nodes are skipped,
+	 * since the offered entries can't be closer than the entries themselves.
+	 * */
+	private static TrieNode merge(TrieNode own, TrieNode other, int level, Node node){
+		int bitmap;
+		int position = 0;
+		int bit;
+		Object[] array;
+		Object ownChild;
+		Object otherChild;
+		Object newChild;
+		
+		if(own == other || other == null){
+			return own;
+		}else if(own == null){
+			return copy(other, level, node);
+		}
+		
+		bitmap = own.bitmap | other.bitmap;
+		array = bitmap == own.bitmap ? null : new Object[Integer.bitCount(bitmap)];
+		for(int remaining=bitmap; remaining!=0; remaining&=remaining-1){
+			bit = remaining & -remaining;
+			ownChild = (own.bitmap & bit) != 0 ? own.array[own.index(bit)] : null;
+			otherChild = (other.bitmap & bit) != 0 ? other.array[other.index(bit)] : null;
+			if(level == 0){
+				newChild = merge((ImplicitEvent)ownChild, (ImplicitEvent)otherChild, node);
+			}else{
+				newChild = merge((TrieNode)ownChild, (TrieNode)otherChild, level - BITS, node);
+			}
+			
+			if(array != null){
+				array[position] = newChild;
+			}else if(newChild != ownChild){
+				array = own.array.clone();
+				array[position] = newChild;
+			}
+			position++;
+		}
+		
+		return array == null ? own : new TrieNode(bitmap, array);
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private static ImplicitEvent merge(ImplicitEvent own, ImplicitEvent other, Node node){
+		int distance;
+		
+		if(other == null){
+			return own;
+		}
+		distance = node == null ? other.getDistance() : other.getDistance() + 1;
+		if(own != null && own.getDistance() <= distance){
+			return own;
+		}
+		
+		return node == null ? other : new ImplicitEvent(other.getId(), other.getTime(), distance,
+				node);
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Copies a trie node for a table which has none of its entries.
+	 * */
+	private static TrieNode copy(TrieNode other, int level, Node node){
+		Object[] array = new Object[other.array.length];
+		
+		for(int i=0; i<array.length; i++){
+			if(level == 0){
+				array[i] = merge(null, (ImplicitEvent)other.array[i], node);
+			}else{
+				array[i] = copy((TrieNode)other.array[i], level - BITS, node);
+			}
+		}
+		
+		return new TrieNode(other.bitmap, array);
+	}
+	
+	/*
+	 * A node in the trie, holding up to 32 children (trie nodes, or entries on
+	 * the lowest level). Only present children are stored, in the order of
+	 * the set bits of the bitmap. The number of entries below the trie node,
+	 * and the greatest distance amongst them, are kept along with them.
+	 * */
+	private static final class TrieNode{
+		
+		private final int bitmap;
+		private final Object[] array;
+		private final int size;
+		private final int maxDistance;
+		
+		private TrieNode(int bitmap, Object[] array){
+			int size = 0;
+			int maxDistance = 0;
+			TrieNode trieNode;
+			
+			for(Object child : array){
+				if(child instanceof TrieNode){
+					trieNode = (TrieNode)child;
+					size += trieNode.size;
+					maxDistance = Math.max(maxDistance, trieNode.maxDistance);
+				}else{
+					size++;
+					maxDistance = Math.max(maxDistance, ((ImplicitEvent)child).getDistance());
+				}
+			}
+			this.bitmap = bitmap;
+			this.array = array;
+			this.size = size;
+			this.maxDistance = maxDistance;
+		}
+		
+		private int index(int bit){
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+		
+		private TrieNode with(int bit, Object child){
+			int index = index(bit);
+			Object[] newArray = new Object[array.length + 1];
+			
+			System.arraycopy(array, 0, newArray, 0, index);
+			newArray[index] = child;
+			System.arraycopy(array, index, newArray, index + 1, array.length - index);
+			
+			return new TrieNode(bitmap | bit, newArray);
+		}
+		
+		private TrieNode replaced(int index, Object child){
+			Object[] newArray = array.clone();
+			
+			newArray[index] = child;
+			
+			return new TrieNode(bitmap, newArray);
+		}
+		
+		private TrieNode without(int bit){
+			int index = index(bit);
+			Object[] newArray;
+			
+			if(array.length == 1){
+				return null;
+			}
+			newArray = new Object[array.length - 1];
+			System.arraycopy(array, 0, newArray, 0, index);
+			System.arraycopy(array, index + 1, newArray, index, newArray.length - index);
+			
+			return new TrieNode(bitmap & ~bit, newArray);
+		}
+	}
+	
+	/*
+	 * Iterates the trie depth first, keeping the path from the root in two arrays.
+	 * */
+	private static final class TableIterator implements Iterator<ImplicitEvent>{
+		
+		private final TrieNode[] nodes;
+		private final int[] positions;
+		private final int leafDepth;
+		private int depth;
+		private ImplicitEvent next;
+		
+		private TableIterator(TrieNode root, int shift){
+			nodes = new TrieNode[MAX_DEPTH];
+			positions = new int[MAX_DEPTH];
+			leafDepth = shift / BITS;
+			nodes[0] = root;
+			depth = root == null ? -1 : 0;
+			advance();
+		}
+		
+		@Override
+		public boolean hasNext(){
+			return next != null;
+		}
+		
+		@Override
+		public ImplicitEvent next(){
+			ImplicitEvent current = next;
+			
+			if(current == null){
+				throw new NoSuchElementException();
+			}
+			advance();
+			
+			return current;
+		}
+		
+		@Override
+		public void remove(){
+			throw new UnsupportedOperationException("routing tables can not be modified");
+		}
+		
+		private void advance(){
+			TrieNode node;
+			
+			next = null;
+			while(depth >= 0){
+				node = nodes[depth];
+				if(positions[depth] >= node.array.length){
+					depth--;
+					if(depth >= 0){
+						positions[depth]++;
+					}
+				}else if(depth == leafDepth){
+					next = (ImplicitEvent)node.array[positions[depth]++];
+					return;
+				}else{
+					nodes[depth + 1] = (TrieNode)node.array[positions[depth]];
+					positions[depth + 1] = 0;
+					depth++;
+				}
+			}
+		}
+	}
+}
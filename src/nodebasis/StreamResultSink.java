@@ -0,0 +1,88 @@
+package nodebasis;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The <code>StreamResultSink</code> class writes every result to an
+ * <code>OutputStream</code> as it is received, on the calling thread. With the
+ * <code>TEXT</code> format on <code>System.out</code> this is what the <code>Field</code>
+ * uses unless told otherwise, and prints the results the way the nodes always have.</br>
+ * </br>
+ * Since the results are written during the update of the <code>Field</code>, an
+ * <code>AsyncResultSink</code> should be preferred when there are many results.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see ResultFormat
+ * */
+public class StreamResultSink implements ResultSink{
+	
+	private final DataOutputStream out;
+	private final ResultFormat format;
+	private final boolean autoFlush;
+	private final int[] record;
+	
+	/**
+	 * <p>
+	 * Creates a <code>StreamResultSink</code> object writing to the specified
+	 * stream, in the specified format. The stream is flushed after every
+	 * result if so specified.
+	 * </p>
+	 * @param out the stream to write to.
+	 * @param format the format to write the results in.
+	 * @param autoFlush <code>true</code> to flush the stream after every result.
+	 * @throws java.lang.NullPointerException if either the stream or the format
+	 * is null.
+	 */
+	public StreamResultSink(OutputStream out, ResultFormat format, boolean autoFlush)
+			throws NullPointerException{
+		if(out == null){
+			throw new NullPointerException("out can not be null");
+		}else if(format == null){
+			throw new NullPointerException("format can not be null");
+		}
+		this.out = new DataOutputStream(out);
+		this.format = format;
+		this.autoFlush = autoFlush;
+		record = new int[ResultFormat.RECORD_SIZE];
+	}
+	
+	@Override
+	public synchronized void eventRetrieved(int time, Node node, int timeSent, Event event){
+		ResultFormat.record(record, 0, time, node, timeSent, event);
+		write();
+	}
+	
+	@Override
+	public synchronized void expiredRequestRetrieved(int time, Node node, int eventTime){
+		ResultFormat.record(record, 0, time, node, eventTime, null);
+		write();
+	}
+	
+	@Override
+	public synchronized void flush(){
+		try{
+			out.flush();
+		}catch(IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private void write(){
+		try{
+			format.write(record, 0, out);
+			if(autoFlush){
+				out.flush();
+			}
+		}catch(IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -14,6 +14,7 @@ public class Task{
 	private Object dataObject;
 	private TaskAction action;
 	private int numberOfTries;
+	private boolean isRemoved;
 	
 	/**
 	 * <p>
@@ -32,6 +33,20 @@ public class Task{
 		numberOfTries = 0;
 	}
 	
+	/**
+	 * <p>
+	 * Creates a <code>Task</code> object which has already been attempted the
+	 * specified number of times, e.g. when read from a checkpoint.
+	 * </p>
+	 * @param dataObject the data associated with a task.
+	 * @param action the task to perform.
+	 * @param numberOfTries the number of times the task has been attempted.
+	 */
+	Task(Object dataObject, TaskAction action, int numberOfTries){
+		this(dataObject, action);
+		this.numberOfTries = numberOfTries;
+	}
+	
 	/**
 	 * <p>
 	 * Returns the data associated with the task.
@@ -74,4 +89,20 @@ public class Task{
 		return numberOfTries;
 	}
 	
+	/*
+	 * Helper method.
+	 * 
+	 * Used by the TaskQueue to mark a task which has been taken out of
+	 * the middle of a queue.
+	 * */
+	void setRemoved(boolean isRemoved){
+		this.isRemoved = isRemoved;
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	boolean isRemoved(){
+		return isRemoved;
+	}
 }
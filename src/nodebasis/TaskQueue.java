@@ -0,0 +1,267 @@
+package nodebasis;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * The <code>TaskQueue</code> class holds the tasks of a <code>Node</code>, ordered by
+ * the importance of their actions. There is one first in, first out queue per
+ * <code>TaskAction</code>, so tasks of equal importance are handled in the order they
+ * were added.</br>
+ * </br>
+ * Tasks handling a <code>RequestMessage</code> are also indexed by the originating
+ * node and the id of the sought event, which is what makes two request messages equal.
+ * An equal request message can thereby be found, and replaced, without walking the
+ * queue. A replaced task is only marked as removed, and is skipped once it reaches
+ * the head of its queue.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Task
+ * @see TaskAction
+ * */
+class TaskQueue{
+	
+	private final ArrayDeque<Task>[] queues;
+	private final LongObjectMap<Task> requestIndex;
+	private int size;
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>TaskQueue</code> object.
+	 * </p>
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	TaskQueue(){
+		queues = new ArrayDeque[TaskAction.values().length];
+		for(int i=0; i<queues.length; i++){
+			queues[i] = new ArrayDeque<Task>();
+		}
+		requestIndex = new LongObjectMap<Task>();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of tasks in the queue.
+	 * </p>
+	 * @return the number of tasks.
+	 */
+	int size(){
+		return size;
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the queue is without tasks.
+	 * </p>
+	 * @return <code>true</code> if there are no tasks, <code>false</code> otherwise.
+	 */
+	boolean isEmpty(){
+		return size == 0;
+	}
+	
+	/**
+	 * <p>
+	 * Adds a task to the back of the queue of its action. A task handling a
+	 * <code>RequestMessage</code> is indexed, unless an equal request message
+	 * already is.
+	 * </p>
+	 * @param task the task to add.
+	 */
+	void add(Task task){
+		long key;
+		
+		task.setRemoved(false);
+		queues[task.getAction().getTaskActionImportance()].add(task);
+		if(task.getAction() == TaskAction.HANDLE_REQUESTMESSAGE){
+			key = getKey((RequestMessage)task.getDataObject());
+			if(requestIndex.get(key) == null){
+				requestIndex.put(key, task);
+			}
+		}
+		size++;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the task of the most important action which was added first,
+	 * without removing it.
+	 * </p>
+	 * @return the task, or <code>null</code> if the queue is empty.
+	 */
+	Task peek(){
+		Task task;
+		
+		for(ArrayDeque<Task> queue : queues){
+			task = queue.peek();
+			while(task != null && task.isRemoved()){
+				queue.poll();
+				task = queue.peek();
+			}
+			if(task != null){
+				return task;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * <p>
+	 * Removes and returns the task of the most important action which was
+	 * added first.
+	 * </p>
+	 * @return the task, or <code>null</code> if the queue is empty.
+	 */
+	Task poll(){
+		Task task = peek();
+		
+		if(task != null){
+			queues[task.getAction().getTaskActionImportance()].poll();
+			unindex(task);
+			size--;
+		}
+		
+		return task;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the task handling a request message equal to the specified
+	 * one, if there is such a task in the queue.
+	 * </p>
+	 * @param message the request message.
+	 * @return the task, or <code>null</code>.
+	 */
+	Task getEqualRequest(RequestMessage message){
+		Task task = requestIndex.get(getKey(message));
+		
+		return task != null && message.equals(task.getDataObject()) ? task : null;
+	}
+	
+	/**
+	 * <p>
+	 * Removes a task which is in the queue.
+	 * </p>
+	 * @param task the task to remove.
+	 */
+	void remove(Task task){
+		if(!task.isRemoved()){
+			task.setRemoved(true);
+			unindex(task);
+			size--;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Writes the tasks in the queue to a checkpoint, in the order they are
+	 * handled.
+	 * </p>
+	 * @param out the checkpoint.
+	 * @throws java.io.IOException if the checkpoint couldn't be written.
+	 */
+	void writeCheckpoint(CheckpointOutput out) throws IOException{
+		out.writeInt(size);
+		for(ArrayDeque<Task> queue : queues){
+			for(Task task : queue){
+				if(task.isRemoved()){
+					continue;
+				}
+				out.writeInt(task.getAction().ordinal());
+				out.writeInt(task.getNumberOfTries());
+				switch(task.getAction()){
+				case CREATE_AGENTMESSAGE:
+					out.writeEvent((Event)task.getDataObject());
+					break;
+				case CREATE_REQUESTMESSAGE:
+					out.writeInt((Integer)task.getDataObject());
+					break;
+				case HANDLE_AGENTMESSAGE:
+					((AgentMessage)task.getDataObject()).writeCheckpoint(out);
+					break;
+				case HANDLE_REQUESTMESSAGE:
+					((RequestMessage)task.getDataObject()).writeCheckpoint(out);
+					out.writeBoolean(requestIndex.get(getKey(
+							(RequestMessage)task.getDataObject())) == task);
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Creates a <code>TaskQueue</code> object holding the tasks read from a
+	 * checkpoint, as written by <code>writeCheckpoint</code>. The tasks are
+	 * indexed as they were when the checkpoint was written.
+	 * </p>
+	 * @param in the checkpoint.
+	 * @return the queue.
+	 * @throws java.io.IOException if the checkpoint couldn't be read.
+	 */
+	static TaskQueue readCheckpoint(CheckpointInput in) throws IOException{
+		TaskQueue taskQueue = new TaskQueue();
+		TaskAction[] actions = TaskAction.values();
+		int size = in.readInt();
+		int ordinal;
+		int numberOfTries;
+		Task task;
+		long key;
+		
+		for(int i=0; i<size; i++){
+			ordinal = in.readInt();
+			if(ordinal < 0 || ordinal >= actions.length){
+				throw new IOException("unknown task action in checkpoint: " + ordinal);
+			}
+			numberOfTries = in.readInt();
+			switch(actions[ordinal]){
+			case CREATE_AGENTMESSAGE:
+				task = new Task(in.readEvent(), actions[ordinal], numberOfTries);
+				break;
+			case CREATE_REQUESTMESSAGE:
+				task = new Task(in.readInt(), actions[ordinal], numberOfTries);
+				break;
+			case HANDLE_AGENTMESSAGE:
+				task = new Task(new AgentMessage(in), actions[ordinal], numberOfTries);
+				break;
+			default:
+				task = new Task(new RequestMessage(in), actions[ordinal], numberOfTries);
+				break;
+			}
+			taskQueue.add(task);
+			if(task.getAction() == TaskAction.HANDLE_REQUESTMESSAGE && !in.readBoolean()){
+				key = getKey((RequestMessage)task.getDataObject());
+				if(taskQueue.requestIndex.get(key) == task){
+					taskQueue.requestIndex.remove(key);
+				}
+			}
+		}
+		return taskQueue;
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private void unindex(Task task){
+		long key;
+		
+		if(task.getAction() == TaskAction.HANDLE_REQUESTMESSAGE){
+			key = getKey((RequestMessage)task.getDataObject());
+			if(requestIndex.get(key) == task){
+				requestIndex.remove(key);
+			}
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * The originating node is taken by its serial number rather than its
+	 * index, since the index is handed on to another node when a node is
+	 * removed from the node network, while the tasks stay indexed.
+	 * */
+	private static long getKey(RequestMessage message){
+		return ((long)message.getOriginSerial() << 32) | (message.getAddressedTo() & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,341 @@
+package surrounding;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import nodebasis.Node;
+
+/**
+ * The <code>ActorEngine</code> class carries out the updates of the active nodes, and
+ * the delivery of the messages they send, for the <code>Field</code>, with every node
+ * acting on a thread of its own. Rather than being driven by a loop over the active
+ * nodes, each node has an actor which is parked until it is handed something to do.
+ * The calling thread wakes the actors for each of the following phases in turn, and
+ * waits until the last of them is done before moving on to the next:
+ * <ul>
+ * 		<li>update: the actors of the active nodes update their nodes, and post every
+ * 			message sent to the mailbox of its receiving node (see
+ * 			<code>Node.postMessage</code>). The actor posting the first message to a
+ * 			node remembers that node.</li>
+ * 		<li>delivery: the actors of the active nodes, and of the nodes which have been
+ * 			posted to, empty the mailboxes of their nodes.</li>
+ * 		<li>return: the same actors return the messages their nodes sent which weren't
+ * 			accepted.</li>
+ * </ul>
+ * Lastly the results are handed over to the result sink node by node, and the set of
+ * active nodes brought up to date, on the calling thread. Since every node is handed its
+ * messages in the order of the indices of their senders, the outcome of an update is the
+ * same as with the <code>TileEngine</code>.</br>
+ * </br>
+ * The actors run on virtual threads, so an actor whose node has nothing to do costs no
+ * more than a parked continuation. The engine therefore needs a Java runtime which has
+ * virtual threads (see <code>isSupported()</code>). An actor is only started once its
+ * node is first given something to do. Only the calling thread decides which actors
+ * take part in a phase, so no actor has to join a phase which may already be over.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field#setActorExecution(boolean)
+ * @see TileEngine
+ * */
+class ActorEngine{
+	
+	private static final int UPDATE = 0;
+	private static final int DELIVERY = 1;
+	private static final int RETURN = 2;
+	private static final ThreadFactory THREAD_FACTORY = createThreadFactory();
+	
+	private final NodeStore store;
+	private final Node[] nodes;
+	private final Actor[] actors;
+	private final AtomicInteger pending;
+	private int[] participants;
+	private int numberOfParticipants;
+	private Thread caller;
+	private volatile boolean running;
+	private volatile boolean shutDown;
+	private volatile RuntimeException failure;
+	private int tick;
+	
+	/**
+	 * <p>
+	 * Creates an <code>ActorEngine</code> object for the nodes of the specified
+	 * store. No actor is started until its node is first given something to do.
+	 * </p>
+	 * @param store the node store.
+	 */
+	ActorEngine(NodeStore store){
+		this.store = store;
+		nodes = store.getNodes();
+		actors = new Actor[nodes.length];
+		pending = new AtomicInteger();
+		participants = new int[0];
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether an update is under way, during which the nodes must not
+	 * be made active by <code>Field.activateNode</code>. The engine brings the set
+	 * of active nodes up to date itself once the update is over.
+	 * </p>
+	 * @return <code>true</code> if an update is under way.
+	 */
+	boolean isRunning(){
+		return running;
+	}
+	
+	/**
+	 * <p>
+	 * Updates the specified active nodes and delivers the messages they send,
+	 * and then brings the set of active nodes up to date.
+	 * </p>
+	 * @param activeIndices the indices of the active nodes, in ascending order.
+	 * @param numberOfActiveNodes the number of active nodes.
+	 * @param activeNodes the set of active nodes, one bit per node.
+	 * @throws java.lang.IllegalStateException if the engine has been shut down.
+	 */
+	void update(int[] activeIndices, int numberOfActiveNodes, long[] activeNodes)
+			throws IllegalStateException{
+		Actor actor;
+		RuntimeException tickFailure;
+		
+		if(shutDown){
+			throw new IllegalStateException("actor engine has been shut down");
+		}
+		tick++;
+		caller = Thread.currentThread();
+		running = true;
+		if(participants.length < numberOfActiveNodes){
+			participants = new int[Math.max(numberOfActiveNodes, participants.length * 2)];
+		}
+		numberOfParticipants = 0;
+		for(int i=0; i<numberOfActiveNodes; i++){
+			enlist(activeIndices[i], true);
+		}
+		runPhase(UPDATE);
+		for(int i=0; i<numberOfActiveNodes; i++){
+			actor = actors[activeIndices[i]];
+			for(int j=0; j<actor.numberOfWoken; j++){
+				if(getActor(actor.woken[j]).tick != tick){
+					enlist(actor.woken[j], false);
+				}
+			}
+		}
+		runPhase(DELIVERY);
+		runPhase(RETURN);
+		running = false;
+		
+		tickFailure = failure;
+		if(tickFailure != null){
+			failure = null;
+			throw tickFailure;
+		}
+		for(int i=0; i<numberOfActiveNodes; i++){
+			nodes[activeIndices[i]].publishResults();
+		}
+		for(int i=0; i<numberOfActiveNodes; i++){
+			actor = actors[activeIndices[i]];
+			for(int j=0; j<actor.numberOfWoken; j++){
+				if(store.hasPendingWork(actor.woken[j])){
+					activeNodes[actor.woken[j] >>> 6] |= 1L << actor.woken[j];
+				}
+			}
+			if(!store.hasPendingWork(activeIndices[i])){
+				activeNodes[activeIndices[i] >>> 6] &= ~(1L << activeIndices[i]);
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Stops every actor. The engine can't be used afterwards.
+	 * </p>
+	 */
+	void shutDown(){
+		shutDown = true;
+		for(Actor actor : actors){
+			if(actor != null){
+				LockSupport.unpark(actor.thread);
+			}
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Makes the actor of the node with the specified index take part in the
+	 * current update.
+	 * */
+	private void enlist(int index, boolean updating){
+		Actor actor = getActor(index);
+		
+		actor.tick = tick;
+		actor.updating = updating;
+		actor.numberOfWoken = 0;
+		if(numberOfParticipants == participants.length){
+			participants = Arrays.copyOf(participants, Math.max(4, participants.length * 2));
+		}
+		participants[numberOfParticipants++] = index;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Wakes every actor taking part in the current update for the specified
+	 * phase, and waits until the last of them is done.
+	 * */
+	private void runPhase(int phase){
+		pending.set(numberOfParticipants);
+		for(int i=0; i<numberOfParticipants; i++){
+			actors[participants[i]].wake(phase);
+		}
+		while(pending.get() != 0){
+			LockSupport.park(this);
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns the actor of the node with the specified index, starting it if
+	 * it hasn't been started. Only called by the thread of the engine.
+	 * */
+	private Actor getActor(int index){
+		if(actors[index] == null){
+			actors[index] = new Actor(index);
+			actors[index].thread.start();
+		}
+		return actors[index];
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Keeps the first failure of an actor, to be thrown once the update is over.
+	 * */
+	private synchronized void fail(RuntimeException e){
+		if(failure == null){
+			failure = e;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the Java runtime has virtual threads (Java 21 onwards),
+	 * which the engine runs the actors on.
+	 * </p>
+	 * @return <code>true</code> if the engine can be used.
+	 */
+	static boolean isSupported(){
+		return THREAD_FACTORY != null;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns a factory of virtual threads, or null if the Java runtime has no
+	 * virtual threads. Virtual threads are looked up by reflection, so the
+	 * sources still compile for older Java versions.
+	 * */
+	private static ThreadFactory createThreadFactory(){
+		Object builder;
+		
+		try{
+			builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			return (ThreadFactory)Class.forName("java.lang.Thread$Builder")
+					.getMethod("factory").invoke(builder);
+		}catch(ReflectiveOperationException | RuntimeException e){
+			return null;
+		}
+	}
+	
+	/*
+	 * The actor of a node. It is parked until it is woken for a phase of an
+	 * update, carries the phase out, and is parked again.
+	 * */
+	private final class Actor implements Runnable{
+		
+		private final int index;
+		private final Thread thread;
+		private volatile boolean awake;
+		private int phase;
+		private int tick;
+		private boolean updating;
+		private int[] woken;
+		private int numberOfWoken;
+		
+		private Actor(int index){
+			this.index = index;
+			thread = THREAD_FACTORY.newThread(this);
+			woken = new int[0];
+		}
+		
+		private void wake(int phase){
+			this.phase = phase;
+			awake = true;
+			LockSupport.unpark(thread);
+		}
+		
+		@Override
+		public void run(){
+			while(true){
+				while(!awake){
+					if(shutDown){
+						return;
+					}
+					LockSupport.park(this);
+				}
+				awake = false;
+				try{
+					act(phase);
+				}catch(RuntimeException e){
+					fail(e);
+				}
+				if(pending.decrementAndGet() == 0){
+					LockSupport.unpark(caller);
+				}
+			}
+		}
+		
+		/*
+		 * Carries out the specified phase for the node of the actor.
+		 * */
+		private void act(int phase){
+			Node node = nodes[index];
+			
+			switch(phase){
+			case UPDATE:
+				if(updating){
+					node.update();
+					for(int message=0; message<node.getNumberOfSentMessages(); message++){
+						if(node.postMessage(message)){
+							wakeReceiver(node.getReceiverOfMessage(message).getIndex());
+						}
+					}
+				}
+				break;
+			case DELIVERY:
+				node.drainMailbox();
+				break;
+			default:
+				node.returnUndeliveredMessages();
+				break;
+			}
+		}
+		
+		/*
+		 * Remembers a node which has been posted to, for its actor to take part
+		 * in the rest of the update, and for the set of active nodes to be
+		 * brought up to date.
+		 * */
+		private void wakeReceiver(int receiver){
+			if(numberOfWoken == woken.length){
+				woken = Arrays.copyOf(woken, Math.max(4, woken.length * 2));
+			}
+			woken[numberOfWoken++] = receiver;
+		}
+	}
+}
@@ -0,0 +1,395 @@
+package surrounding;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import nodebasis.Node;
+import coordination.Position;
+
+/**
+ * The <code>BinaryNodeNetworkGenerator</code> reads a node network from a file in a
+ * compact binary format, which is memory mapped rather than read and parsed line by line.
+ * The nodes are created straight from the mapped file, split across the threads of the
+ * common <code>ForkJoinPool</code>. A file in the text format of the
+ * <code>FileNodeNetworkGenerator</code> is turned into the binary format by
+ * <code>convert</code>.</br>
+ * </br>
+ * The file may also hold the neighbours of every node, found when the file was written.
+ * The neighbours are then handed to the nodes as they are created, and the node network
+ * can be loaded without the <code>Field</code> searching for them again:
+ * <pre>
+ * field.loadNodeNetwork(generator.generate(), !generator.hasNeighbours());
+ * </pre>
+ * The format, with every number big-endian:
+ * <ul>
+ * 		<li>a header of 24 bytes: the magic number <code>0x424E4E31</code>, the flags
+ * 			(1 if the neighbours are included), the number of nodes, 4 unused bytes, and
+ * 			the total number of neighbours as a <code>long</code>,</li>
+ * 		<li>the nodes, 20 bytes each: x, y, signal strength, agent life and request life,</li>
+ * 		<li>if included, the index of the first neighbour of every node followed by the
+ * 			total number of neighbours, one <code>int</code> per node plus one,</li>
+ * 		<li>and the indices of the neighbours of every node, one <code>int</code> each.</li>
+ * </ul>
+ * The nodes are indexed in the order they are written.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see FileNodeNetworkGenerator
+ * */
+public class BinaryNodeNetworkGenerator implements NodeNetworkGenerator{
+	
+	/**
+	 * The magic number the format starts with, "BNN1".
+	 */
+	public static final int MAGIC = 0x424E4E31;
+	
+	private static final int FLAG_NEIGHBOURS = 1;
+	private static final int HEADER_SIZE = 24;
+	private static final int NODE_SIZE = 20;
+	
+	private final Path path;
+	private final Field field;
+	private HashMap<Position, Node> map;
+	private boolean hasNeighbours;
+	private Exception e;
+	
+	/**
+	 * <p>
+	 * Creates a <code>BinaryNodeNetworkGenerator</code> object reading the node
+	 * network from the specified file.
+	 * </p>
+	 * @param path the file holding the node network.
+	 * @param field the <code>Field</code>.
+	 */
+	public BinaryNodeNetworkGenerator(Path path, Field field){
+		this.path = path;
+		this.field = field;
+	}
+	
+	/**
+	 * <p>
+	 * Reads the node network and returns it in a <code>HashMap</code>. If the file
+	 * holds the neighbours of the nodes, the nodes are given their neighbours. The
+	 * node network is only read once, later calls return the same map.</br>
+	 * </br>
+	 * Since the neighbours are given as indices of nodes in the file, a file in which
+	 * several nodes share a position isn't read, rather than dropping all but one of
+	 * them and leaving their neighbours pointing at a node not in the node network.
+	 * </p>
+	 * @return the node network, or <code>null</code> if it couldn't be read, or if
+	 * several nodes share a position (see <code>getException()</code>).
+	 */
+	@Override
+	public HashMap<Position, Node> generate(){
+		ByteBuffer header;
+		ByteBuffer nodeBuffer;
+		ByteBuffer offsetBuffer;
+		ByteBuffer neighbourBuffer;
+		Node[] nodes;
+		HashMap<Position, Node> nodeMap;
+		int numberOfNodes;
+		long numberOfNeighbours;
+		
+		if(map != null){
+			return map;
+		}
+		e = null;
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+			header = map(channel, 0, HEADER_SIZE);
+			numberOfNodes = header.getInt(8);
+			numberOfNeighbours = header.getLong(16);
+			if(header.getInt(0) != MAGIC){
+				throw new IOException("not a binary node network file");
+			}else if(numberOfNodes < 0 || numberOfNeighbours < 0){
+				throw new IOException("corrupt binary node network file");
+			}
+			
+			nodes = new Node[numberOfNodes];
+			nodeBuffer = map(channel, HEADER_SIZE, (long)numberOfNodes * NODE_SIZE);
+			ForkJoinPool.commonPool().invoke(new ReadNodesAction(nodeBuffer, nodes,
+					0, numberOfNodes));
+			
+			hasNeighbours = (header.getInt(4) & FLAG_NEIGHBOURS) != 0;
+			if(hasNeighbours){
+				offsetBuffer = map(channel, HEADER_SIZE + (long)numberOfNodes * NODE_SIZE,
+						4L * (numberOfNodes + 1));
+				neighbourBuffer = map(channel, HEADER_SIZE + (long)numberOfNodes * NODE_SIZE
+						+ 4L * (numberOfNodes + 1), 4L * numberOfNeighbours);
+				ForkJoinPool.commonPool().invoke(new ReadNeighboursAction(offsetBuffer,
+						neighbourBuffer, nodes, 0, numberOfNodes));
+			}
+			
+			nodeMap = new HashMap<Position, Node>(Math.max(16, (int)(numberOfNodes / 0.75f) + 1));
+			for(Node node : nodes){
+				if(nodeMap.put(node.getPosition(), node) != null){
+					throw new IOException("several nodes at " + node.getPosition().getX()
+							+ ";" + node.getPosition().getY());
+				}
+			}
+			map = nodeMap;
+			return map;
+		}catch(IOException | RuntimeException e){
+			this.e = e;
+			return null;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the file holds the neighbours of the nodes, in which case
+	 * the nodes have been given their neighbours by <code>generate()</code>.
+	 * </p>
+	 * @return <code>true</code> if the neighbours are included, <code>false</code>
+	 * otherwise, or if the node network hasn't been read.
+	 */
+	public boolean hasNeighbours(){
+		return hasNeighbours;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the exception which stopped the latest read, if any.
+	 * </p>
+	 * @return the exception, or <code>null</code>.
+	 */
+	public Exception getException(){
+		return e;
+	}
+	
+	/**
+	 * <p>
+	 * Reads a node network in the text format of the <code>FileNodeNetworkGenerator</code>,
+	 * i.e. one <code>x;y;r;A;R</code> line per node, and writes it to the specified file
+	 * in the binary format. Should several nodes share a position, the last of them is kept.
+	 * The neighbours of every node are found and included if so specified.
+	 * </p>
+	 * @param reader the node network in the text format.
+	 * @param path the file to write.
+	 * @param includeNeighbours <code>true</code> to include the neighbours of the nodes.
+	 * @throws java.io.IOException if the node network couldn't be read or written, or
+	 * if a line doesn't hold five numbers.
+	 */
+	public static void convert(Reader reader, Path path, boolean includeNeighbours)
+			throws IOException{
+		Map<Position, int[]> nodeMap = new LinkedHashMap<Position, int[]>();
+		BufferedReader bufferedReader = new BufferedReader(reader);
+		Field field = new Field(1, -1, -1, 1, 0);
+		Node[] nodes;
+		int[] offsets;
+		int[] neighbours;
+		int numberOfNeighbours;
+		String line;
+		String[] attributes;
+		int[] values;
+		int i;
+		
+		while((line = bufferedReader.readLine()) != null){
+			attributes = line.split(";");
+			if(attributes.length != 5){
+				throw new IOException("too many or too few attributes"
+						+ " for node(s) in node network specification.");
+			}
+			values = new int[5];
+			try{
+				for(i=0; i<values.length; i++){
+					values[i] = Integer.parseInt(attributes[i]);
+				}
+				nodeMap.remove(new Position(values[0], values[1]));
+				nodeMap.put(new Position(values[0], values[1]), values);
+			}catch(IllegalArgumentException e){
+				throw new IOException("illegal attribute(s) in line: " + line, e);
+			}
+		}
+		
+		nodes = new Node[nodeMap.size()];
+		i = 0;
+		for(Map.Entry<Position, int[]> entry : nodeMap.entrySet()){
+			values = entry.getValue();
+			try{
+				nodes[i] = new Node(field, entry.getKey(), values[2], values[3], values[4]);
+			}catch(IllegalArgumentException e){
+				throw new IOException("illegal node at " + values[0] + ";" + values[1], e);
+			}
+			nodes[i].setIndex(i);
+			i++;
+		}
+		
+		offsets = new int[nodes.length + 1];
+		neighbours = new int[0];
+		numberOfNeighbours = 0;
+		if(includeNeighbours){
+			SpatialGrid spatialGrid = new SpatialGrid(new NodeStore(nodes));
+			neighbours = new int[Math.max(16, nodes.length * 8)];
+			for(i=0; i<nodes.length; i++){
+				offsets[i] = numberOfNeighbours;
+				for(Node neighbour : spatialGrid.getNodesWithinRangeofNode(nodes[i])){
+					if(numberOfNeighbours == neighbours.length){
+						if(neighbours.length == Integer.MAX_VALUE){
+							throw new IOException("too many neighbours");
+						}
+						neighbours = Arrays.copyOf(neighbours,
+								(int)Math.min(Integer.MAX_VALUE, 2L * neighbours.length));
+					}
+					neighbours[numberOfNeighbours++] = neighbour.getIndex();
+				}
+			}
+		}
+		offsets[nodes.length] = numberOfNeighbours;
+		
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(path), 1 << 16))){
+			out.writeInt(MAGIC);
+			out.writeInt(includeNeighbours ? FLAG_NEIGHBOURS : 0);
+			out.writeInt(nodes.length);
+			out.writeInt(0);
+			out.writeLong(numberOfNeighbours);
+			for(Node node : nodes){
+				out.writeInt(node.getPosition().getX());
+				out.writeInt(node.getPosition().getY());
+				out.writeInt(node.getSignalStrength());
+				values = nodeMap.get(node.getPosition());
+				out.writeInt(values[3]);
+				out.writeInt(values[4]);
+			}
+			if(includeNeighbours){
+				for(int offset : offsets){
+					out.writeInt(offset);
+				}
+				for(i=0; i<numberOfNeighbours; i++){
+					out.writeInt(neighbours[i]);
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Maps the specified section of the file. A single mapping can't be
+	 * larger than 2 GB.
+	 * */
+	private static ByteBuffer map(FileChannel channel, long position, long size)
+			throws IOException{
+		if(size > Integer.MAX_VALUE){
+			throw new IOException("section of binary node network file too large");
+		}else if(position + size > channel.size()){
+			throw new IOException("binary node network file is truncated");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+	}
+	
+	/*
+	 * Creates the nodes of a range of the mapped file, splitting the range in
+	 * halves to be read in parallel until the ranges are small enough.
+	 * */
+	private final class ReadNodesAction extends RecursiveAction{
+		
+		private static final long serialVersionUID = 1L;
+		private static final int THRESHOLD = 1 << 14;
+		
+		private final ByteBuffer buffer;
+		private final Node[] nodes;
+		private final int from;
+		private final int to;
+		
+		private ReadNodesAction(ByteBuffer buffer, Node[] nodes, int from, int to){
+			this.buffer = buffer;
+			this.nodes = nodes;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute(){
+			ByteBuffer view;
+			int offset;
+			int middle;
+			
+			if(to - from <= THRESHOLD){
+				view = buffer.duplicate();
+				for(int i=from; i<to; i++){
+					offset = i * NODE_SIZE;
+					nodes[i] = new Node(field, new Position(view.getInt(offset),
+							view.getInt(offset + 4)), view.getInt(offset + 8),
+							view.getInt(offset + 12), view.getInt(offset + 16));
+				}
+			}else{
+				middle = (from + to) >>> 1;
+				invokeAll(new ReadNodesAction(buffer, nodes, from, middle),
+						new ReadNodesAction(buffer, nodes, middle, to));
+			}
+		}
+	}
+	
+	/*
+	 * Gives the nodes of a range their neighbours, splitting the range in
+	 * halves to be read in parallel until the ranges are small enough.
+	 * */
+	private static final class ReadNeighboursAction extends RecursiveAction{
+		
+		private static final long serialVersionUID = 1L;
+		private static final int THRESHOLD = 1 << 14;
+		
+		private final ByteBuffer offsetBuffer;
+		private final ByteBuffer neighbourBuffer;
+		private final Node[] nodes;
+		private final int from;
+		private final int to;
+		
+		private ReadNeighboursAction(ByteBuffer offsetBuffer, ByteBuffer neighbourBuffer,
+				Node[] nodes, int from, int to){
+			this.offsetBuffer = offsetBuffer;
+			this.neighbourBuffer = neighbourBuffer;
+			this.nodes = nodes;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute(){
+			ByteBuffer offsets;
+			ByteBuffer neighbours;
+			List<Node> list;
+			int first;
+			int last;
+			int middle;
+			
+			if(to - from <= THRESHOLD){
+				offsets = offsetBuffer.duplicate();
+				neighbours = neighbourBuffer.duplicate();
+				for(int i=from; i<to; i++){
+					first = offsets.getInt(4 * i);
+					last = offsets.getInt(4 * (i + 1));
+					list = new ArrayList<Node>(last - first);
+					for(int j=first; j<last; j++){
+						list.add(nodes[neighbours.getInt(4 * j)]);
+					}
+					nodes[i].setNeighbours(list);
+				}
+			}else{
+				middle = (from + to) >>> 1;
+				invokeAll(new ReadNeighboursAction(offsetBuffer, neighbourBuffer, nodes,
+						from, middle),
+						new ReadNeighboursAction(offsetBuffer, neighbourBuffer, nodes,
+						middle, to));
+			}
+		}
+	}
+}
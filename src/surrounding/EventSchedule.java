@@ -0,0 +1,110 @@
+package surrounding;
+
+import java.util.Arrays;
+
+/**
+ * The <code>EventSchedule</code> class holds the time of the next event of every
+ * node, so the <code>Field</code> only has to look at the nodes where an event is
+ * due instead of drawing a random number for every node during every update.</br>
+ * </br>
+ * The schedule is a binary heap of primitive <code>long</code>s, each holding a
+ * time in its upper half and the index of a node in its lower half. Nodes with
+ * events at the same time are therefore taken in order of their indices.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field
+ * */
+class EventSchedule{
+	
+	private long[] heap;
+	private int size;
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>EventSchedule</code> object, with room for
+	 * the specified number of nodes.
+	 * </p>
+	 * @param capacity the number of nodes.
+	 */
+	EventSchedule(int capacity){
+		heap = new long[Math.max(1, capacity)];
+	}
+	
+	/**
+	 * <p>
+	 * Schedules an event at the specified node.
+	 * </p>
+	 * @param time the time of the event, which can't be negative.
+	 * @param index the index of the node.
+	 */
+	void schedule(int time, int index){
+		long key = ((long)time << 32) | index;
+		int child = size++;
+		int parent;
+		
+		if(child == heap.length){
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		while(child > 0){
+			parent = (child - 1) >>> 1;
+			if(heap[parent] <= key){
+				break;
+			}
+			heap[child] = heap[parent];
+			child = parent;
+		}
+		heap[child] = key;
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether there is an event scheduled at or before the specified time.
+	 * </p>
+	 * @param time the time.
+	 * @return <code>true</code> if there is an event due, <code>false</code> otherwise.
+	 */
+	boolean hasEventAt(int time){
+		return size > 0 && (int)(heap[0] >>> 32) <= time;
+	}
+	
+	/**
+	 * <p>
+	 * Removes the earliest event from the schedule, and returns the index of
+	 * its node.
+	 * </p>
+	 * @return the index of the node.
+	 */
+	int next(){
+		int index = (int)heap[0];
+		long key = heap[--size];
+		int parent = 0;
+		int child;
+		
+		while((child = 2 * parent + 1) < size){
+			if(child + 1 < size && heap[child + 1] < heap[child]){
+				child++;
+			}
+			if(key <= heap[child]){
+				break;
+			}
+			heap[parent] = heap[child];
+			parent = child;
+		}
+		heap[parent] = key;
+		
+		return index;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the scheduled events, in no particular order, each as a time in
+	 * its upper half and the index of a node in its lower half.
+	 * </p>
+	 * @return a new array holding the scheduled events.
+	 */
+	long[] toArray(){
+		return Arrays.copyOf(heap, size);
+	}
+}
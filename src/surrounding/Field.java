@@ -1,17 +1,32 @@
 package surrounding;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 import coordination.Position;
+import nodebasis.CheckpointInput;
+import nodebasis.CheckpointOutput;
 import nodebasis.Event;
+import nodebasis.EvictionPolicy;
 import nodebasis.Message;
 import nodebasis.Node;
+import nodebasis.ResultFormat;
+import nodebasis.ResultSink;
+import nodebasis.StreamResultSink;
 
 /**
  * The <code>Field</code> class holds the node network. It is its 
@@ -20,7 +35,41 @@ import nodebasis.Node;
  * which initially determines which nodes are supposed to create messages and when.</br>
  * </br>
  * The class allows for some multi-threading. See each specific method for
- * further details.
+ * further details.</br>
+ * </br>
+ * Each update is done in phases. First every node is updated, during which
+ * any sent messages are held by their senders. Then the messages are delivered, and
+ * lastly the messages which weren't accepted are returned to their senders. Since each
+ * phase only modifies one node at a time, the nodes can be split into tiles worked on
+ * by several threads (see <code>setNumberOfThreads</code>), which yields the same
+ * result no matter how many threads are used.</br>
+ * </br>
+ * All random decisions are drawn from a seeded random number generator. Each node
+ * is given its own stream, split from the generator when the node network is loaded,
+ * and every decision concerning a node is drawn from the stream of that node. Two
+ * simulations with the same seed and node network therefore give the same result.</br>
+ * </br>
+ * By default the nodes remember every event forever. Long simulations should limit
+ * how long events live (see <code>setEventTimeToLive</code>) and how many events each
+ * node keeps directions to (see <code>setRoutingTableCapacity</code>), which keeps
+ * the memory used by each node bounded.</br>
+ * </br>
+ * The state of a simulation can be written to a checkpoint between two updates, and
+ * a <code>Field</code> with the same arguments and node network can be restored from
+ * it and carry on as if it had been running all along (see <code>writeCheckpoint</code>).</br>
+ * </br>
+ * A simulation can also be distributed over several processes, each holding and
+ * updating only the nodes of its own region, together with a halo of the nodes of
+ * other regions within range of them (see <code>distribute</code>).</br>
+ * </br>
+ * Instead of being updated tile by tile, the nodes can act on threads of their own,
+ * parked while they have nothing to do (see <code>setActorExecution</code>).</br>
+ * </br>
+ * Nodes may join and leave a loaded node network between two updates, and change their
+ * signal strengths (see <code>addNode</code>, <code>removeNode</code> and
+ * <code>setSignalStrength</code>). Only the neighbours of the nodes concerned are
+ * brought up to date, through the spatial grid, so a change costs as much as the
+ * neighbourhood of the node rather than the size of the network.
  * 
  * @author  Alexander Beliaev, Nils Sundberg
  * @version 1.0
@@ -28,23 +77,56 @@ import nodebasis.Node;
  * */
 public class Field{
 	
+	public static final int NO_LIMIT = 0;
+	
+	private static final int CHECKPOINT_MAGIC = 0x53494D43;
+	private static final int CHECKPOINT_VERSION = 2;
+	
 	private final int updateLimit;
 	private final int eventChanceRange;
 	private final int agentChanceRange;
 	private final int requestIntervalRange;
 	private final int numberOfRequestNodes;
-	private final Random random;
+	private final long seed;
+	private SplitMix64 random;
 	private final boolean enableAgentCreation;
 	private final boolean enableEventCreation;
 	private final boolean enableRequestCreation;
 	
-	private HashMap<Position, Node> nodeMap;
-	private List<Node> requestNodesList;
+	private LongIntMap nodeIndices;
+	private NodeStore nodeStore;
+	private Node[] nodeArray;
+	private int numberOfNodes;
+	private SplitMix64[] randomArray;
+	private SpatialGrid spatialGrid;
+	private boolean spatialNodeOrder;
+	private int[] requestNodeIndices;
+	private EventSchedule eventSchedule;
+	private int[] nextEventTimes;
+	private long[] activeNodes;
+	private int[] activeIndices;
+	private int numberOfActiveNodes;
+	private int numberOfUpdatedNodes;
 	private boolean recentlyChangedNodeNetwork;
 	private volatile int currentTime;
 	private int eventId;
 	private volatile boolean hasLoadedNodeNetwork;
 	private volatile boolean simulationIsRunning;
+	private int numberOfThreads;
+	private volatile int eventTimeToLive;
+	private volatile int routingTableCapacity;
+	private volatile EvictionPolicy evictionPolicy;
+	private volatile ResultSink resultSink;
+	private final SimulationMetrics metrics = new SimulationMetrics();
+	private ForkJoinPool forkJoinPool;
+	private TileEngine tileEngine;
+	private ActorEngine actorEngine;
+	private boolean actorExecution;
+	private RegionLink regionLink;
+	private int region;
+	private int[] dueEvents;
+	private int checkpointInterval;
+	private Path checkpointPath;
 	
 	/**
 	 * <p>
@@ -85,6 +167,29 @@ public class Field{
 	public Field(int updateLimit, int eventChanceRange, 
 			int agentChanceRange, int requestIntervalRange,
 			int numberOfRequestNodes) throws IllegalArgumentException{
+		this(updateLimit, eventChanceRange, agentChanceRange, requestIntervalRange,
+				numberOfRequestNodes, new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * <p>
+	 * Creates a <code>Field</code> object as described by the constructor without a seed,
+	 * where all random decisions are drawn from a generator with the given seed. Two
+	 * <code>Field</code> objects with the same arguments and the same node network
+	 * give the same simulation.
+	 * </p>
+	 * @param updateLimit the amount of updates the simulation should run.
+	 * @param eventChanceRange the request chance range.
+	 * @param agentChanceRange the agent chance range.
+	 * @param requestIntervalRange the number of updates between request message creations.
+	 * @param numberOfRequestNodes number of request nodes.
+	 * @param seed the seed of the random number generator.
+	 * @throws java.lang.IllegalArgumentException if either of the given arguments 
+	 * don't follow the rules of the constructor without a seed.
+	 */
+	public Field(int updateLimit, int eventChanceRange, 
+			int agentChanceRange, int requestIntervalRange,
+			int numberOfRequestNodes, long seed) throws IllegalArgumentException{
 		if(eventChanceRange == -1){
 			if(agentChanceRange == -1){
 				enableEventCreation = enableAgentCreation = false;
@@ -116,33 +221,71 @@ public class Field{
 			this.requestIntervalRange = requestIntervalRange;
 			this.numberOfRequestNodes = numberOfRequestNodes;
 			
-			random = new Random();
-			nodeMap = new HashMap<Position, Node>();
-			requestNodesList = new ArrayList<Node>(numberOfRequestNodes);
+			this.seed = seed;
+			random = new SplitMix64(seed);
+			nodeIndices = new LongIntMap();
+			nodeStore = new NodeStore(new Node[0]);
+			nodeArray = new Node[0];
+			numberOfNodes = 0;
+			randomArray = new SplitMix64[0];
+			requestNodeIndices = new int[0];
+			eventSchedule = new EventSchedule(0);
+			nextEventTimes = new int[0];
+			activeNodes = new long[0];
+			activeIndices = new int[0];
 			setRecentlyChangedNodeNetwork(false);
 			setCurrentTime(0);
 			hasLoadedNodeNetwork = false;
 			eventId = 0;
 			simulationIsRunning = false;
+			numberOfThreads = 1;
+			eventTimeToLive = NO_LIMIT;
+			routingTableCapacity = NO_LIMIT;
+			evictionPolicy = EvictionPolicy.OLDEST_EVENT_FIRST;
+			resultSink = new StreamResultSink(System.out, ResultFormat.TEXT, true);
+			forkJoinPool = null;
+			tileEngine = null;
+			actorEngine = null;
+			actorExecution = false;
+			regionLink = null;
+			region = 0;
+			dueEvents = new int[0];
+			spatialNodeOrder = true;
+			checkpointInterval = NO_LIMIT;
+			checkpointPath = null;
 		}
 	}
 	
 	/**
 	 * <p>
-	 * Updates all nodes in the node network by calling all of their subsequent update methods.
-	 * This method does this indiscriminately, meaning that it is up to each individual node
-	 * to decide if it should update or not. This method also decides when and where events
+	 * Updates the active nodes in the node network by calling all of their subsequent update
+	 * methods. A node is active while it has something to do (see <code>Node.hasPendingWork()</code>),
+	 * and the nodes without anything to do are skipped, so the cost of an update follows the
+	 * traffic in the network rather than its size. The active nodes are gone through in the
+	 * order of their indices, i.e. in spatial order unless told otherwise, and an active node
+	 * which would be left as it is by the update, e.g. one waiting for its events to expire,
+	 * is told apart by the node store alone and skipped as well (see <code>NodeStore</code>).
+	 * It is up to each updated node to decide
+	 * if it should update or not. This method also decides when and where events
 	 * should spawn, and if an agent message should follow; and where and when the requests should
 	 * be generated and sent.</br>
 	 * </br>
-	 * When each node has been updated, all the nodes will be iterated over again to reset these
-	 * to "ready", meaning they are ready to be updated again.
+	 * Rather than drawing whether an event occurs at every node during every update, the
+	 * time of the next event at each node is drawn in advance, from the geometric distribution
+	 * the per-update chance gives. Only the nodes where an event is due are looked at.</br>
+	 * </br>
+	 * When each node has been updated, the messages sent during the update are delivered,
+	 * every node being handed its messages in the order of the indices of their senders.
+	 * A node which accepts a message is busy until the current time has moved on, hence
+	 * no node has to be reset after the update. Once every message has been delivered, the
+	 * messages which weren't accepted are returned to their senders, and the nodes left
+	 * without anything to do are no longer active (see <code>TileEngine</code>).
 	 * </p>
 	 */
 	public synchronized void update(){
-		Iterator<Entry<Position, Node>> iterator = nodeMap.entrySet().iterator();
-		Node tempNode;
 		Event event;
+		int eventIndex;
+		int numberOfTiles = forkJoinPool == null ? 1 : numberOfThreads;
 		
 		/*if(this.getCurrentTime() % 250 == 0){
 			System.out.println(this.getCurrentTime() + ": running...");
@@ -150,58 +293,222 @@ public class Field{
 		
 		if(updateLimit >= getCurrentTime() && simulationIsRunning){
 			if(shouldGenerateNewRequests()){
-				for(Node node : requestNodesList){
-					node.generateNewTask(random.nextInt(eventId));
+				for(int index : requestNodeIndices){
+					nodeArray[index].generateNewTask(randomArray[index].nextInt(eventId) + 1);
 				}
 			}
-			while (iterator.hasNext()) {
-				tempNode = iterator.next().getValue();
-				if(shouldGenerateNewEvent()){
-					event = tempNode.generateNewEvent(newEventId());
-					if(shouldGenerateNewAgentMsg()){
-						tempNode.generateNewTask(event);
+			if(regionLink == null){
+				while((eventIndex = nextDueEvent()) != -1){
+					event = nodeArray[eventIndex].generateNewEvent(newEventId());
+					if(shouldGenerateNewAgentMsg(randomArray[eventIndex])){
+						nodeArray[eventIndex].generateNewTask(event);
 					}
+					scheduleNextEvent(eventIndex, getCurrentTime() + 1);
 				}
-				tempNode.update();
 			}
 			
-			iterator = nodeMap.entrySet().iterator();
-			while (iterator.hasNext()) {
-				tempNode = iterator.next().getValue();
-				tempNode.reset();
+			try{
+				if(regionLink != null){
+					generateRegionEvents();
+				}
+				collectActiveNodes();
+				if(actorExecution && regionLink == null){
+					if(actorEngine == null){
+						actorEngine = new ActorEngine(nodeStore);
+					}
+					actorEngine.update(activeIndices, numberOfUpdatedNodes, activeNodes);
+				}else{
+					if(tileEngine == null || tileEngine.getNumberOfTiles() != numberOfTiles){
+						tileEngine = new TileEngine(nodeStore, numberOfTiles, regionLink);
+					}
+					tileEngine.update(activeIndices, numberOfUpdatedNodes, activeNodes,
+							forkJoinPool);
+				}
+			}catch(IOException e){
+				System.err.println(getCurrentTime() + ": lost contact with the other regions: "
+						+ e.getMessage());
+				simulationIsRunning = false;
+				shutDownForkJoinPool();
+				shutDownActorEngine();
+				closeRegionLink();
+				resultSink.flush();
+				return;
 			}
 			
+			metrics.recordUpdate();
 			incrementCurrentTime();
+			if(checkpointInterval != NO_LIMIT && getCurrentTime() % checkpointInterval == 0){
+				writePeriodicCheckpoint();
+			}
 		}else if(simulationIsRunning){
 			simulationIsRunning = false;
+			shutDownForkJoinPool();
+			shutDownActorEngine();
+			closeRegionLink();
+			resultSink.flush();
 			System.out.println("End of simulation");
+			if(metrics.getRequestLatency().getUpdates().getCount() > 0){
+				System.out.println(metrics.getLatencyReport());
+			}
 		}
 	}
-
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Lists the indices of the active nodes to be updated, in ascending order.
+	 * The active nodes which an update would leave as they are, are only
+	 * counted by the metrics, as their updates would, without being looked at.
+	 * */
+	private void collectActiveNodes(){
+		int time = getCurrentTime();
+		int index;
+		long word;
+		
+		numberOfActiveNodes = 0;
+		numberOfUpdatedNodes = 0;
+		for(int i=0; i<activeNodes.length; i++){
+			word = activeNodes[i];
+			while(word != 0){
+				index = (i << 6) + Long.numberOfTrailingZeros(word);
+				if(nodeStore.isIdle(index, time)){
+					metrics.recordNode(nodeStore.getNumberOfTasks(index),
+							nodeStore.getRoutingTableSize(index));
+				}else{
+					activeIndices[numberOfUpdatedNodes++] = index;
+				}
+				numberOfActiveNodes++;
+				word &= word - 1;
+			}
+		}
+	}
+	
 	/*
 	 * Helper method.
 	 * 
-	 * Generates the list over which nodes should generate requests.
+	 * Generates the events due at the nodes of the region of this process. The
+	 * regions tell one another how many events they have, so every event gets the
+	 * id it would get in a single process, where events at the same time are given
+	 * ids in the order of the indices of their nodes.
 	 * */
-	private void createRequestNodesList(){
+	private void generateRegionEvents() throws IOException{
+		int numberOfEvents = 0;
+		int[] numberOfRegionEvents;
+		int firstEventId = eventId;
+		int index;
+		Event event;
+		
+		while((index = nextDueEvent()) != -1){
+			if(regionLink.isLocal(index)){
+				dueEvents[numberOfEvents++] = index;
+			}
+		}
+		numberOfRegionEvents = regionLink.exchangeCounts(numberOfEvents);
+		for(int i=0; i<numberOfRegionEvents.length; i++){
+			if(i < region){
+				firstEventId += numberOfRegionEvents[i];
+			}
+			eventId += numberOfRegionEvents[i];
+		}
+		for(int i=0; i<numberOfEvents; i++){
+			event = nodeArray[dueEvents[i]].generateNewEvent(firstEventId + i + 1);
+			if(shouldGenerateNewAgentMsg(randomArray[dueEvents[i]])){
+				nodeArray[dueEvents[i]].generateNewTask(event);
+			}
+			scheduleNextEvent(dueEvents[i], getCurrentTime() + 1);
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Takes the next event due at the current time off the schedule, and returns
+	 * the index of its node, or -1 if there is none. Events left behind by nodes
+	 * which have been removed, or moved to another index, are skipped.
+	 * */
+	private int nextDueEvent(){
+		int index;
+		
+		while(eventSchedule.hasEventAt(getCurrentTime())){
+			index = eventSchedule.next();
+			if(index < numberOfNodes && nextEventTimes[index] == getCurrentTime()){
+				nextEventTimes[index] = -1;
+				return index;
+			}
+		}
+		return -1;
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Closes the connections to the other regions, if any.
+	 * */
+	private void closeRegionLink(){
+		if(regionLink != null){
+			regionLink.close();
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Releases the worker threads, if any.
+	 * */
+	private void shutDownForkJoinPool(){
+		if(forkJoinPool != null){
+			forkJoinPool.shutdown();
+			forkJoinPool = null;
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Stops the actors of the nodes, if any.
+	 * */
+	private void shutDownActorEngine(){
+		if(actorEngine != null){
+			actorEngine.shutDown();
+			actorEngine = null;
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Generates the list over which nodes, out of the specified number of
+	 * nodes, should generate requests.
+	 * */
+	private void createRequestNodesList(int numberOfNodes){
 		List<Integer> list = new ArrayList<Integer>(numberOfRequestNodes);
 		int temp;
-		int index;
 		for(int i=0; i<numberOfRequestNodes; i++){
-			temp = random.nextInt(nodeMap.size());
+			temp = random.nextInt(numberOfNodes);
 			if(list.contains(temp)){
 				i--;
 			}else{
 				((ArrayList<Integer>)list).add(temp);
 			}
 		}
-        
-		index = 0;
-		for(Map.Entry<Position, Node> entry : nodeMap.entrySet()){
-			if(list.contains(index)){
-				((ArrayList<Node>)requestNodesList).add(entry.getValue());
-			}
-			index++;
+		Collections.sort(list);
+		
+		requestNodeIndices = new int[list.size()];
+		for(int i=0; i<requestNodeIndices.length; i++){
+			requestNodeIndices[i] = list.get(i);
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Splits one random number generator stream per node off the
+	 * generator of the field.
+	 * */
+	private void createRandomArray(){
+		randomArray = new SplitMix64[nodeArray.length];
+		for(int i=0; i<randomArray.length; i++){
+			randomArray[i] = random.split();
 		}
 	}
 	
@@ -218,10 +525,44 @@ public class Field{
 	/*
 	 * Helper method.
 	 * 
-	 * Checks if a new event should be generated.
+	 * Draws the time of the first event of every node of the region of this process.
 	 * */
-	private boolean shouldGenerateNewEvent(){
-		return enableEventCreation ? random.nextInt(eventChanceRange) == 0 : false;
+	private void createEventSchedule(){
+		eventSchedule = new EventSchedule(nodeArray.length);
+		nextEventTimes = new int[nodeArray.length];
+		Arrays.fill(nextEventTimes, -1);
+		if(enableEventCreation){
+			for(int i=0; i<nodeArray.length; i++){
+				if(regionLink == null || regionLink.isLocal(i)){
+					scheduleNextEvent(i, getCurrentTime());
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Draws the time of the next event of a node, from the specified time and
+	 * onwards. With a chance of 1/eventChanceRange per update, the number of updates
+	 * without an event before the next one follows a geometric distribution, which is
+	 * drawn by inversion. Events after the end of the simulation aren't scheduled. The
+	 * time is remembered, so events the node has left behind at another index can be
+	 * told apart from its own.
+	 * */
+	private void scheduleNextEvent(int index, int time){
+		long gap = 0;
+		long nextTime;
+		
+		if(eventChanceRange > 1){
+			gap = (long)(Math.log(1.0 - randomArray[index].nextDouble()) /
+					Math.log1p(-1.0 / eventChanceRange));
+		}
+		nextTime = time + gap;
+		if(nextTime <= updateLimit){
+			eventSchedule.schedule((int)nextTime, index);
+			nextEventTimes[index] = (int)nextTime;
+		}
 	}
 	
 	/*
@@ -229,17 +570,17 @@ public class Field{
 	 * 
 	 * Checks if a new agent message should be generated.
 	 * */
-	private boolean shouldGenerateNewAgentMsg(){
+	private boolean shouldGenerateNewAgentMsg(SplitMix64 random){
 		return enableAgentCreation ? random.nextInt(agentChanceRange) == 0 : false;
 	}
-    
+	
 	/*
 	 * Helper method.
 	 * 
 	 * Checks if a new request message should be generated.
 	 * */
 	private boolean shouldGenerateNewRequests(){
-		return enableRequestCreation ? (getCurrentTime() > 0 &&
+		return enableRequestCreation && eventId > 0 ? (getCurrentTime() > 0 &&
 				getCurrentTime()%requestIntervalRange == 0) : false;
 	}
 	
@@ -249,80 +590,438 @@ public class Field{
 	 * the node network, before the simulation can be started. If the method is called
 	 * with a <code>null</code> <code>HashMap</code> nothing will happen.
 	 * </br>
+	 * Every node is given an index within the node network (see
+	 * <code>Node.getIndex()</code>). The nodes are kept in an array, in spatial order
+	 * unless told otherwise (see <code>setSpatialNodeOrder</code>), and found by their
+	 * positions through a map from packed positions (see <code>Position.toLong()</code>)
+	 * to indices.
 	 * </p>
 	 * @param nodeMap the <code>HashMap</code> containing the node network.
 	 */
 	public void loadNodeNetwork(HashMap<Position, Node> nodeMap)
 			throws IllegalArgumentException{
+		loadNodeNetwork(nodeMap, true);
+	}
+	
+	/**
+	 * <p>
+	 * Loads the node network, as <code>loadNodeNetwork(nodeMap)</code>, but leaves
+	 * the nodes' lists over neighbours as they are unless so specified. Only meant
+	 * for node networks whose nodes already know their neighbours.
+	 * </p>
+	 * @param nodeMap the <code>HashMap</code> containing the node network.
+	 * @param findNeighbours <code>true</code> if the nodes should find their neighbours.
+	 * @see BinaryNodeNetworkGenerator
+	 */
+	public void loadNodeNetwork(HashMap<Position, Node> nodeMap, boolean findNeighbours)
+			throws IllegalArgumentException{
 		if(!hasLoadedNodeNetwork && nodeMap != null){
 			setRecentlyChangedNodeNetwork(true);
 			
-			for(Map.Entry<Position, Node> entry : nodeMap.entrySet()){
-				this.nodeMap.put(entry.getKey(), entry.getValue());
+			if(spatialNodeOrder){
+				nodeStore = NodeStore.inSpatialOrder(nodeMap.values());
+			}else{
+				nodeStore = new NodeStore(nodeMap.values().toArray(new Node[nodeMap.size()]));
 			}
-			for(Map.Entry<Position, Node> entry : this.nodeMap.entrySet()){
-				requestNeighbourUpdate(entry.getValue());
+			nodeArray = nodeStore.getNodes();
+			numberOfNodes = nodeStore.size();
+			tileEngine = null;
+			shutDownActorEngine();
+			nodeIndices = new LongIntMap(nodeArray.length);
+			for(int i=0; i<nodeArray.length; i++){
+				nodeArray[i].setStore(nodeStore, i);
+				nodeIndices.put(nodeArray[i].getPosition().toLong(), i);
+			}
+			activeNodes = new long[(nodeArray.length + 63) >>> 6];
+			activeIndices = new int[nodeArray.length];
+			for(Node node : nodeArray){
+				if(node.hasPendingWork()){
+					activateNode(node);
+				}
+			}
+			spatialGrid = new SpatialGrid(nodeStore);
+			if(findNeighbours){
+				for(Node node : nodeArray){
+					requestNeighbourUpdate(node);
+				}
 			}
 			
 			if(numberOfRequestNodes > nodeMap.size()){
-				this.nodeMap.clear();
+				nodeIndices.clear();
+				for(Node node : nodeArray){
+					node.setStore(null, -1);
+				}
+				nodeStore = new NodeStore(new Node[0]);
+				nodeArray = new Node[0];
+				numberOfNodes = 0;
+				activeNodes = new long[0];
+				activeIndices = new int[0];
+				spatialGrid = null;
 				setRecentlyChangedNodeNetwork(false);
 				throw new IllegalArgumentException("more request nodes specified "
 						+ "than number of nodes in node network!");
 			}else{
-				createRequestNodesList();
+				createRandomArray();
+				createRequestNodesList(nodeArray.length);
+				createEventSchedule();
 				hasLoadedNodeNetwork = true;
 				setRecentlyChangedNodeNetwork(false);
 			}
 		}
 	}
 	
+	/*
+	 * Helper method.
+	 * 
+	 * Loads the nodes of the region of this process and its halo, once the regions
+	 * are connected. The nodes of the region are sorted in spatial order relative to
+	 * the lowest coordinates of the whole node network, and given the indices
+	 * following the nodes of the regions before it. The nodes of the halo are put
+	 * before or after them by their indices, so the nodes are in the order of their
+	 * indices within the whole node network. Only the nodes of the region find their
+	 * neighbours, get events and random number generator streams, and may become
+	 * request nodes, drawn as in a single process holding the whole node network.
+	 * */
+	private void loadRegion(HashMap<Position, Node> nodeMap, HashMap<Position, Node> haloMap)
+			throws IOException{
+		int first = regionLink.getFirstIndex();
+		int total = regionLink.getNumberOfNodes();
+		Node[] ownNodes = NodeStore.sortInSpatialOrder(nodeMap.values(),
+				regionLink.getMinX(), regionLink.getMinY());
+		Node[] haloNodes = haloMap.values().toArray(new Node[haloMap.size()]);
+		LongIntMap ownIndices = new LongIntMap(ownNodes.length);
+		long[] haloPositions = new long[haloNodes.length];
+		long[] haloOrder = new long[haloNodes.length];
+		int[] haloIndices;
+		Node[] nodes = new Node[ownNodes.length + haloNodes.length];
+		int[] globalIndices = new int[nodes.length];
+		int firstLocalIndex = 0;
+		int numberOfOwnedRequestNodes = 0;
+		int next = 0;
+		
+		for(int i=0; i<ownNodes.length; i++){
+			ownIndices.put(ownNodes[i].getPosition().toLong(), first + i);
+		}
+		for(int i=0; i<haloNodes.length; i++){
+			haloPositions[i] = haloNodes[i].getPosition().toLong();
+		}
+		haloIndices = regionLink.findHalo(haloPositions, ownIndices);
+		for(int i=0; i<haloNodes.length; i++){
+			haloOrder[i] = ((long)haloIndices[i] << 32) | i;
+			if(haloIndices[i] < first){
+				firstLocalIndex++;
+			}
+		}
+		Arrays.sort(haloOrder);
+		for(int i=0; i<=haloOrder.length; i++){
+			if(i == firstLocalIndex){
+				for(int j=0; j<ownNodes.length; j++){
+					globalIndices[next] = first + j;
+					nodes[next++] = ownNodes[j];
+				}
+			}
+			if(i < haloOrder.length){
+				globalIndices[next] = (int)(haloOrder[i] >>> 32);
+				nodes[next++] = haloNodes[(int)haloOrder[i]];
+			}
+		}
+		regionLink.setNodes(nodes, globalIndices);
+		
+		setRecentlyChangedNodeNetwork(true);
+		nodeStore = new NodeStore(nodes);
+		nodeArray = nodeStore.getNodes();
+		numberOfNodes = nodeStore.size();
+		tileEngine = null;
+		shutDownActorEngine();
+		dueEvents = new int[numberOfNodes];
+		nodeIndices = new LongIntMap(nodeArray.length);
+		for(int i=0; i<nodeArray.length; i++){
+			nodeArray[i].setStore(nodeStore, i);
+			nodeIndices.put(nodeArray[i].getPosition().toLong(), i);
+		}
+		activeNodes = new long[(nodeArray.length + 63) >>> 6];
+		activeIndices = new int[nodeArray.length];
+		for(Node node : nodeArray){
+			if(node.hasPendingWork()){
+				activateNode(node);
+			}
+		}
+		spatialGrid = new SpatialGrid(nodeStore);
+		for(int i=0; i<ownNodes.length; i++){
+			requestNeighbourUpdate(nodeArray[firstLocalIndex + i]);
+		}
+		
+		random.skipSplits(first);
+		randomArray = new SplitMix64[nodeArray.length];
+		for(int i=0; i<ownNodes.length; i++){
+			randomArray[firstLocalIndex + i] = random.split();
+		}
+		random.skipSplits(total - first - ownNodes.length);
+		createRequestNodesList(total);
+		for(int index : requestNodeIndices){
+			if(index >= first && index < first + ownNodes.length){
+				requestNodeIndices[numberOfOwnedRequestNodes++] = index - first + firstLocalIndex;
+			}
+		}
+		requestNodeIndices = Arrays.copyOf(requestNodeIndices, numberOfOwnedRequestNodes);
+		createEventSchedule();
+		hasLoadedNodeNetwork = true;
+		setRecentlyChangedNodeNetwork(false);
+	}
+	
 	/**
 	 * <p>
-	 * This operation is somewhat expensive, and if possible should be used
-	 * before the start of the simulation.</br>
-	 * </br>
 	 * By giving the method a node it will find all nodes within the range 
 	 * of the specified node, and return an <code>ArrayList</code> containing
-	 * all of the found nodes.
+	 * all of the found nodes. A node is within range if its distance to the
+	 * specified node is less than or equal to the signal strength of the
+	 * specified node.</br>
+	 * </br>
+	 * Once a node network has been loaded the search is done through a spatial
+	 * grid, and only looks at nodes close to the specified node.
 	 * </p>
 	 * @param nodeAtCentrum the node whose signal strength is going to be
 	 * tested and compared against other nodes.
 	 * @return and <code>ArrayList</code> containing all found nodes.
+	 * @see SpatialGrid
 	 */
 	public ArrayList<Node> getNodesWithinRangeofNode(Node nodeAtCentrum){
-		int signalStrength = nodeAtCentrum.getSignalStrength();
-		int centrumX = nodeAtCentrum.getPosition().getX();
-		int centrumY = nodeAtCentrum.getPosition().getY();
-		int minYFromCentrum = (0 < centrumY-signalStrength ? centrumY-signalStrength : 0);
-		int maxYFromCentrum = centrumY+signalStrength;
-		int currentYOffset;
-		int currentMinXFromCentrum;
-		int currentMaxXFromCentrum;
-		int boundsX;
-		ArrayList<Node> listToReturn = new ArrayList<Node>();
-		
-		for(Map.Entry<Position, Node> entry : nodeMap.entrySet()){
-			Position mapPos = entry.getKey();
-			Node mapNode = entry.getValue();
-			
-			if(minYFromCentrum <= mapPos.getY() && mapPos.getY() <= maxYFromCentrum){
-				currentYOffset = Math.abs(centrumY-mapPos.getY());
-				boundsX = (int)Math.sqrt(Math.abs(Math.pow(signalStrength, 2)-
-						Math.pow(currentYOffset, 2))); 
-				currentMinXFromCentrum = (0 < centrumX-boundsX ? centrumX-boundsX : 0);
-				currentMaxXFromCentrum = centrumX+boundsX;
-				
-				if((centrumX <= mapPos.getX() && mapPos.getX() <= currentMaxXFromCentrum) ||
-						(currentMinXFromCentrum <= mapPos.getX() && mapPos.getX() < centrumX)){
-					listToReturn.add(mapNode);
-				}
+		if(spatialGrid == null){
+			return new ArrayList<Node>();
+		}
+		return spatialGrid.getNodesWithinRangeofNode(nodeAtCentrum);
+	}
+	
+	/**
+	 * <p>
+	 * Adds a node to the loaded node network, between two updates. The node is given
+	 * the next index, and a random number generator stream of its own split from the
+	 * generator of the field. Its neighbours, and the nodes which have it within their
+	 * signal strength and therefore make it one of their neighbours, are found through
+	 * the spatial grid. The time of its first event is drawn if events are enabled, but
+	 * the node never becomes a request node.
+	 * </p>
+	 * @param node the node to add.
+	 * @throws java.lang.NullPointerException if the node is <code>null</code>.
+	 * @throws java.lang.IllegalStateException if no node network has been loaded, or
+	 * if the simulation is distributed.
+	 * @throws java.lang.IllegalArgumentException if there is already a node at the
+	 * position of the node.
+	 * @see #removeNode(Node)
+	 */
+	public synchronized void addNode(Node node) throws NullPointerException,
+			IllegalStateException, IllegalArgumentException{
+		int index;
+		
+		checkNodeNetworkCanChange(node);
+		if(nodeIndices.get(node.getPosition().toLong()) != LongIntMap.NO_VALUE){
+			throw new IllegalArgumentException("there is already a node at ("
+					+ node.getPosition().getX() + ", " + node.getPosition().getY() + ")");
+		}
+		
+		index = nodeStore.add(node);
+		if(nodeStore.getNodes() != nodeArray){
+			growNodeArrays();
+		}
+		numberOfNodes++;
+		node.setStore(nodeStore, index);
+		node.setRemoved(false);
+		nodeIndices.put(node.getPosition().toLong(), index);
+		randomArray[index] = random.split();
+		nextEventTimes[index] = -1;
+		spatialGrid.add(index);
+		node.setNeighbours(spatialGrid.getNodesWithinRangeofNode(node));
+		for(Node other : spatialGrid.getNodesReachingNode(node)){
+			other.addNeighbour(node);
+		}
+		if(enableEventCreation){
+			scheduleNextEvent(index, getCurrentTime());
+		}
+		if(node.hasPendingWork()){
+			activateNode(node);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Removes a node from the loaded node network, between two updates. The nodes
+	 * within its signal strength, and the nodes having it within theirs, forget it as a
+	 * neighbour along with every direction leading through it (see
+	 * <code>Node.removeNeighbour</code>), and whatever the node was doing is lost. A
+	 * request message whose way back leads through the node is discarded as expired
+	 * by the node holding it, once the removed node is next on its way. The
+	 * node with the last index takes the index of the removed node, so the indices
+	 * stay dense, and keeps its random number generator stream and the time of its
+	 * next event.
+	 * </p>
+	 * @param node the node to remove.
+	 * @throws java.lang.NullPointerException if the node is <code>null</code>.
+	 * @throws java.lang.IllegalStateException if no node network has been loaded, or
+	 * if the simulation is distributed.
+	 * @throws java.lang.IllegalArgumentException if the node isn't part of the
+	 * node network.
+	 * @see #addNode(Node)
+	 */
+	public synchronized void removeNode(Node node) throws NullPointerException,
+			IllegalStateException, IllegalArgumentException{
+		int index;
+		int last = numberOfNodes - 1;
+		Node moved;
+		boolean movedIsActive;
+		
+		checkNodeNetworkCanChange(node);
+		index = getIndexOfNode(node);
+		
+		node.setStore(null, -1);
+		for(Node other : spatialGrid.getNodesWithinRangeofNode(node)){
+			other.removeNeighbour(node);
+		}
+		for(Node other : spatialGrid.getNodesReachingNode(node)){
+			other.removeNeighbour(node);
+		}
+		spatialGrid.remove(index);
+		nodeIndices.remove(node.getPosition().toLong());
+		activeNodes[index >>> 6] &= ~(1L << index);
+		updateRequestNodes(index, last);
+		
+		if(index != last){
+			moved = nodeArray[last];
+			movedIsActive = (activeNodes[last >>> 6] & (1L << last)) != 0;
+			activeNodes[last >>> 6] &= ~(1L << last);
+			spatialGrid.remove(last);
+			nodeStore.move(last, index);
+			spatialGrid.add(index);
+			moved.setStore(nodeStore, index);
+			nodeIndices.put(moved.getPosition().toLong(), index);
+			randomArray[index] = randomArray[last];
+			if(movedIsActive){
+				activeNodes[index >>> 6] |= 1L << index;
+			}
+			nextEventTimes[index] = nextEventTimes[last];
+			if(nextEventTimes[index] != -1){
+				eventSchedule.schedule(nextEventTimes[index], index);
+			}
+		}
+		nextEventTimes[last] = -1;
+		randomArray[last] = null;
+		nodeStore.removeLast();
+		numberOfNodes--;
+		
+		node.setRemoved(true);
+		node.setNeighbours(new ArrayList<Node>());
+	}
+	
+	/**
+	 * <p>
+	 * Changes the signal strength of a node of the loaded node network, between two
+	 * updates. The neighbours of the node are found anew through the spatial grid, and
+	 * the node forgets every direction leading through a node no longer within its
+	 * signal strength. The neighbours of other nodes don't depend on it, and are
+	 * left as they are.
+	 * </p>
+	 * @param node the node.
+	 * @param signalStrength the new signal strength.
+	 * @throws java.lang.NullPointerException if the node is <code>null</code>.
+	 * @throws java.lang.IllegalStateException if no node network has been loaded, or
+	 * if the simulation is distributed.
+	 * @throws java.lang.IllegalArgumentException if the signal strength is less than
+	 * zero, or if the node isn't part of the node network.
+	 */
+	public synchronized void setSignalStrength(Node node, int signalStrength)
+			throws NullPointerException, IllegalStateException, IllegalArgumentException{
+		int index;
+		ArrayList<Node> previousNeighbours;
+		ArrayList<Node> neighbours;
+		HashSet<Node> neighbourSet;
+		
+		checkNodeNetworkCanChange(node);
+		index = getIndexOfNode(node);
+		
+		previousNeighbours = spatialGrid.getNodesWithinRangeofNode(node);
+		node.setSignalStrength(signalStrength);
+		nodeStore.setSignalStrength(index, signalStrength);
+		neighbours = spatialGrid.getNodesWithinRangeofNode(node);
+		node.setNeighbours(neighbours);
+		neighbourSet = new HashSet<Node>(neighbours);
+		for(Node other : previousNeighbours){
+			if(!neighbourSet.contains(other)){
+				node.removeNeighbour(other);
 			}
 		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Checks that the node network can be changed, and that there is a node.
+	 * */
+	private void checkNodeNetworkCanChange(Node node) throws NullPointerException,
+			IllegalStateException{
+		if(node == null){
+			throw new NullPointerException("node can not be null");
+		}else if(!hasLoadedNodeNetwork){
+			throw new IllegalStateException("can not change a field without"
+					+ " a node network");
+		}else if(regionLink != null){
+			throw new IllegalStateException("can not change the node network of"
+					+ " a distributed field");
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Returns the index of a node of the node network.
+	 * */
+	private int getIndexOfNode(Node node) throws IllegalArgumentException{
+		int index = node.getIndex();
+		
+		if(index < 0 || index >= numberOfNodes || nodeArray[index] != node){
+			throw new IllegalArgumentException("node is not part of the node network");
+		}
+		return index;
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Makes room for as many nodes as the node store has room for, in every
+	 * array indexed by node index. The engines hold the array of nodes, so they
+	 * are made anew.
+	 * */
+	private void growNodeArrays(){
+		int capacity;
+		int previousCapacity = nodeArray.length;
 		
-		listToReturn.remove(nodeAtCentrum);
+		nodeArray = nodeStore.getNodes();
+		capacity = nodeArray.length;
+		randomArray = Arrays.copyOf(randomArray, capacity);
+		nextEventTimes = Arrays.copyOf(nextEventTimes, capacity);
+		Arrays.fill(nextEventTimes, previousCapacity, capacity, -1);
+		activeNodes = Arrays.copyOf(activeNodes, (capacity + 63) >>> 6);
+		activeIndices = Arrays.copyOf(activeIndices, capacity);
+		tileEngine = null;
+		shutDownActorEngine();
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Drops a removed node from the request nodes, and gives the node moved from
+	 * the last index the index of the removed node.
+	 * */
+	private void updateRequestNodes(int index, int last){
+		int numberOfRemaining = 0;
 		
-		return listToReturn;
+		for(int requestIndex : requestNodeIndices){
+			if(requestIndex == last && index != last){
+				requestNodeIndices[numberOfRemaining++] = index;
+			}else if(requestIndex != index){
+				requestNodeIndices[numberOfRemaining++] = requestIndex;
+			}
+		}
+		requestNodeIndices = Arrays.copyOf(requestNodeIndices, numberOfRemaining);
+		Arrays.sort(requestNodeIndices);
 	}
 	
 	/**
@@ -331,10 +1030,465 @@ public class Field{
 	 * </p>
 	 * @return the current amount of elapsed updates.
 	 */
-	public synchronized int getCurrentTime(){
+	public int getCurrentTime(){
 		return currentTime;
 	}
 	
+	/**
+	 * <p>
+	 * Returns the seed of the random number generator. A <code>Field</code>
+	 * created with this seed gives the same simulation as this one.
+	 * </p>
+	 * @return the seed.
+	 */
+	public long getSeed(){
+		return seed;
+	}
+	
+	/**
+	 * <p>
+	 * Sets the number of threads used to update the nodes. With more than one
+	 * thread the nodes are split into one tile per thread, which are updated, and
+	 * whose messages are delivered, at the same time. This gives the same result as
+	 * using one thread. The tiles follow the traffic in the network, and are compact
+	 * parts of the field if the nodes are kept in spatial order (see
+	 * <code>setSpatialNodeOrder</code>). Should be called before the simulation is
+	 * started.</br>
+	 * </br>
+	 * Note that any <code>ExpirationReader</code> or <code>RequestReader</code> set
+	 * on the nodes may be called from several threads at once when using more
+	 * than one thread.
+	 * </p>
+	 * @param numberOfThreads the number of threads, 1 to update the nodes one by one
+	 * on the calling thread.
+	 * @throws java.lang.IllegalArgumentException if the number of threads is less than 1.
+	 * @see nodebasis.ExpirationReader
+	 * @see nodebasis.RequestReader
+	 */
+	public synchronized void setNumberOfThreads(int numberOfThreads)
+			throws IllegalArgumentException{
+		if(numberOfThreads < 1){
+			throw new IllegalArgumentException("number of threads must be at least 1");
+		}
+		shutDownForkJoinPool();
+		this.numberOfThreads = numberOfThreads;
+		if(numberOfThreads > 1){
+			forkJoinPool = new ForkJoinPool(numberOfThreads);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of threads used to update the nodes.
+	 * </p>
+	 * @return the number of threads.
+	 */
+	public synchronized int getNumberOfThreads(){
+		return numberOfThreads;
+	}
+	
+	/**
+	 * <p>
+	 * Sets whether the nodes act on threads of their own, rather than being updated
+	 * tile by tile by the threads set by <code>setNumberOfThreads</code>. Each node is
+	 * then given an actor, started when the node is first given something to do, which
+	 * is parked until the node is updated or sent a message. The actors run on virtual
+	 * threads, so this needs a Java runtime which has them (Java 21 onwards, see
+	 * <code>isActorExecutionSupported</code>). The result is the same either way. A
+	 * distributed simulation is always updated tile by tile.
+	 * </p>
+	 * @param actorExecution <code>true</code> to have the nodes act on threads of their own.
+	 * @throws UnsupportedOperationException if <code>actorExecution</code> is
+	 * <code>true</code> and the Java runtime has no virtual threads.
+	 * @see ActorEngine
+	 */
+	public synchronized void setActorExecution(boolean actorExecution){
+		if(actorExecution && !ActorEngine.isSupported()){
+			throw new UnsupportedOperationException("actor execution needs virtual threads");
+		}
+		this.actorExecution = actorExecution;
+		if(!actorExecution){
+			shutDownActorEngine();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the nodes act on threads of their own.
+	 * </p>
+	 * @return <code>true</code> if the nodes act on threads of their own.
+	 * @see #setActorExecution(boolean)
+	 */
+	public synchronized boolean getActorExecution(){
+		return actorExecution;
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the Java runtime has the virtual threads needed for the nodes
+	 * to act on threads of their own.
+	 * </p>
+	 * @return <code>true</code> if actor execution can be turned on.
+	 * @see #setActorExecution(boolean)
+	 */
+	public static boolean isActorExecutionSupported(){
+		return ActorEngine.isSupported();
+	}
+	
+	/**
+	 * <p>
+	 * Sets whether the nodes are kept in spatial order, i.e. sorted by the Morton code
+	 * of their positions, rather than in the order of the <code>HashMap</code> they are
+	 * loaded from. Nodes close to one another then mostly get indices close to one another,
+	 * so the nodes updated one after the other, and by the same thread, tend to be
+	 * neighbours, and the neighbour search when loading a large node network reads
+	 * memory mostly in order. The nodes are kept in spatial order unless this is turned
+	 * off. Must be called before the node network is loaded to have any effect.</br>
+	 * </br>
+	 * Since the random number generator streams are handed out by index, a simulation
+	 * in spatial order doesn't give the same result as one in the order of the
+	 * <code>HashMap</code>, although it gives the same result every time. The regions
+	 * of a distributed simulation are always kept in spatial order.
+	 * </p>
+	 * @param spatialNodeOrder <code>true</code> to keep the nodes in spatial order.
+	 * @see #loadNodeNetwork(HashMap)
+	 */
+	public synchronized void setSpatialNodeOrder(boolean spatialNodeOrder){
+		this.spatialNodeOrder = spatialNodeOrder;
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the nodes are kept in spatial order.
+	 * </p>
+	 * @return <code>true</code> if the nodes are kept in spatial order.
+	 */
+	public synchronized boolean getSpatialNodeOrder(){
+		return spatialNodeOrder;
+	}
+	
+	/**
+	 * <p>
+	 * Sets the number of updates an event lives. Once an event has lived this long,
+	 * the node where it occurred forgets about it, and every node drops its directions
+	 * to it. Requests for the event will thereafter go unanswered. Should be called
+	 * before the simulation is started.
+	 * </p>
+	 * @param eventTimeToLive the number of updates an event lives, or
+	 * <code>NO_LIMIT</code> for events to live forever.
+	 * @throws java.lang.IllegalArgumentException if the number of updates is negative.
+	 */
+	public synchronized void setEventTimeToLive(int eventTimeToLive)
+			throws IllegalArgumentException{
+		if(eventTimeToLive < 0){
+			throw new IllegalArgumentException("time to live can not be negative");
+		}
+		this.eventTimeToLive = eventTimeToLive;
+		nodeStore.clearDueTimes();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of updates an event lives. Since this is read by the nodes
+	 * during an update, the method isn't synchronized.
+	 * </p>
+	 * @return the number of updates an event lives, or <code>NO_LIMIT</code>.
+	 */
+	public int getEventTimeToLive(){
+		return eventTimeToLive;
+	}
+	
+	/**
+	 * <p>
+	 * Sets the greatest number of events each node keeps directions to. When a
+	 * node knows about more events than this, entries are dropped from its routing
+	 * table according to the eviction policy (see <code>setEvictionPolicy</code>).
+	 * Should be called before the simulation is started.
+	 * </p>
+	 * @param routingTableCapacity the greatest number of entries in a routing table,
+	 * or <code>NO_LIMIT</code> for no limit.
+	 * @throws java.lang.IllegalArgumentException if the capacity is negative.
+	 */
+	public synchronized void setRoutingTableCapacity(int routingTableCapacity)
+			throws IllegalArgumentException{
+		if(routingTableCapacity < 0){
+			throw new IllegalArgumentException("capacity can not be negative");
+		}
+		this.routingTableCapacity = routingTableCapacity;
+		nodeStore.clearDueTimes();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the greatest number of events each node keeps directions to. Since
+	 * this is read by the nodes during an update, the method isn't synchronized.
+	 * </p>
+	 * @return the greatest number of entries in a routing table, or <code>NO_LIMIT</code>.
+	 */
+	public int getRoutingTableCapacity(){
+		return routingTableCapacity;
+	}
+	
+	/**
+	 * <p>
+	 * Sets which entries the nodes drop from their routing tables, once a table
+	 * holds more entries than allowed. The default is
+	 * <code>EvictionPolicy.OLDEST_EVENT_FIRST</code>.
+	 * </p>
+	 * @param evictionPolicy the eviction policy.
+	 * @throws java.lang.NullPointerException if the eviction policy is <code>null</code>.
+	 * @see nodebasis.EvictionPolicy
+	 */
+	public synchronized void setEvictionPolicy(EvictionPolicy evictionPolicy)
+			throws NullPointerException{
+		if(evictionPolicy == null){
+			throw new NullPointerException("eviction policy can not be null");
+		}
+		this.evictionPolicy = evictionPolicy;
+	}
+	
+	/**
+	 * <p>
+	 * Returns which entries the nodes drop from their routing tables. Since this
+	 * is read by the nodes during an update, the method isn't synchronized.
+	 * </p>
+	 * @return the eviction policy.
+	 */
+	public EvictionPolicy getEvictionPolicy(){
+		return evictionPolicy;
+	}
+	
+	/**
+	 * <p>
+	 * Sets where the results of the simulation go, i.e. the events fetched by
+	 * returning request messages. The default is to print them to
+	 * <code>System.out</code>, as they are received. The sink is flushed once
+	 * the simulation is over.
+	 * </p>
+	 * @param resultSink the result sink, <code>ResultSink.DISCARD</code> to
+	 * ignore the results.
+	 * @throws java.lang.NullPointerException if the result sink is <code>null</code>.
+	 * @see nodebasis.ResultSink
+	 * @see nodebasis.AsyncResultSink
+	 */
+	public synchronized void setResultSink(ResultSink resultSink)
+			throws NullPointerException{
+		if(resultSink == null){
+			throw new NullPointerException("result sink can not be null");
+		}
+		this.resultSink = resultSink;
+	}
+	
+	/**
+	 * <p>
+	 * Returns where the results of the simulation go. Since this is read by the
+	 * nodes during an update, the method isn't synchronized.
+	 * </p>
+	 * @return the result sink.
+	 */
+	public ResultSink getResultSink(){
+		return resultSink;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the metrics of the simulation, which the nodes record into while
+	 * being updated. The metrics can be read at any time, or be registered
+	 * to be read over JMX (see <code>SimulationMetrics.registerMBean</code>). A report of
+	 * the latency of the requests is printed once the simulation is over.
+	 * </p>
+	 * @return the metrics.
+	 */
+	public SimulationMetrics getMetrics(){
+		return metrics;
+	}
+	
+	/**
+	 * <p>
+	 * Distributes the simulation over several processes, instead of loading the
+	 * whole node network in each of them. Every process loads the nodes of its own
+	 * region, together with the halo of the region, i.e. every node of another region
+	 * within the signal strength of a node of the region, and only updates the nodes
+	 * of its region. The call waits until every region is connected, and all processes
+	 * must be given the same arguments and seed.</br>
+	 * </br>
+	 * The nodes of the whole node network are given their indices in spatial order
+	 * region by region, the nodes of region <code>i</code> following the nodes of the
+	 * regions before it. A node is only addressed by its index outside the process
+	 * holding it, and is known to the other processes as a placeholder holding nothing
+	 * but the index, unless it belongs to their halos (see <code>Node(int)</code>).</br>
+	 * </br>
+	 * The messages sent to nodes of other regions are passed on over the connections,
+	 * and the processes wait for one another at every exchange. When the regions
+	 * together hold consecutive ranges of the whole node network in spatial order, e.g.
+	 * region <code>i</code> of <code>n</code> holding the nodes from <code>N*i/n</code>
+	 * up to <code>N*(i+1)/n</code>, the outcome of the simulation is the same as in a
+	 * single process keeping its nodes in spatial order. The results and metrics of
+	 * each process only cover its own region. A distributed simulation can't be
+	 * checkpointed, nor can nodes join or leave it, and the connections are closed
+	 * when the simulation ends.
+	 * </p>
+	 * @param region the region of this process.
+	 * @param addresses the address every region listens at, by region.
+	 * @param nodeMap the nodes of the region.
+	 * @param haloMap the nodes of the halo of the region.
+	 * @throws java.io.IOException if the regions couldn't be connected, or if a node
+	 * of the halo belongs to no other region, or to several.
+	 * @throws java.lang.IllegalStateException if a node network has already been
+	 * loaded, or if the simulation is running.
+	 * @throws java.lang.IllegalArgumentException if there is no such region, if either
+	 * map is <code>null</code>, or if more request nodes are specified than there are
+	 * nodes in the whole node network.
+	 * @see RegionLink
+	 */
+	public synchronized void distribute(int region, InetSocketAddress[] addresses,
+			HashMap<Position, Node> nodeMap, HashMap<Position, Node> haloMap)
+			throws IOException, IllegalStateException, IllegalArgumentException{
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		
+		if(hasLoadedNodeNetwork){
+			throw new IllegalStateException("can not distribute a field with"
+					+ " a loaded node network");
+		}else if(simulationIsRunning){
+			throw new IllegalStateException("can not distribute a running simulation");
+		}else if(addresses == null || region < 0 || region >= addresses.length){
+			throw new IllegalArgumentException("no such region: " + region);
+		}else if(nodeMap == null || haloMap == null){
+			throw new IllegalArgumentException("the region and its halo must be given");
+		}
+		
+		for(Position position : nodeMap.keySet()){
+			minX = Math.min(minX, position.getX());
+			minY = Math.min(minY, position.getY());
+		}
+		regionLink = RegionLink.connect(region, addresses, nodeMap.size(), minX, minY);
+		if(numberOfRequestNodes > regionLink.getNumberOfNodes()){
+			regionLink.close();
+			regionLink = null;
+			throw new IllegalArgumentException("more request nodes specified "
+					+ "than number of nodes in node network!");
+		}
+		try{
+			loadRegion(nodeMap, haloMap);
+		}catch(IOException e){
+			regionLink.close();
+			regionLink = null;
+			throw e;
+		}
+		this.region = region;
+	}
+	
+	/**
+	 * <p>
+	 * Writes the state of the simulation to a checkpoint file: the current time, the
+	 * event id counter, the state of every random number generator, the event schedule,
+	 * and the state of every node, including the messages held by its tasks (see
+	 * <code>Node.writeCheckpoint</code>). The checkpoint is written between two updates,
+	 * through a small buffer, to a temporary file which then replaces the specified file,
+	 * so an earlier checkpoint is kept should the writing fail. The result sink is
+	 * flushed beforehand.</br>
+	 * </br>
+	 * The metrics of the simulation aren't part of the checkpoint.
+	 * </p>
+	 * @param path the checkpoint file.
+	 * @throws java.io.IOException if the checkpoint couldn't be written.
+	 * @throws java.lang.IllegalStateException if no node network has been loaded, or
+	 * if the simulation is distributed.
+	 * @see #restoreCheckpoint(Path)
+	 */
+	public synchronized void writeCheckpoint(Path path) throws IOException,
+			IllegalStateException{
+		Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		CheckpointOutput out;
+		
+		if(!hasLoadedNodeNetwork){
+			throw new IllegalStateException("can not checkpoint a field without"
+					+ " a node network");
+		}else if(regionLink != null){
+			throw new IllegalStateException("can not checkpoint a distributed field");
+		}
+		resultSink.flush();
+		try(FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			out = new CheckpointOutput(channel);
+			writeCheckpoint(out);
+			out.finish();
+			channel.force(false);
+		}
+		try{
+			Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}catch(AtomicMoveNotSupportedException e){
+			Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Restores the state of the simulation from a checkpoint file written by
+	 * <code>writeCheckpoint</code>. The <code>Field</code> must have been created with
+	 * the same arguments, including the seed, as the one which wrote the checkpoint,
+	 * and have loaded the same node network. The simulation then carries on from
+	 * the update following the checkpoint, exactly as it would have without the
+	 * interruption.</br>
+	 * </br>
+	 * The file is memory mapped, checked against its CRC, and read in full before
+	 * anything is restored, so a damaged or unreadable checkpoint leaves the
+	 * <code>Field</code> as it was.
+	 * Checkpoints larger than 2 GB can't be mapped, and therefore not restored.
+	 * </p>
+	 * @param path the checkpoint file.
+	 * @throws java.io.IOException if the checkpoint couldn't be read, is damaged,
+	 * or doesn't match the <code>Field</code> or its node network.
+	 * @throws java.lang.IllegalStateException if no node network has been loaded,
+	 * if the simulation is running, or if it is distributed.
+	 * @see #writeCheckpoint(Path)
+	 */
+	public synchronized void restoreCheckpoint(Path path) throws IOException,
+			IllegalStateException{
+		if(!hasLoadedNodeNetwork){
+			throw new IllegalStateException("can not restore a field without"
+					+ " a node network");
+		}else if(simulationIsRunning){
+			throw new IllegalStateException("can not restore a running simulation");
+		}else if(regionLink != null){
+			throw new IllegalStateException("can not restore a distributed field");
+		}
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+			if(channel.size() > Integer.MAX_VALUE){
+				throw new IOException("checkpoint too large to be mapped");
+			}
+			restoreCheckpoint(new CheckpointInput(channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size())));
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Makes the simulation write a checkpoint (see <code>writeCheckpoint</code>) to
+	 * the specified file every so many updates, each replacing the one before.
+	 * A checkpoint which can't be written is reported to <code>System.err</code>,
+	 * and the simulation carries on.
+	 * </p>
+	 * @param checkpointInterval the number of updates between checkpoints, or
+	 * <code>NO_LIMIT</code> to stop writing checkpoints.
+	 * @param checkpointPath the checkpoint file.
+	 * @throws java.lang.IllegalArgumentException if the interval is negative.
+	 * @throws java.lang.NullPointerException if the interval is positive and the file
+	 * is <code>null</code>.
+	 */
+	public synchronized void setCheckpointInterval(int checkpointInterval,
+			Path checkpointPath) throws IllegalArgumentException, NullPointerException{
+		if(checkpointInterval < 0){
+			throw new IllegalArgumentException("checkpoint interval can not be negative");
+		}else if(checkpointInterval != NO_LIMIT && checkpointPath == null){
+			throw new NullPointerException("checkpoint path can not be null");
+		}
+		this.checkpointInterval = checkpointInterval;
+		this.checkpointPath = checkpointPath;
+	}
+	
 	/**
 	 * <p>
 	 * Returns whether or not a node network has been loaded by the field class.
@@ -367,11 +1521,12 @@ public class Field{
 	 * @return the string representation of the node network.
 	 */
 	public String getStringRepresentation(){
-		String representation = "";
-		for(Map.Entry<Position, Node> entry : nodeMap.entrySet()){
-			representation += entry.getValue().getStringRepresentation() + "\n";
+		StringBuilder representation = new StringBuilder();
+		
+		for(int i=0; i<numberOfNodes; i++){
+			representation.append(nodeArray[i].getStringRepresentation()).append("\n");
 		}
-		return representation;
+		return representation.toString();
 	}
 	
 	/**
@@ -414,6 +1569,227 @@ public class Field{
 		this.currentTime = currentTime;
 	}
 	
+	/**
+	 * <p>
+	 * Makes a node active, i.e. makes sure it is updated during the following
+	 * updates for as long as it has something to do. This is called by the
+	 * nodes themselves when they are given something to do. The call has no
+	 * effect for nodes which aren't part of the loaded node network, or which
+	 * belong to another region of a distributed simulation. While the actors of
+	 * the nodes are updating them, the call has no effect either, since the
+	 * actors bring the set of active nodes up to date themselves.</br>
+	 * </br>
+	 * Since every node shares the set of active nodes, this method must not be
+	 * called while the nodes are being updated by several threads.
+	 * </p>
+	 * @param node the node to make active.
+	 * @see nodebasis.Node#hasPendingWork()
+	 */
+	public void activateNode(Node node){
+		int index = node.getIndex();
+		
+		if(index >= 0 && index < numberOfNodes && nodeArray[index] == node &&
+				(regionLink == null || regionLink.isLocal(index)) &&
+				(actorEngine == null || !actorEngine.isRunning())){
+			activeNodes[index >>> 6] |= 1L << index;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of nodes which were active during the latest update.
+	 * </p>
+	 * @return the number of active nodes.
+	 */
+	public int getNumberOfActiveNodes(){
+		return numberOfActiveNodes;
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Writes the periodic checkpoint, reporting rather than throwing
+	 * any failure.
+	 * */
+	private void writePeriodicCheckpoint(){
+		try{
+			writeCheckpoint(checkpointPath);
+		}catch(IOException | IllegalStateException e){
+			System.err.println(getCurrentTime() + ": could not write checkpoint to "
+					+ checkpointPath + ": " + e.getMessage());
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Writes the state of the field, followed by the state of every node. The
+	 * positions of the nodes come first, so the node indices can be mapped to
+	 * the nodes of the restoring field.
+	 * */
+	private void writeCheckpoint(CheckpointOutput out) throws IOException{
+		long[] events = eventSchedule.toArray();
+		int numberOfEvents = 0;
+		
+		for(long event : events){
+			if((int)event < numberOfNodes && nextEventTimes[(int)event] == (int)(event >>> 32)){
+				events[numberOfEvents++] = event;
+			}
+		}
+		
+		out.writeInt(CHECKPOINT_MAGIC);
+		out.writeInt(CHECKPOINT_VERSION);
+		out.writeLong(seed);
+		out.writeInt(updateLimit);
+		out.writeInt(eventChanceRange);
+		out.writeInt(agentChanceRange);
+		out.writeInt(requestIntervalRange);
+		out.writeInt(numberOfRequestNodes);
+		out.writeInt(numberOfNodes);
+		for(int i=0; i<numberOfNodes; i++){
+			out.writePosition(nodeArray[i].getPosition());
+		}
+		
+		out.writeInt(getCurrentTime());
+		out.writeInt(eventId);
+		out.writeInt(eventTimeToLive);
+		out.writeInt(routingTableCapacity);
+		out.writeInt(evictionPolicy.ordinal());
+		out.writeLong(random.getSeed());
+		out.writeLong(random.getGamma());
+		out.writeInt(requestNodeIndices.length);
+		for(int index : requestNodeIndices){
+			out.writeInt(index);
+		}
+		out.writeInt(numberOfEvents);
+		for(int i=0; i<numberOfEvents; i++){
+			out.writeInt((int)(events[i] >>> 32));
+			out.writeInt((int)events[i]);
+		}
+		
+		for(int i=0; i<numberOfNodes; i++){
+			out.writeLong(randomArray[i].getSeed());
+			out.writeLong(randomArray[i].getGamma());
+			nodeArray[i].writeCheckpoint(out);
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Reads what writeCheckpoint wrote. The node indices of the checkpoint are
+	 * mapped to the nodes of this field by their positions, hence the nodes don't
+	 * have to be indexed the same way. Everything is read before anything is
+	 * restored, so a checkpoint which can't be read leaves the field as it was.
+	 * */
+	private void restoreCheckpoint(CheckpointInput in) throws IOException{
+		Node[] nodes;
+		Node.CheckpointState[] states;
+		EvictionPolicy[] policies = EvictionPolicy.values();
+		SplitMix64[] randoms;
+		SplitMix64 restoredRandom;
+		EventSchedule restoredEventSchedule;
+		int[] restoredNextEventTimes;
+		int[] restoredRequestNodeIndices;
+		int restoredTime;
+		int restoredEventId;
+		int restoredEventTimeToLive;
+		int restoredRoutingTableCapacity;
+		int index;
+		int time;
+		int policy;
+		int size;
+		
+		if(in.readInt() != CHECKPOINT_MAGIC){
+			throw new IOException("not a checkpoint");
+		}else if(in.readInt() != CHECKPOINT_VERSION){
+			throw new IOException("unsupported checkpoint version");
+		}else if(in.readLong() != seed || in.readInt() != updateLimit ||
+				in.readInt() != eventChanceRange || in.readInt() != agentChanceRange ||
+				in.readInt() != requestIntervalRange || in.readInt() != numberOfRequestNodes){
+			throw new IOException("checkpoint of a field with other arguments");
+		}
+		nodes = new Node[in.readInt()];
+		if(nodes.length != numberOfNodes){
+			throw new IOException("checkpoint of another node network");
+		}
+		for(int i=0; i<nodes.length; i++){
+			index = nodeIndices.get(Position.toLong(in.readInt(), in.readInt()));
+			if(index == LongIntMap.NO_VALUE){
+				throw new IOException("checkpoint of another node network");
+			}
+			nodes[i] = nodeArray[index];
+		}
+		in.setNodes(nodes);
+		
+		restoredTime = in.readInt();
+		restoredEventId = in.readInt();
+		restoredEventTimeToLive = in.readInt();
+		restoredRoutingTableCapacity = in.readInt();
+		policy = in.readInt();
+		if(policy < 0 || policy >= policies.length){
+			throw new IOException("unknown eviction policy in checkpoint: " + policy);
+		}
+		restoredRandom = new SplitMix64(in.readLong(), in.readLong());
+		restoredRequestNodeIndices = new int[in.readInt()];
+		for(int i=0; i<restoredRequestNodeIndices.length; i++){
+			restoredRequestNodeIndices[i] = readNode(in, nodes).getIndex();
+		}
+		Arrays.sort(restoredRequestNodeIndices);
+		size = in.readInt();
+		restoredEventSchedule = new EventSchedule(numberOfNodes);
+		restoredNextEventTimes = new int[nextEventTimes.length];
+		Arrays.fill(restoredNextEventTimes, -1);
+		for(int i=0; i<size; i++){
+			time = in.readInt();
+			index = readNode(in, nodes).getIndex();
+			restoredEventSchedule.schedule(time, index);
+			restoredNextEventTimes[index] = time;
+		}
+		
+		randoms = new SplitMix64[nodes.length];
+		states = new Node.CheckpointState[nodes.length];
+		for(int i=0; i<nodes.length; i++){
+			randoms[i] = new SplitMix64(in.readLong(), in.readLong());
+			states[i] = nodes[i].readCheckpoint(in);
+		}
+		if(!in.isFinished()){
+			throw new IOException("unexpected data at the end of the checkpoint");
+		}
+		
+		setCurrentTime(restoredTime);
+		eventId = restoredEventId;
+		eventTimeToLive = restoredEventTimeToLive;
+		routingTableCapacity = restoredRoutingTableCapacity;
+		evictionPolicy = policies[policy];
+		random = restoredRandom;
+		requestNodeIndices = restoredRequestNodeIndices;
+		eventSchedule = restoredEventSchedule;
+		nextEventTimes = restoredNextEventTimes;
+		Arrays.fill(activeNodes, 0);
+		for(int i=0; i<nodes.length; i++){
+			randomArray[nodes[i].getIndex()] = randoms[i];
+			if(states[i].restore().hasPendingWork()){
+				activateNode(nodes[i]);
+			}
+		}
+		numberOfActiveNodes = 0;
+	}
+	
+	/*
+	 * Helper method.
+	 * 
+	 * Reads the index of a node within the checkpoint.
+	 * */
+	private static Node readNode(CheckpointInput in, Node[] nodes) throws IOException{
+		int index = in.readInt();
+		
+		if(index < 0 || index >= nodes.length){
+			throw new IOException("unknown node in checkpoint: " + index);
+		}
+		return nodes[index];
+	}
+	
 	/*
 	 * Helper method.
 	 * 
@@ -1,10 +1,17 @@
 package surrounding;
 
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * The <code>FieldRunner</code> class implements the <code>Runnable</code> interface.
  * The class itself is the cogwheel of the simulation; it makes sure that the simulation
- * doesn't progress too fast.
- * 
+ * doesn't progress too fast.</br>
+ * </br>
+ * A <code>FieldRunner</code> created with <code>UNCAPPED_UPDATES_PER_SECOND</code>
+ * runs in batch mode instead, updating the <code>Field</code> back-to-back as
+ * fast as possible. Either way the achieved amount of updates per second is reported
+ * when the simulation ends.
+ *
  * @author  Alexander Beliaev
  * @version 1.0
  * @since   2016-05-19
@@ -12,9 +19,12 @@ package surrounding;
 public class FieldRunner implements Runnable{
 	
 	public static final int DEFAULT_UPDATES_PER_SECOND = 1000;
+	public static final int UNCAPPED_UPDATES_PER_SECOND = Integer.MAX_VALUE;
 	
 	private volatile boolean isRunning = true;
+	private volatile double measuredUpdatesPerSecond;
 	private final int updateMargin;
+	private final boolean isPaced;
 	private Field field;
 	
 	/**
@@ -34,7 +44,9 @@ public class FieldRunner implements Runnable{
 	 * <p>
 	 * Creates a <code>FieldRunner</code> object for the specified <code>Field</code>,
 	 *  and the upper bound on the amount of updates which are allowed per second.
-	 * The actual amount of updates can be lower than this amount.
+	 * The actual amount of updates can be lower than this amount. With
+	 * <code>UNCAPPED_UPDATES_PER_SECOND</code> there is no upper bound, and the
+	 * updates are run back-to-back.
 	 * </p>
 	 * @param field the <code>Field</code> object which the <code>FieldRunner</code> is
 	 * supposed to run.
@@ -46,6 +58,7 @@ public class FieldRunner implements Runnable{
 	public FieldRunner(Field field, int updatesPerSecond)throws IllegalArgumentException{
 		if(updatesPerSecond > 0){
 			this.field = field;
+			isPaced = updatesPerSecond != UNCAPPED_UPDATES_PER_SECOND;
 			updateMargin = 1000000000 / updatesPerSecond;
 		}else{
 			throw new IllegalArgumentException();
@@ -54,33 +67,72 @@ public class FieldRunner implements Runnable{
 	
 	/**
 	 * <p>
-	 * Starts a simulation on a <code>Field</code>.
+	 * Starts a simulation on a <code>Field</code>. While waiting for the next
+	 * update the thread is parked, rather than kept busy. When the simulation
+	 * ends the achieved amount of updates per second is printed.
 	 * </p>
 	 * @throws java.lang.IllegalStateException if the <code>Field</code> doesn't contain
 	 * a node network.
 	 */
 	@Override
 	public void run() throws IllegalStateException{
-		long lastUpdateTime = System.nanoTime();
+		long startTime;
+		long lastUpdateTime;
+		long waitTime;
+		int startUpdate;
 		
 		if(!field.getHasLoadedNodeNetwork()){
 			throw new IllegalStateException("Aborted attempt to run a simulation of"
 					+ " Field which hasn't loaded a node network.");
 		}else{
 			field.setSimulationIsRunning(true);
+			startUpdate = field.getCurrentTime();
+			startTime = lastUpdateTime = System.nanoTime();
 			while(isRunning){
-				while(System.nanoTime() > lastUpdateTime){
-					if(!field.getSimulationIsRunning()){
-						shutDown();
-						break;
+				if(!field.getSimulationIsRunning()){
+					shutDown();
+					break;
+				}
+				if(isPaced){
+					waitTime = lastUpdateTime - System.nanoTime();
+					if(waitTime > 0){
+						LockSupport.parkNanos(waitTime);
+						continue;
 					}
-					field.update();
 					lastUpdateTime += updateMargin;
 				}
+				field.update();
 			}
+			report(field.getCurrentTime() - startUpdate, System.nanoTime() - startTime);
 		}
 	}
 	
+	/*
+	 * Helper method.
+	 *
+	 * Stores and prints the achieved amount of updates per second.
+	 * */
+	private void report(int updates, long elapsedTime){
+		double seconds = elapsedTime / 1000000000.0;
+		
+		measuredUpdatesPerSecond = seconds > 0 ? updates / seconds : 0;
+		System.out.println(updates + " updates in " + String.format("%.3f", seconds)
+				+ " seconds (" + String.format("%.1f", measuredUpdatesPerSecond)
+				+ " updates / second)");
+	}
+	
+	/**
+	 * <p>
+	 * Returns the amount of updates per second achieved by the latest simulation
+	 * run by this <code>FieldRunner</code>, measured in wall-clock time.
+	 * </p>
+	 * @return the achieved amount of updates per second, or 0 if no simulation
+	 * has been run yet.
+	 */
+	public double getMeasuredUpdatesPerSecond(){
+		return measuredUpdatesPerSecond;
+	}
+	
 	/**
 	 * <p>
 	 * Tells the thread where the simulation is running on, to stop.
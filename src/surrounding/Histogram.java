@@ -0,0 +1,157 @@
+package surrounding;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * The <code>Histogram</code> class counts how many recorded values fall within
+ * each power of two, i.e. the values 0, 1, 2-3, 4-7 and so on each have a bucket of
+ * their own. The buckets are striped counters, so values can be recorded from several
+ * threads at once without the threads waiting for each other.</br>
+ * </br>
+ * A percentile is given as the greatest value of the bucket it falls within, hence
+ * it may be up to twice the actual value.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see SimulationMetrics
+ * */
+public class Histogram{
+	
+	private static final int NUMBER_OF_BUCKETS = 64;
+	
+	private final LongAdder[] buckets;
+	private final LongAdder sum;
+	private final LongAccumulator max;
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>Histogram</code> object.
+	 * </p>
+	 */
+	public Histogram(){
+		buckets = new LongAdder[NUMBER_OF_BUCKETS];
+		for(int i=0; i<buckets.length; i++){
+			buckets[i] = new LongAdder();
+		}
+		sum = new LongAdder();
+		max = new LongAccumulator(new LongBinaryOperator(){
+			@Override
+			public long applyAsLong(long left, long right){
+				return Math.max(left, right);
+			}
+		}, 0);
+	}
+	
+	/**
+	 * <p>
+	 * Records the specified value.
+	 * </p>
+	 * @param value the value, which can't be negative.
+	 * @throws java.lang.IllegalArgumentException if the value is negative.
+	 */
+	public void record(long value) throws IllegalArgumentException{
+		if(value < 0){
+			throw new IllegalArgumentException("value can not be negative");
+		}
+		buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of recorded values.
+	 * </p>
+	 * @return the number of recorded values.
+	 */
+	public long getCount(){
+		long count = 0;
+		
+		for(LongAdder bucket : buckets){
+			count += bucket.sum();
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the sum of the recorded values.
+	 * </p>
+	 * @return the sum of the recorded values.
+	 */
+	public long getSum(){
+		return sum.sum();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the mean of the recorded values.
+	 * </p>
+	 * @return the mean, or 0 if no values have been recorded.
+	 */
+	public double getMean(){
+		long count = getCount();
+		
+		return count == 0 ? 0 : (double)getSum() / count;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the greatest recorded value.
+	 * </p>
+	 * @return the greatest value, or 0 if no values have been recorded.
+	 */
+	public long getMax(){
+		return max.get();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the value below which the specified percentage of the recorded
+	 * values fall, rounded up to the greatest value of its bucket.
+	 * </p>
+	 * @param percentile the percentage, between 0 and 100.
+	 * @return the value, or 0 if no values have been recorded.
+	 * @throws java.lang.IllegalArgumentException if the percentage isn't between 0 and 100.
+	 */
+	public long getValueAtPercentile(double percentile) throws IllegalArgumentException{
+		long[] counts = new long[buckets.length];
+		long count = 0;
+		long target;
+		
+		if(!(percentile >= 0 && percentile <= 100)){
+			throw new IllegalArgumentException("percentile must be between 0 and 100");
+		}
+		for(int i=0; i<buckets.length; i++){
+			counts[i] = buckets[i].sum();
+			count += counts[i];
+		}
+		target = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+		for(int i=0; i<counts.length; i++){
+			target -= counts[i];
+			if(target <= 0){
+				return Math.min(i == 0 ? 0 : (1L << i) - 1, getMax());
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * <p>
+	 * Forgets every recorded value. Values recorded at the same time may or
+	 * may not be forgotten.
+	 * </p>
+	 */
+	public void reset(){
+		for(LongAdder bucket : buckets){
+			bucket.reset();
+		}
+		sum.reset();
+		max.reset();
+	}
+}
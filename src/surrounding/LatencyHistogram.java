@@ -0,0 +1,181 @@
+package surrounding;
+
+import java.util.Arrays;
+
+/**
+ * The <code>LatencyHistogram</code> class counts recorded values with a bounded
+ * relative error, the way an HdrHistogram does. The values are split into ranges by
+ * power of two, and each range into the same number of equally wide buckets, so a
+ * value is told apart from any value more than 1/2<sup>precision - 1</sup> of it
+ * away. With the default precision of 8 that is less than 1%, over the whole range
+ * of <code>long</code>, with all the buckets allocated once.</br>
+ * </br>
+ * Unlike <code>Histogram</code> the class is meant to be recorded into by one
+ * thread at a time. It is synchronized, so it can still be read while it is
+ * being recorded into.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see RequestLatency
+ * */
+public class LatencyHistogram{
+	
+	/**
+	 * The precision used unless otherwise specified.
+	 */
+	public static final int DEFAULT_PRECISION = 8;
+	
+	private final int precision;
+	private final int halfBucketCount;
+	private final long[] counts;
+	private long count;
+	private long sum;
+	private long min;
+	private long max;
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>LatencyHistogram</code> object with the default precision.
+	 * </p>
+	 */
+	public LatencyHistogram(){
+		this(DEFAULT_PRECISION);
+	}
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>LatencyHistogram</code> object, splitting every power
+	 * of two into 2<sup>precision - 1</sup> buckets.
+	 * </p>
+	 * @param precision the precision, in bits.
+	 * @throws java.lang.IllegalArgumentException if the precision isn't between 1 and 16.
+	 */
+	public LatencyHistogram(int precision) throws IllegalArgumentException{
+		if(precision < 1 || precision > 16){
+			throw new IllegalArgumentException("precision must be between 1 and 16");
+		}
+		this.precision = precision;
+		halfBucketCount = 1 << (precision - 1);
+		counts = new long[(65 - precision) * halfBucketCount];
+		min = Long.MAX_VALUE;
+	}
+	
+	/**
+	 * <p>
+	 * Records the specified value.
+	 * </p>
+	 * @param value the value, which can't be negative.
+	 * @throws java.lang.IllegalArgumentException if the value is negative.
+	 */
+	public synchronized void record(long value) throws IllegalArgumentException{
+		int range;
+		
+		if(value < 0){
+			throw new IllegalArgumentException("value can not be negative");
+		}
+		range = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - precision);
+		counts[range * halfBucketCount + (int)(value >>> range)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of recorded values.
+	 * </p>
+	 * @return the number of recorded values.
+	 */
+	public synchronized long getCount(){
+		return count;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the mean of the recorded values.
+	 * </p>
+	 * @return the mean, or 0 if no values have been recorded.
+	 */
+	public synchronized double getMean(){
+		return count == 0 ? 0 : (double)sum / count;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the smallest recorded value.
+	 * </p>
+	 * @return the smallest value, or 0 if no values have been recorded.
+	 */
+	public synchronized long getMin(){
+		return count == 0 ? 0 : min;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the greatest recorded value.
+	 * </p>
+	 * @return the greatest value, or 0 if no values have been recorded.
+	 */
+	public synchronized long getMax(){
+		return max;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the value below which the specified percentage of the recorded
+	 * values fall. The value is the greatest value of its bucket, but no greater
+	 * than the greatest recorded value.
+	 * </p>
+	 * @param percentile the percentage, between 0 and 100.
+	 * @return the value, or 0 if no values have been recorded.
+	 * @throws java.lang.IllegalArgumentException if the percentage isn't between 0 and 100.
+	 */
+	public synchronized long getValueAtPercentile(double percentile)
+			throws IllegalArgumentException{
+		long target;
+		int range;
+		
+		if(!(percentile >= 0 && percentile <= 100)){
+			throw new IllegalArgumentException("percentile must be between 0 and 100");
+		}
+		target = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+		for(int i=0; i<counts.length && count>0; i++){
+			target -= counts[i];
+			if(target <= 0){
+				range = i < 2 * halfBucketCount ? 0 : (i / halfBucketCount) - 1;
+				return Math.min(((long)(i - range * halfBucketCount + 1) << range) - 1, max);
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * <p>
+	 * Forgets every recorded value.
+	 * </p>
+	 */
+	public synchronized void reset(){
+		Arrays.fill(counts, 0);
+		count = sum = max = 0;
+		min = Long.MAX_VALUE;
+	}
+	
+	/**
+	 * <p>
+	 * Returns a summary of the recorded values: the count, the 50th, 99th and
+	 * 99.9th percentiles, and the greatest value.
+	 * </p>
+	 * @return the summary.
+	 */
+	@Override
+	public synchronized String toString(){
+		return "count: " + count
+				+ ", p50: " + getValueAtPercentile(50)
+				+ ", p99: " + getValueAtPercentile(99)
+				+ ", p999: " + getValueAtPercentile(99.9)
+				+ ", max: " + max;
+	}
+}
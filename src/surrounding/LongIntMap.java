@@ -0,0 +1,201 @@
+package surrounding;
+
+import java.util.Arrays;
+
+/**
+ * The <code>LongIntMap</code> class maps primitive <code>long</code> keys to
+ * non-negative primitive <code>int</code> values, without boxing either or creating
+ * an entry object per mapping. The keys and values are kept in two parallel arrays,
+ * using open addressing with linear probing. A slot is free when its value is
+ * <code>NO_VALUE</code>, which is also what is returned for keys which aren't mapped.</br>
+ * </br>
+ * The <code>Field</code> uses it to find its nodes by their packed positions (see
+ * <code>Position.toLong()</code>), as indices into its array of nodes, and the
+ * <code>SpatialGrid</code> to find its cells.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field
+ * */
+class LongIntMap{
+	
+	/**
+	 * The value of keys which aren't mapped.
+	 */
+	static final int NO_VALUE = -1;
+	
+	private static final int DEFAULT_CAPACITY = 8;
+	
+	private long[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>LongIntMap</code> object.
+	 * </p>
+	 */
+	LongIntMap(){
+		this(DEFAULT_CAPACITY / 2);
+	}
+	
+	/**
+	 * <p>
+	 * Creates an empty <code>LongIntMap</code> object with room for the specified
+	 * number of mappings.
+	 * </p>
+	 * @param expectedSize the number of mappings.
+	 */
+	LongIntMap(int expectedSize){
+		int capacity = DEFAULT_CAPACITY;
+		
+		while(capacity / 2 < expectedSize){
+			capacity *= 2;
+		}
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		Arrays.fill(values, NO_VALUE);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of mappings in the map.
+	 * </p>
+	 * @return the number of mappings.
+	 */
+	int size(){
+		return size;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the value mapped to the specified key.
+	 * </p>
+	 * @param key the key.
+	 * @return the value, or <code>NO_VALUE</code> if the key isn't mapped.
+	 */
+	int get(long key){
+		for(int slot=slot(key); values[slot]!=NO_VALUE; slot=(slot+1)&mask){
+			if(keys[slot] == key){
+				return values[slot];
+			}
+		}
+		return NO_VALUE;
+	}
+	
+	/**
+	 * <p>
+	 * Maps the specified key to the specified value, replacing any
+	 * value previously mapped to the key.
+	 * </p>
+	 * @param key the key.
+	 * @param value the value.
+	 * @return the previous value, or <code>NO_VALUE</code> if the key wasn't mapped.
+	 * @throws java.lang.IllegalArgumentException if the value is negative.
+	 */
+	int put(long key, int value) throws IllegalArgumentException{
+		int slot;
+		int previous;
+		
+		if(value < 0){
+			throw new IllegalArgumentException("negative values can not be stored");
+		}
+		for(slot=slot(key); values[slot]!=NO_VALUE; slot=(slot+1)&mask){
+			if(keys[slot] == key){
+				previous = values[slot];
+				values[slot] = value;
+				return previous;
+			}
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size > values.length / 2){
+			resize(values.length * 2);
+		}
+		
+		return NO_VALUE;
+	}
+	
+	/**
+	 * <p>
+	 * Removes the mapping of the specified key, if any. The mappings probed past
+	 * the freed slot are moved back into it, so no slot is left marked as removed.
+	 * </p>
+	 * @param key the key.
+	 * @return the removed value, or <code>NO_VALUE</code> if the key wasn't mapped.
+	 */
+	int remove(long key){
+		int slot;
+		int next;
+		int previous;
+		
+		for(slot=slot(key); values[slot]!=NO_VALUE; slot=(slot+1)&mask){
+			if(keys[slot] == key){
+				previous = values[slot];
+				next = (slot + 1) & mask;
+				while(values[next] != NO_VALUE){
+					if(((next - slot(keys[next])) & mask) >= ((next - slot) & mask)){
+						keys[slot] = keys[next];
+						values[slot] = values[next];
+						slot = next;
+					}
+					next = (next + 1) & mask;
+				}
+				values[slot] = NO_VALUE;
+				size--;
+				return previous;
+			}
+		}
+		return NO_VALUE;
+	}
+	
+	/**
+	 * <p>
+	 * Removes every mapping.
+	 * </p>
+	 */
+	void clear(){
+		Arrays.fill(values, NO_VALUE);
+		size = 0;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Spreads the bits of the key. Both halves of a packed position take part
+	 * before the halves are folded, so positions mirrored in x and y don't
+	 * end up in the same slot.
+	 * */
+	private int slot(long key){
+		long hash = key * 0x9E3779B97F4A7C15L;
+		
+		return (int)(hash ^ (hash >>> 32)) & mask;
+	}
+	
+	/*
+	 * Helper method.
+	 * */
+	private void resize(int capacity){
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		int slot;
+		
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		Arrays.fill(values, NO_VALUE);
+		for(int i=0; i<oldValues.length; i++){
+			if(oldValues[i] != NO_VALUE){
+				slot = slot(oldKeys[i]);
+				while(values[slot] != NO_VALUE){
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,438 @@
+package surrounding;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import nodebasis.Node;
+
+/**
+ * The <code>NodeStore</code> class holds the nodes of a node network together with
+ * their positions and signal strengths, the latter kept in parallel arrays of primitive
+ * <code>int</code>s indexed by node index. Whatever only needs the geometry of the
+ * network, such as finding the neighbours of every node, reads the arrays from start to
+ * end rather than following a reference to each node and its position.</br>
+ * </br>
+ * The store also holds the state of every node which is looked at each update, in the
+ * same way: until when the node is busy, how many tasks, active requests and events
+ * it holds, the size of its routing table, and when it next has anything to expire.
+ * A <code>Node</code> is a view of its place in the store, reading and writing this
+ * state there, while its queues and maps stay with the node. The <code>Field</code>
+ * therefore tells which active nodes have anything to do during an update, and which
+ * nodes are left without anything to do afterwards, from the arrays alone, and only
+ * follows a reference to the nodes which do. A node which isn't part of a loaded node
+ * network is the only node of a store of its own.</br>
+ * </br>
+ * The nodes are either kept in the order given, or in spatial order, i.e. sorted by the
+ * Morton code (Z-order) of their positions. In spatial order nodes close to one another
+ * in the field mostly get indices close to one another, so the nodes a message passes
+ * through, and the neighbours of a node, are near each other in every array indexed by
+ * node index.</br>
+ * </br>
+ * Nodes may be added to and removed from the store after it has been created. The arrays
+ * then have room for more nodes than the store holds, and grow by doubling, so a change
+ * doesn't copy the whole store.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field#setSpatialNodeOrder(boolean)
+ * @see SpatialGrid
+ * @see nodebasis.Node#setStore(NodeStore, int)
+ * */
+public final class NodeStore{
+	
+	private Node[] nodes;
+	private int[] x;
+	private int[] y;
+	private int[] signalStrength;
+	private int[] busyUntil;
+	private int[] numberOfTasks;
+	private int[] numberOfRequests;
+	private int[] numberOfEvents;
+	private int[] routingTableSize;
+	private int[] dueTime;
+	private int maxSignalStrength;
+	private int size;
+	
+	/**
+	 * <p>
+	 * Creates a <code>NodeStore</code> object holding the given nodes, in the
+	 * order given. The array is kept rather than copied. The state of the nodes
+	 * is taken over once each node is made a view of the store.
+	 * </p>
+	 * @param nodes the nodes.
+	 */
+	public NodeStore(Node[] nodes){
+		int max = 0;
+		
+		this.nodes = nodes;
+		x = new int[nodes.length];
+		y = new int[nodes.length];
+		signalStrength = new int[nodes.length];
+		busyUntil = new int[nodes.length];
+		numberOfTasks = new int[nodes.length];
+		numberOfRequests = new int[nodes.length];
+		numberOfEvents = new int[nodes.length];
+		routingTableSize = new int[nodes.length];
+		dueTime = new int[nodes.length];
+		Arrays.fill(busyUntil, -1);
+		Arrays.fill(dueTime, Integer.MIN_VALUE);
+		for(int i=0; i<nodes.length; i++){
+			x[i] = nodes[i].getPosition().getX();
+			y[i] = nodes[i].getPosition().getY();
+			signalStrength[i] = nodes[i].getSignalStrength();
+			max = Math.max(max, signalStrength[i]);
+		}
+		maxSignalStrength = max;
+		size = nodes.length;
+	}
+	
+	/**
+	 * <p>
+	 * Creates a <code>NodeStore</code> object holding the given nodes, sorted by the
+	 * Morton code of their positions relative to the lowest coordinates amongst them.
+	 * When the codes leave room for the indices of the nodes, each code is sorted
+	 * together with its index as a single <code>long</code>.
+	 * </p>
+	 * @param nodes the nodes.
+	 * @return the node store.
+	 */
+	static NodeStore inSpatialOrder(Collection<Node> nodes){
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		
+		for(Node node : nodes){
+			minX = Math.min(minX, node.getPosition().getX());
+			minY = Math.min(minY, node.getPosition().getY());
+		}
+		return new NodeStore(sortInSpatialOrder(nodes, minX, minY));
+	}
+	
+	/**
+	 * <p>
+	 * Returns the given nodes sorted by the Morton code of their positions relative
+	 * to the specified coordinates, which must be no higher than the coordinates of
+	 * any of the nodes. The nodes of part of a node network are thereby sorted the
+	 * same way as the whole node network, given its lowest coordinates.
+	 * </p>
+	 * @param nodes the nodes.
+	 * @param minX the x coordinate the positions are taken relative to.
+	 * @param minY the y coordinate the positions are taken relative to.
+	 * @return the sorted nodes.
+	 */
+	static Node[] sortInSpatialOrder(Collection<Node> nodes, int minX, int minY){
+		Node[] sorted = nodes.toArray(new Node[nodes.size()]);
+		final long[] codes = new long[sorted.length];
+		Integer[] order;
+		Node[] ordered = new Node[sorted.length];
+		long codeBits = 0;
+		int indexBits = 32 - Integer.numberOfLeadingZeros(sorted.length);
+		
+		for(int i=0; i<sorted.length; i++){
+			codes[i] = getMortonCode(sorted[i].getPosition().getX() - minX,
+					sorted[i].getPosition().getY() - minY);
+			codeBits |= codes[i];
+		}
+		
+		if(codeBits >>> (63 - indexBits) == 0){
+			for(int i=0; i<codes.length; i++){
+				codes[i] = (codes[i] << indexBits) | i;
+			}
+			Arrays.sort(codes);
+			for(int i=0; i<ordered.length; i++){
+				ordered[i] = sorted[(int)(codes[i] & ((1L << indexBits) - 1))];
+			}
+			return ordered;
+		}
+		
+		order = new Integer[sorted.length];
+		for(int i=0; i<order.length; i++){
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>(){
+			@Override
+			public int compare(Integer a, Integer b){
+				return Long.compareUnsigned(codes[a], codes[b]);
+			}
+		});
+		for(int i=0; i<ordered.length; i++){
+			ordered[i] = sorted[order[i]];
+		}
+		return ordered;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of nodes in the store.
+	 * </p>
+	 * @return the number of nodes.
+	 */
+	int size(){
+		return size;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the nodes of the store, by index. The array is the one held by the
+	 * store, rather than a copy, and is replaced by a larger one when a node is added
+	 * to a full store. Any room beyond the nodes of the store is left <code>null</code>.
+	 * </p>
+	 * @return the nodes.
+	 */
+	Node[] getNodes(){
+		return nodes;
+	}
+	
+	/**
+	 * <p>
+	 * Adds a node to the end of the store, making room for it if needed.
+	 * </p>
+	 * @param node the node.
+	 * @return the index of the node.
+	 */
+	int add(Node node){
+		int capacity;
+		
+		if(size == nodes.length){
+			capacity = Math.max(16, nodes.length * 2);
+			nodes = Arrays.copyOf(nodes, capacity);
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			signalStrength = Arrays.copyOf(signalStrength, capacity);
+			busyUntil = Arrays.copyOf(busyUntil, capacity);
+			numberOfTasks = Arrays.copyOf(numberOfTasks, capacity);
+			numberOfRequests = Arrays.copyOf(numberOfRequests, capacity);
+			numberOfEvents = Arrays.copyOf(numberOfEvents, capacity);
+			routingTableSize = Arrays.copyOf(routingTableSize, capacity);
+			dueTime = Arrays.copyOf(dueTime, capacity);
+		}
+		nodes[size] = node;
+		x[size] = node.getPosition().getX();
+		y[size] = node.getPosition().getY();
+		setSignalStrength(size, node.getSignalStrength());
+		busyUntil[size] = -1;
+		setState(size, 0, 0, 0, 0, Integer.MIN_VALUE);
+		return size++;
+	}
+	
+	/**
+	 * <p>
+	 * Moves the node with the specified index, and its state, to another index,
+	 * replacing the node held there.
+	 * </p>
+	 * @param from the index of the node to move.
+	 * @param to the index to move it to.
+	 */
+	void move(int from, int to){
+		nodes[to] = nodes[from];
+		x[to] = x[from];
+		y[to] = y[from];
+		signalStrength[to] = signalStrength[from];
+		busyUntil[to] = busyUntil[from];
+		setState(to, numberOfTasks[from], numberOfRequests[from], numberOfEvents[from],
+				routingTableSize[from], dueTime[from]);
+	}
+	
+	/**
+	 * <p>
+	 * Removes the last node of the store.
+	 * </p>
+	 */
+	void removeLast(){
+		nodes[--size] = null;
+	}
+	
+	/**
+	 * <p>
+	 * Sets the signal strength of the node with the specified index. The greatest
+	 * signal strength is only ever raised, so it is the greatest signal strength any
+	 * node of the store has had.
+	 * </p>
+	 * @param index the index.
+	 * @param signalStrength the signal strength.
+	 */
+	void setSignalStrength(int index, int signalStrength){
+		this.signalStrength[index] = signalStrength;
+		maxSignalStrength = Math.max(maxSignalStrength, signalStrength);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the x coordinate of the node with the specified index.
+	 * </p>
+	 * @param index the index.
+	 * @return the x coordinate.
+	 */
+	int getX(int index){
+		return x[index];
+	}
+	
+	/**
+	 * <p>
+	 * Returns the y coordinate of the node with the specified index.
+	 * </p>
+	 * @param index the index.
+	 * @return the y coordinate.
+	 */
+	int getY(int index){
+		return y[index];
+	}
+	
+	/**
+	 * <p>
+	 * Returns the signal strength of the node with the specified index.
+	 * </p>
+	 * @param index the index.
+	 * @return the signal strength.
+	 */
+	int getSignalStrength(int index){
+		return signalStrength[index];
+	}
+	
+	/**
+	 * <p>
+	 * Returns the time until which the node with the specified index is busy,
+	 * or -1 if it has never been busy.
+	 * </p>
+	 * @param index the index.
+	 * @return the time until which the node is busy.
+	 */
+	public int getBusyUntil(int index){
+		return busyUntil[index];
+	}
+	
+	/**
+	 * <p>
+	 * Sets the time until which the node with the specified index is busy.
+	 * </p>
+	 * @param index the index.
+	 * @param busyUntil the time until which the node is busy.
+	 */
+	public void setBusyUntil(int index, int busyUntil){
+		this.busyUntil[index] = busyUntil;
+	}
+	
+	/**
+	 * <p>
+	 * Sets what the node with the specified index holds. Called by the node
+	 * whenever any of it changes.
+	 * </p>
+	 * @param index the index.
+	 * @param numberOfTasks the number of tasks of the node.
+	 * @param numberOfRequests the number of active requests of the node.
+	 * @param numberOfEvents the number of events of the node which are yet to expire.
+	 * @param routingTableSize the number of entries of the routing table of the node.
+	 * @param dueTime the earliest time at which an update of the node would expire
+	 * anything, or cut down its routing table.
+	 */
+	public void setState(int index, int numberOfTasks, int numberOfRequests,
+			int numberOfEvents, int routingTableSize, int dueTime){
+		this.numberOfTasks[index] = numberOfTasks;
+		this.numberOfRequests[index] = numberOfRequests;
+		this.numberOfEvents[index] = numberOfEvents;
+		this.routingTableSize[index] = routingTableSize;
+		this.dueTime[index] = dueTime;
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the node with the specified index has anything to do during
+	 * an update (see <code>Node.hasPendingWork()</code>).
+	 * </p>
+	 * @param index the index.
+	 * @return <code>true</code> if the node has anything to do, <code>false</code> otherwise.
+	 */
+	public boolean hasPendingWork(int index){
+		return (numberOfTasks[index] | numberOfRequests[index] | numberOfEvents[index]) != 0;
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether an update of the node with the specified index at the
+	 * specified time would leave the node as it is, i.e. if it has no tasks or
+	 * is busy, and has nothing to expire.
+	 * </p>
+	 * @param index the index.
+	 * @param time the time of the update.
+	 * @return <code>true</code> if the update can be skipped.
+	 */
+	boolean isIdle(int index, int time){
+		return (numberOfTasks[index] == 0 || busyUntil[index] >= time) && dueTime[index] > time;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of tasks of the node with the specified index.
+	 * </p>
+	 * @param index the index.
+	 * @return the number of tasks.
+	 */
+	int getNumberOfTasks(int index){
+		return numberOfTasks[index];
+	}
+	
+	/**
+	 * <p>
+	 * Returns the size of the routing table of the node with the specified index.
+	 * </p>
+	 * @param index the index.
+	 * @return the number of entries of the routing table.
+	 */
+	int getRoutingTableSize(int index){
+		return routingTableSize[index];
+	}
+	
+	/**
+	 * <p>
+	 * Makes every node due for an update, so it works out anew when it next
+	 * has anything to expire. Called when the time events live, or the capacity
+	 * of the routing tables, is changed.
+	 * </p>
+	 */
+	void clearDueTimes(){
+		Arrays.fill(dueTime, Integer.MIN_VALUE);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the greatest signal strength amongst the nodes, or 0 if
+	 * the store is empty. Once a node has been removed or weakened, the value
+	 * may be greater than the signal strength of any node left.
+	 * </p>
+	 * @return the greatest signal strength.
+	 */
+	int getMaxSignalStrength(){
+		return maxSignalStrength;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the Morton code of the specified coordinates, i.e. their bits
+	 * interleaved with the bits of the x coordinate in the even places. The
+	 * coordinates are taken to be unsigned.
+	 * </p>
+	 * @param x the x coordinate.
+	 * @param y the y coordinate.
+	 * @return the Morton code, to be compared as an unsigned number.
+	 */
+	static long getMortonCode(int x, int y){
+		return spreadBits(x) | (spreadBits(y) << 1);
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Spreads the 32 bits of the value out over the even places of a long.
+	 * */
+	private static long spreadBits(int value){
+		long bits = value & 0xFFFFFFFFL;
+		
+		bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+		bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+		bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		bits = (bits | (bits << 2)) & 0x3333333333333333L;
+		bits = (bits | (bits << 1)) & 0x5555555555555555L;
+		return bits;
+	}
+}
@@ -0,0 +1,797 @@
+package surrounding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import coordination.Position;
+import nodebasis.CheckpointInput;
+import nodebasis.CheckpointOutput;
+import nodebasis.Node;
+import nodebasis.NodeIndexing;
+
+/**
+ * The <code>RegionLink</code> class connects the <code>Field</code> of one process to
+ * the fields of the other processes of a distributed simulation. The node network is
+ * divided into regions, and every process only holds and updates the nodes of its own
+ * region, together with a halo of the nodes of other regions within range of them.
+ * When the processes connect, they tell one another how many nodes they hold, and the
+ * nodes of each region are given the indices following the nodes of the regions before
+ * it, in spatial order. Each process then asks the other processes for the indices of
+ * the nodes of its halo.</br>
+ * </br>
+ * Nodes are passed between the processes as their indices within the whole node
+ * network (see <code>NodeIndexing</code>). A node of the region or of its halo is read
+ * back as the node itself, while any other node, such as the node where an event
+ * occurred, or a node a request message has passed through, is only known by its index,
+ * and read as a placeholder holding nothing but the index (see <code>Node(int)</code>).
+ * The same placeholder is read for an index every time.</br>
+ * </br>
+ * The processes are connected to one another by a <code>SocketChannel</code> each,
+ * and meet at the following exchanges every update:
+ * <ul>
+ * 		<li>the number of events at each region, for every process to give its events
+ * 			the same ids as a single process would;</li>
+ * 		<li>the messages sent to nodes of other regions;</li>
+ * 		<li>whether each of those messages was accepted.</li>
+ * </ul>
+ * Every exchange is a barrier: a process doesn't move on before it has heard from every
+ * other process. The messages are written as a checkpoint (see <code>CheckpointOutput</code>),
+ * with each routing table written once. Each exchange is
+ * framed by its length, and all channels are written to and read from at the same time
+ * through a <code>Selector</code>, so no two processes wait on one another to read.</br>
+ * </br>
+ * The nodes held by a process, i.e. the nodes of the region and its halo, are kept in
+ * the order of their indices within the whole node network, so the nodes of the halo
+ * belonging to regions before the own region come first, and the ones belonging to
+ * regions after it last. A node is handed its messages in the order of the indices
+ * of their senders, so the messages from regions before the own region are delivered
+ * before the messages sent within the region, and the messages from regions after it
+ * after them.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field#distribute(int, InetSocketAddress[], java.util.HashMap, java.util.HashMap)
+ * */
+class RegionLink implements NodeIndexing{
+	
+	private static final int HANDSHAKE = 0x52474E32;
+	private static final long CONNECT_TIMEOUT = 60000;
+	private static final long RETRY_INTERVAL = 50;
+	
+	private final int region;
+	private final int[] regionStarts;
+	private final int minX;
+	private final int minY;
+	private final SocketChannel[] channels;
+	private final Selector selector;
+	private final CheckpointInput[] incoming;
+	private final int[] numberOfIncoming;
+	private final byte[][] accepted;
+	private final long[][] sent;
+	private final int[] numberOfSent;
+	private final Map<Integer, Node> placeholders;
+	private final LongIntMap haloIndices;
+	private Node[] nodes;
+	private int[] globalIndices;
+	private int firstLocalIndex;
+	
+	/*
+	 * Creates a link over already connected channels.
+	 * */
+	private RegionLink(int region, int[] regionStarts, int minX, int minY,
+			SocketChannel[] channels) throws IOException{
+		int numberOfRegions = channels.length;
+		
+		this.region = region;
+		this.regionStarts = regionStarts;
+		this.minX = minX;
+		this.minY = minY;
+		this.channels = channels;
+		selector = Selector.open();
+		incoming = new CheckpointInput[numberOfRegions];
+		numberOfIncoming = new int[numberOfRegions];
+		accepted = new byte[numberOfRegions][0];
+		sent = new long[numberOfRegions][16];
+		numberOfSent = new int[numberOfRegions];
+		placeholders = new HashMap<Integer, Node>();
+		haloIndices = new LongIntMap();
+		nodes = new Node[0];
+		globalIndices = new int[0];
+		for(int i=0; i<numberOfRegions; i++){
+			if(i != region){
+				channels[i].configureBlocking(false);
+				channels[i].setOption(StandardSocketOptions.TCP_NODELAY, true);
+				channels[i].register(selector, 0, i);
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Connects the specified region to every other region, waiting until each of
+	 * them is up. Every region listens at its own address, connects to the regions
+	 * before it, and is connected to by the regions after it. The regions tell one
+	 * another the number of nodes they hold, and the lowest coordinates amongst them.
+	 * </p>
+	 * @param region the region of this process.
+	 * @param addresses the address of every region.
+	 * @param numberOfNodes the number of nodes of the region.
+	 * @param minX the lowest x coordinate amongst the nodes of the region.
+	 * @param minY the lowest y coordinate amongst the nodes of the region.
+	 * @return the link.
+	 * @throws java.io.IOException if the regions couldn't be connected in time, or
+	 * don't agree on the number of regions.
+	 */
+	static RegionLink connect(int region, InetSocketAddress[] addresses,
+			int numberOfNodes, int minX, int minY) throws IOException{
+		SocketChannel[] channels = new SocketChannel[addresses.length];
+		int[][] handshakes = new int[addresses.length][];
+		int[] regionStarts = new int[addresses.length + 1];
+		long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+		ServerSocketChannel server = ServerSocketChannel.open();
+		SocketChannel channel;
+		int[] handshake;
+		long totalNumberOfNodes = 0;
+		
+		handshakes[region] = new int[]{region, numberOfNodes, minX, minY};
+		try{
+			server.bind(addresses[region]);
+			for(int i=0; i<region; i++){
+				channels[i] = connect(addresses[i], deadline);
+				writeHandshake(channels[i], addresses.length, handshakes[region]);
+				handshakes[i] = readHandshake(channels[i], addresses.length);
+				if(handshakes[i][0] != i){
+					throw new IOException("region " + i + " answered as region "
+							+ handshakes[i][0]);
+				}
+			}
+			server.configureBlocking(false);
+			for(int i=region+1; i<addresses.length; i++){
+				channel = accept(server, deadline);
+				handshake = readHandshake(channel, addresses.length);
+				if(handshake[0] <= region || handshake[0] >= addresses.length ||
+						channels[handshake[0]] != null){
+					channel.close();
+					throw new IOException("unexpected connection from region " + handshake[0]);
+				}
+				channels[handshake[0]] = channel;
+				handshakes[handshake[0]] = handshake;
+				writeHandshake(channel, addresses.length, handshakes[region]);
+			}
+			for(int i=0; i<addresses.length; i++){
+				totalNumberOfNodes += handshakes[i][1];
+				if(handshakes[i][1] < 0 || totalNumberOfNodes > Integer.MAX_VALUE){
+					throw new IOException("too many nodes in the regions");
+				}
+				regionStarts[i + 1] = (int)totalNumberOfNodes;
+				minX = Math.min(minX, handshakes[i][2]);
+				minY = Math.min(minY, handshakes[i][3]);
+			}
+			return new RegionLink(region, regionStarts, minX, minY, channels);
+		}catch(IOException e){
+			for(SocketChannel openChannel : channels){
+				if(openChannel != null){
+					openChannel.close();
+				}
+			}
+			throw e;
+		}finally{
+			server.close();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of nodes of the whole node network.
+	 * </p>
+	 * @return the number of nodes.
+	 */
+	int getNumberOfNodes(){
+		return regionStarts[channels.length];
+	}
+	
+	/**
+	 * <p>
+	 * Returns the index of the first node of the region of this process within
+	 * the whole node network.
+	 * </p>
+	 * @return the index of the first node.
+	 */
+	int getFirstIndex(){
+		return regionStarts[region];
+	}
+	
+	/**
+	 * <p>
+	 * Returns the lowest x coordinate amongst the nodes of the whole node network,
+	 * which their spatial order is taken relative to.
+	 * </p>
+	 * @return the lowest x coordinate.
+	 */
+	int getMinX(){
+		return minX;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the lowest y coordinate amongst the nodes of the whole node network,
+	 * which their spatial order is taken relative to.
+	 * </p>
+	 * @return the lowest y coordinate.
+	 */
+	int getMinY(){
+		return minY;
+	}
+	
+	/**
+	 * <p>
+	 * Asks the other regions for the indices of the nodes at the specified positions,
+	 * i.e. the nodes of the halo of this region, and answers the same question from
+	 * every other region.
+	 * </p>
+	 * @param positions the packed positions of the nodes of the halo (see
+	 * <code>Position.toLong()</code>).
+	 * @param ownIndices the index of each node of this region, by packed position.
+	 * @return the indices of the nodes of the halo, in the order of their positions.
+	 * @throws java.io.IOException if a region couldn't be reached, or if a node of
+	 * the halo belongs to no other region, or to several.
+	 */
+	int[] findHalo(long[] positions, LongIntMap ownIndices) throws IOException{
+		ByteBuffer[] outgoing = new ByteBuffer[channels.length];
+		ByteBuffer[] received;
+		ByteBuffer question;
+		ByteBuffer answer;
+		int[] indices = new int[positions.length];
+		int index;
+		
+		question = ByteBuffer.allocate(8 * positions.length);
+		for(long position : positions){
+			question.putLong(position);
+		}
+		question.flip();
+		Arrays.fill(outgoing, question);
+		received = exchange(outgoing);
+		
+		for(int i=0; i<channels.length; i++){
+			if(i != region){
+				answer = ByteBuffer.allocate(received[i].remaining() / 2);
+				while(received[i].remaining() >= 8){
+					answer.putInt(ownIndices.get(received[i].getLong()));
+				}
+				answer.flip();
+				outgoing[i] = answer;
+			}
+		}
+		received = exchange(outgoing);
+		
+		Arrays.fill(indices, -1);
+		for(int i=0; i<channels.length; i++){
+			if(i == region){
+				continue;
+			}
+			answer = getPayload(received[i], 4 * positions.length);
+			for(int j=0; j<positions.length; j++){
+				index = answer.getInt(4 * j);
+				if(index == -1){
+					continue;
+				}else if(index < regionStarts[i] || index >= regionStarts[i + 1]){
+					throw new IOException("region " + i + " answered with node " + index
+							+ " outside it");
+				}else if(indices[j] != -1){
+					throw new IOException("the halo node at " + toString(positions[j])
+							+ " belongs to several regions");
+				}
+				indices[j] = index;
+			}
+		}
+		for(int j=0; j<positions.length; j++){
+			if(indices[j] == -1){
+				throw new IOException("the halo node at " + toString(positions[j])
+						+ " belongs to no other region");
+			}
+		}
+		return indices;
+	}
+	
+	/**
+	 * <p>
+	 * Sets the nodes held by this process, i.e. the nodes of its region and its halo,
+	 * together with the index of each of them within the whole node network. The
+	 * nodes must be in the order of those indices.
+	 * </p>
+	 * @param nodes the nodes, by index within this process.
+	 * @param globalIndices the index of each node within the whole node network.
+	 */
+	void setNodes(Node[] nodes, int[] globalIndices){
+		this.nodes = nodes;
+		this.globalIndices = globalIndices;
+		firstLocalIndex = 0;
+		haloIndices.clear();
+		for(int i=0; i<globalIndices.length; i++){
+			if(globalIndices[i] < regionStarts[region]){
+				firstLocalIndex++;
+			}
+			if(globalIndices[i] < regionStarts[region] || globalIndices[i] >= regionStarts[region + 1]){
+				haloIndices.put(globalIndices[i], i);
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the node with the specified index within this process
+	 * belongs to the region of this process, rather than to its halo.
+	 * </p>
+	 * @param index the index of the node.
+	 * @return <code>true</code> if the node belongs to this region.
+	 */
+	boolean isLocal(int index){
+		return index >= firstLocalIndex &&
+				index < firstLocalIndex + regionStarts[region + 1] - regionStarts[region];
+	}
+	
+	/**
+	 * <p>
+	 * Returns whether the specified node belongs to the region of this process. A
+	 * placeholder never does, although its index may well be the index of a node
+	 * of the region within this process.
+	 * </p>
+	 * @param node the node.
+	 * @return <code>true</code> if the node belongs to this region.
+	 */
+	boolean isLocal(Node node){
+		int index = node.getIndex();
+		
+		return isLocal(index) && nodes[index] == node;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the index of the specified node within the whole node network. A
+	 * placeholder already holds that index.
+	 * </p>
+	 * @param node the node.
+	 * @return the index.
+	 */
+	@Override
+	public int getIndexOf(Node node){
+		int index = node.getIndex();
+		
+		if(index >= 0 && index < nodes.length && nodes[index] == node){
+			return globalIndices[index];
+		}
+		return index;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the node with the specified index within the whole node network: the
+	 * node itself if it is held by this process, and a placeholder otherwise.
+	 * </p>
+	 * @param index the index.
+	 * @return the node.
+	 * @throws java.io.IOException if there is no node with the index.
+	 */
+	@Override
+	public Node getNode(int index) throws IOException{
+		int local;
+		Node placeholder;
+		
+		if(index < 0 || index >= getNumberOfNodes()){
+			throw new IOException("unknown node " + index);
+		}else if(index >= regionStarts[region] && index < regionStarts[region + 1]){
+			return nodes[firstLocalIndex + index - regionStarts[region]];
+		}
+		local = haloIndices.get(index);
+		if(local != LongIntMap.NO_VALUE){
+			return nodes[local];
+		}
+		placeholder = placeholders.get(index);
+		if(placeholder == null){
+			placeholder = new Node(index);
+			placeholders.put(index, placeholder);
+		}
+		return placeholder;
+	}
+	
+	/**
+	 * <p>
+	 * Hands the specified number to every other region, and returns the number
+	 * handed over by each region, including this one.
+	 * </p>
+	 * @param value the number.
+	 * @return the numbers, by region.
+	 * @throws java.io.IOException if a region couldn't be reached.
+	 */
+	int[] exchangeCounts(int value) throws IOException{
+		ByteBuffer[] outgoing = new ByteBuffer[channels.length];
+		ByteBuffer[] received;
+		int[] counts = new int[channels.length];
+		
+		for(int i=0; i<outgoing.length; i++){
+			outgoing[i] = ByteBuffer.allocate(4).putInt(0, value);
+		}
+		received = exchange(outgoing);
+		for(int i=0; i<counts.length; i++){
+			counts[i] = i == region ? value : getPayload(received[i], 4).getInt();
+		}
+		return counts;
+	}
+	
+	/**
+	 * <p>
+	 * Sends the specified messages to the regions of their receivers, and
+	 * receives the messages sent to this region, to be delivered by
+	 * <code>deliverMessages</code>.
+	 * </p>
+	 * @param entries the messages, each as the index of its sender in the upper half
+	 * and its number in the lower half, in the order of the indices of their senders.
+	 * @param numberOfEntries the number of messages.
+	 * @throws java.io.IOException if a region couldn't be reached.
+	 */
+	void sendMessages(long[] entries, int numberOfEntries) throws IOException{
+		ByteBuffer[] outgoing = new ByteBuffer[channels.length];
+		ByteArrayOutputStream bytes;
+		CheckpointOutput out;
+		ByteBuffer[] received;
+		Node sender;
+		int receiver;
+		int other;
+		
+		Arrays.fill(numberOfSent, 0);
+		for(int i=0; i<numberOfEntries; i++){
+			sender = nodes[(int)(entries[i] >>> 32)];
+			other = findRegion(getIndexOf(sender.getReceiverOfMessage((int)entries[i])));
+			if(numberOfSent[other] == sent[other].length){
+				sent[other] = Arrays.copyOf(sent[other], sent[other].length * 2);
+			}
+			sent[other][numberOfSent[other]++] = entries[i];
+		}
+		for(int i=0; i<channels.length; i++){
+			if(i == region){
+				continue;
+			}
+			bytes = new ByteArrayOutputStream();
+			out = new CheckpointOutput(Channels.newChannel(bytes));
+			out.setNodeIndexing(this);
+			out.writeInt(numberOfSent[i]);
+			for(int j=0; j<numberOfSent[i]; j++){
+				sender = nodes[(int)(sent[i][j] >>> 32)];
+				receiver = getIndexOf(sender.getReceiverOfMessage((int)sent[i][j]));
+				out.writeInt(receiver);
+				sender.writeMessage((int)sent[i][j], out);
+			}
+			out.finish();
+			outgoing[i] = ByteBuffer.wrap(bytes.toByteArray());
+		}
+		
+		received = exchange(outgoing);
+		for(int i=0; i<channels.length; i++){
+			if(i != region){
+				incoming[i] = new CheckpointInput(received[i]);
+				incoming[i].setNodeIndexing(this);
+				numberOfIncoming[i] = incoming[i].readInt();
+				if(accepted[i].length < numberOfIncoming[i]){
+					accepted[i] = new byte[numberOfIncoming[i]];
+				}
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Delivers the messages received from either the regions before this one, or
+	 * the regions after it, in the order of the indices of their senders.
+	 * </p>
+	 * @param fromEarlierRegions <code>true</code> for the messages from the regions
+	 * before this one, <code>false</code> for the ones after it.
+	 * @throws java.io.IOException if a message couldn't be read, or is addressed to
+	 * a node outside this region.
+	 */
+	void deliverMessages(boolean fromEarlierRegions) throws IOException{
+		int from = fromEarlierRegions ? 0 : region + 1;
+		int to = fromEarlierRegions ? region : channels.length;
+		int receiver;
+		
+		for(int i=from; i<to; i++){
+			for(int j=0; j<numberOfIncoming[i]; j++){
+				receiver = incoming[i].readInt();
+				if(receiver < regionStarts[region] || receiver >= regionStarts[region + 1]){
+					throw new IOException("region " + i + " sent a message to node "
+							+ receiver + " outside region " + region);
+				}
+				accepted[i][j] = getNode(receiver).receiveMessage(incoming[i]) ? (byte)1 : (byte)0;
+			}
+			if(!incoming[i].isFinished()){
+				throw new IOException("region " + i + " sent more than its messages");
+			}
+			incoming[i] = null;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Tells every other region which of its messages were accepted, and marks the
+	 * messages sent from this region which weren't accepted as returned.
+	 * </p>
+	 * @throws java.io.IOException if a region couldn't be reached.
+	 */
+	void returnMessages() throws IOException{
+		ByteBuffer[] outgoing = new ByteBuffer[channels.length];
+		ByteBuffer[] received;
+		ByteBuffer replies;
+		
+		for(int i=0; i<channels.length; i++){
+			if(i != region){
+				outgoing[i] = ByteBuffer.wrap(accepted[i], 0, numberOfIncoming[i]).slice();
+			}
+		}
+		received = exchange(outgoing);
+		for(int i=0; i<channels.length; i++){
+			if(i == region){
+				continue;
+			}
+			replies = getPayload(received[i], numberOfSent[i]);
+			for(int j=0; j<numberOfSent[i]; j++){
+				if(replies.get(j) == 0){
+					nodes[(int)(sent[i][j] >>> 32)].setMessageReturned((int)sent[i][j]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Closes the connections to the other regions.
+	 * </p>
+	 */
+	void close(){
+		for(SocketChannel channel : channels){
+			if(channel != null){
+				try{
+					channel.close();
+				}catch(IOException e){
+					// Nothing left to do with the channel.
+				}
+			}
+		}
+		try{
+			selector.close();
+		}catch(IOException e){
+			// Nothing left to do with the selector.
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns the region holding the node with the specified index.
+	 * */
+	private int findRegion(int index) throws IOException{
+		int from = 0;
+		int to = channels.length - 1;
+		int middle;
+		
+		if(index < 0 || index >= regionStarts[channels.length]){
+			throw new IOException("message to unknown node " + index);
+		}
+		while(from < to){
+			middle = (from + to + 1) >>> 1;
+			if(regionStarts[middle] <= index){
+				from = middle;
+			}else{
+				to = middle - 1;
+			}
+		}
+		return from;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Writes the specified payloads to the other regions, each preceded by its
+	 * length, and reads the payloads of the other regions, until every channel is
+	 * done both ways.
+	 * */
+	private ByteBuffer[] exchange(ByteBuffer[] payloads) throws IOException{
+		ByteBuffer[] outgoing = new ByteBuffer[channels.length];
+		ByteBuffer[] lengths = new ByteBuffer[channels.length];
+		ByteBuffer[] received = new ByteBuffer[channels.length];
+		int remaining = 0;
+		Iterator<SelectionKey> keys;
+		SelectionKey key;
+		int other;
+		
+		for(int i=0; i<channels.length; i++){
+			if(i == region){
+				continue;
+			}
+			outgoing[i] = ByteBuffer.allocate(4 + payloads[i].remaining());
+			outgoing[i].putInt(payloads[i].remaining()).put(payloads[i].duplicate()).flip();
+			lengths[i] = ByteBuffer.allocate(4);
+			channels[i].keyFor(selector).interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			remaining += 2;
+		}
+		
+		while(remaining > 0){
+			selector.select();
+			keys = selector.selectedKeys().iterator();
+			while(keys.hasNext()){
+				key = keys.next();
+				keys.remove();
+				other = (Integer)key.attachment();
+				if(key.isWritable()){
+					channels[other].write(outgoing[other]);
+					if(!outgoing[other].hasRemaining()){
+						key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+						remaining--;
+					}
+				}
+				if(key.isReadable()){
+					if(received[other] == null){
+						read(other, lengths[other]);
+						if(!lengths[other].hasRemaining()){
+							received[other] = ByteBuffer.allocate(lengths[other].getInt(0));
+						}
+					}
+					if(received[other] != null){
+						read(other, received[other]);
+						if(!received[other].hasRemaining()){
+							received[other].flip();
+							key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+							remaining--;
+						}
+					}
+				}
+			}
+		}
+		return received;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Reads what is available from a channel into the buffer.
+	 * */
+	private void read(int other, ByteBuffer buffer) throws IOException{
+		if(buffer.hasRemaining() && channels[other].read(buffer) == -1){
+			throw new IOException("region " + other + " closed the connection");
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Checks that a received payload has the expected length.
+	 * */
+	private ByteBuffer getPayload(ByteBuffer payload, int length) throws IOException{
+		if(payload.remaining() != length){
+			throw new IOException("expected " + length + " bytes, received "
+					+ payload.remaining());
+		}
+		return payload;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Connects to the specified address, trying again until the deadline while
+	 * the connection is refused.
+	 * */
+	private static SocketChannel connect(InetSocketAddress address, long deadline)
+			throws IOException{
+		while(true){
+			try{
+				return SocketChannel.open(address);
+			}catch(ConnectException e){
+				if(System.currentTimeMillis() > deadline){
+					throw e;
+				}
+				try{
+					Thread.sleep(RETRY_INTERVAL);
+				}catch(InterruptedException interrupted){
+					Thread.currentThread().interrupt();
+					throw new IOException("interrupted while connecting", interrupted);
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Accepts a connection, waiting no longer than until the deadline.
+	 * */
+	private static SocketChannel accept(ServerSocketChannel server, long deadline)
+			throws IOException{
+		SocketChannel channel;
+		
+		try(Selector acceptSelector = Selector.open()){
+			server.register(acceptSelector, SelectionKey.OP_ACCEPT);
+			while((channel = server.accept()) == null){
+				if(System.currentTimeMillis() > deadline){
+					throw new IOException("timed out waiting for the other regions");
+				}
+				acceptSelector.select(RETRY_INTERVAL);
+			}
+		}
+		channel.configureBlocking(true);
+		return channel;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Writes the number of regions, followed by the region, its number of nodes,
+	 * and the lowest coordinates amongst them.
+	 * */
+	private static void writeHandshake(SocketChannel channel, int numberOfRegions,
+			int[] handshake) throws IOException{
+		ByteBuffer buffer = ByteBuffer.allocate(8 + 4 * handshake.length);
+		
+		buffer.putInt(HANDSHAKE).putInt(numberOfRegions);
+		for(int value : handshake){
+			buffer.putInt(value);
+		}
+		buffer.flip();
+		while(buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Reads the region at the other end of the channel, its number of nodes, and
+	 * the lowest coordinates amongst them, checking that the number of regions is
+	 * the same.
+	 * */
+	private static int[] readHandshake(SocketChannel channel, int numberOfRegions)
+			throws IOException{
+		ByteBuffer buffer = ByteBuffer.allocate(24);
+		int[] handshake = new int[4];
+		
+		while(buffer.hasRemaining()){
+			if(channel.read(buffer) == -1){
+				throw new IOException("connection closed during handshake");
+			}
+		}
+		buffer.flip();
+		if(buffer.getInt() != HANDSHAKE){
+			throw new IOException("not a region of a distributed field");
+		}
+		if(buffer.getInt() != numberOfRegions){
+			throw new IOException("region " + buffer.getInt(8)
+					+ " has a different number of regions");
+		}
+		for(int i=0; i<handshake.length; i++){
+			handshake[i] = buffer.getInt();
+		}
+		return handshake;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns a packed position as its coordinates.
+	 * */
+	private static String toString(long position){
+		Position unpacked = Position.fromLong(position);
+		
+		return unpacked.getX() + ";" + unpacked.getY();
+	}
+}
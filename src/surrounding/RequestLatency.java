@@ -0,0 +1,101 @@
+package surrounding;
+
+/**
+ * The <code>RequestLatency</code> class keeps track of how long it took request
+ * messages to return to the nodes which sent them: in updates, in wall-clock time,
+ * and in the number of hops from the sending node to the node holding the sought event.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see SimulationMetrics
+ * @see LatencyHistogram
+ * */
+public class RequestLatency{
+	
+	private final LatencyHistogram updates;
+	private final LatencyHistogram nanos;
+	private final LatencyHistogram hops;
+	
+	/**
+	 * <p>
+	 * Creates a <code>RequestLatency</code> object, without any recorded requests.
+	 * </p>
+	 */
+	public RequestLatency(){
+		updates = new LatencyHistogram();
+		nanos = new LatencyHistogram();
+		hops = new LatencyHistogram();
+	}
+	
+	/**
+	 * <p>
+	 * Records a returned request message.
+	 * </p>
+	 * @param updates the number of updates since the message was sent.
+	 * @param nanos the wall-clock time since the message was sent, in nanoseconds.
+	 * @param hops the number of hops from the sending node to the event.
+	 */
+	public void record(long updates, long nanos, long hops){
+		this.updates.record(updates);
+		this.nanos.record(nanos);
+		this.hops.record(hops);
+	}
+	
+	/**
+	 * <p>
+	 * Returns the histogram of the number of updates it took the request
+	 * messages to return.
+	 * </p>
+	 * @return the histogram.
+	 */
+	public LatencyHistogram getUpdates(){
+		return updates;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the histogram of the wall-clock time it took the request
+	 * messages to return, in nanoseconds.
+	 * </p>
+	 * @return the histogram.
+	 */
+	public LatencyHistogram getNanos(){
+		return nanos;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the histogram of the number of hops the request messages
+	 * made to reach their events.
+	 * </p>
+	 * @return the histogram.
+	 */
+	public LatencyHistogram getHops(){
+		return hops;
+	}
+	
+	/**
+	 * <p>
+	 * Forgets every recorded request.
+	 * </p>
+	 */
+	public void reset(){
+		updates.reset();
+		nanos.reset();
+		hops.reset();
+	}
+	
+	/**
+	 * <p>
+	 * Returns a summary of the recorded requests, one line per histogram.
+	 * </p>
+	 * @return the summary.
+	 */
+	@Override
+	public String toString(){
+		return "updates (" + updates + ")\n"
+				+ "nanoseconds (" + nanos + ")\n"
+				+ "hops (" + hops + ")";
+	}
+}
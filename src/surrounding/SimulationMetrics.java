@@ -0,0 +1,452 @@
+package surrounding;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import coordination.Position;
+
+/**
+ * The <code>SimulationMetrics</code> class counts what happens during a simulation:
+ * the messages created, delivered and expired, the sends which failed and the tasks
+ * which were tried again, and the requests which returned or expired. It also keeps
+ * histograms of how many tasks the nodes hold and how large their routing tables are,
+ * recorded every time a node is updated.</br>
+ * </br>
+ * The latency of the requests which return in time is recorded as well, overall and
+ * per requesting node (see <code>RequestLatency</code>). This is recorded while the
+ * nodes deliver their messages, i.e. by one thread at a time.</br>
+ * </br>
+ * Every <code>Field</code> has metrics of its own (see <code>Field.getMetrics()</code>),
+ * which the nodes record into while being updated. The counters are striped, so the
+ * threads updating the nodes don't wait for each other. The metrics can be read
+ * at any time, either through the methods of this class or, once registered, over JMX.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field
+ * @see SimulationMetricsMXBean
+ * */
+public class SimulationMetrics implements SimulationMetricsMXBean{
+	
+	private final LongAdder updates;
+	private final LongAdder agentMessagesCreated;
+	private final LongAdder requestMessagesCreated;
+	private final LongAdder messagesDelivered;
+	private final LongAdder failedSends;
+	private final LongAdder retries;
+	private final LongAdder expiredAgentMessages;
+	private final LongAdder expiredRequestMessages;
+	private final LongAdder expiredRequests;
+	private final LongAdder successfulRequests;
+	private final Histogram taskQueueDepth;
+	private final Histogram routingTableSize;
+	private final RequestLatency requestLatency;
+	private final Map<Position, RequestLatency> requestLatencyByNode;
+	private ObjectName objectName;
+	
+	/**
+	 * <p>
+	 * Creates a <code>SimulationMetrics</code> object with every count at zero.
+	 * </p>
+	 */
+	public SimulationMetrics(){
+		updates = new LongAdder();
+		agentMessagesCreated = new LongAdder();
+		requestMessagesCreated = new LongAdder();
+		messagesDelivered = new LongAdder();
+		failedSends = new LongAdder();
+		retries = new LongAdder();
+		expiredAgentMessages = new LongAdder();
+		expiredRequestMessages = new LongAdder();
+		expiredRequests = new LongAdder();
+		successfulRequests = new LongAdder();
+		taskQueueDepth = new Histogram();
+		routingTableSize = new Histogram();
+		requestLatency = new RequestLatency();
+		requestLatencyByNode = new ConcurrentHashMap<Position, RequestLatency>();
+	}
+	
+	/**
+	 * <p>
+	 * Registers the metrics with the platform MBean server, under the name
+	 * <code>surrounding:type=SimulationMetrics,name=</code> followed by the
+	 * specified name.
+	 * </p>
+	 * @param name the name of the simulation.
+	 * @throws javax.management.JMException if the metrics couldn't be registered,
+	 * e.g. if the name is taken.
+	 * @throws java.lang.IllegalStateException if the metrics already are registered.
+	 */
+	public synchronized void registerMBean(String name) throws JMException,
+			IllegalStateException{
+		ObjectName objectName;
+		
+		if(this.objectName != null){
+			throw new IllegalStateException("metrics are already registered");
+		}
+		objectName = new ObjectName("surrounding:type=SimulationMetrics,name="
+				+ ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		this.objectName = objectName;
+	}
+	
+	/**
+	 * <p>
+	 * Unregisters the metrics from the platform MBean server, if registered.
+	 * </p>
+	 * @throws javax.management.JMException if the metrics couldn't be unregistered.
+	 */
+	public synchronized void unregisterMBean() throws JMException{
+		if(objectName != null){
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			objectName = null;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Counts an update of the <code>Field</code>.
+	 * </p>
+	 */
+	public void recordUpdate(){
+		updates.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts a newly created agent message.
+	 * </p>
+	 */
+	public void recordAgentMessageCreated(){
+		agentMessagesCreated.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts a newly created request message.
+	 * </p>
+	 */
+	public void recordRequestMessageCreated(){
+		requestMessagesCreated.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts a message accepted by its receiving node.
+	 * </p>
+	 */
+	public void recordMessageDelivered(){
+		messagesDelivered.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts a message which couldn't be sent, either since no node could be
+	 * found to send it to, or since the receiving node wasn't ready.
+	 * </p>
+	 */
+	public void recordFailedSend(){
+		failedSends.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts a task tried again after having been returned to the task queue
+	 * of its node, i.e. a task whose message is sent once more. A task which
+	 * is discarded instead isn't counted.
+	 * </p>
+	 */
+	public void recordRetry(){
+		retries.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts an agent message discarded for having run out of lives.
+	 * </p>
+	 */
+	public void recordExpiredAgentMessage(){
+		expiredAgentMessages.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts a request message discarded for having run out of lives.
+	 * </p>
+	 */
+	public void recordExpiredRequestMessage(){
+		expiredRequestMessages.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts a request given up on by the node which sent it.
+	 * </p>
+	 */
+	public void recordExpiredRequest(){
+		expiredRequests.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Counts a request message which returned to the node which sent it in time.
+	 * </p>
+	 */
+	public void recordSuccessfulRequest(){
+		successfulRequests.increment();
+	}
+	
+	/**
+	 * <p>
+	 * Records the number of tasks and the number of routing table entries
+	 * held by a node.
+	 * </p>
+	 * @param taskQueueDepth the number of tasks.
+	 * @param routingTableSize the number of routing table entries.
+	 */
+	public void recordNode(int taskQueueDepth, int routingTableSize){
+		this.taskQueueDepth.record(taskQueueDepth);
+		this.routingTableSize.record(routingTableSize);
+	}
+	
+	/**
+	 * <p>
+	 * Records the latency of a request message which returned in time to the
+	 * node at the specified position.
+	 * </p>
+	 * @param position the position of the node which sent the request message.
+	 * @param updates the number of updates since the message was sent.
+	 * @param nanos the wall-clock time since the message was sent, in nanoseconds.
+	 * @param hops the number of hops from the sending node to the event.
+	 */
+	public void recordRequestLatency(Position position, long updates, long nanos, int hops){
+		RequestLatency nodeLatency = requestLatencyByNode.get(position);
+		
+		if(nodeLatency == null){
+			nodeLatency = new RequestLatency();
+			requestLatencyByNode.put(position, nodeLatency);
+		}
+		nodeLatency.record(updates, nanos, hops);
+		requestLatency.record(updates, nanos, hops);
+	}
+	
+	@Override
+	public long getUpdates(){
+		return updates.sum();
+	}
+	
+	@Override
+	public long getAgentMessagesCreated(){
+		return agentMessagesCreated.sum();
+	}
+	
+	@Override
+	public long getRequestMessagesCreated(){
+		return requestMessagesCreated.sum();
+	}
+	
+	@Override
+	public long getMessagesDelivered(){
+		return messagesDelivered.sum();
+	}
+	
+	@Override
+	public long getFailedSends(){
+		return failedSends.sum();
+	}
+	
+	@Override
+	public long getRetries(){
+		return retries.sum();
+	}
+	
+	@Override
+	public long getExpiredAgentMessages(){
+		return expiredAgentMessages.sum();
+	}
+	
+	@Override
+	public long getExpiredRequestMessages(){
+		return expiredRequestMessages.sum();
+	}
+	
+	@Override
+	public long getExpiredRequests(){
+		return expiredRequests.sum();
+	}
+	
+	@Override
+	public long getSuccessfulRequests(){
+		return successfulRequests.sum();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the histogram of the number of tasks held by the nodes, as
+	 * recorded every time a node is updated.
+	 * </p>
+	 * @return the histogram.
+	 */
+	public Histogram getTaskQueueDepth(){
+		return taskQueueDepth;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the histogram of the number of routing table entries held by
+	 * the nodes, as recorded every time a node is updated.
+	 * </p>
+	 * @return the histogram.
+	 */
+	public Histogram getRoutingTableSize(){
+		return routingTableSize;
+	}
+	
+	@Override
+	public double getTaskQueueDepthMean(){
+		return taskQueueDepth.getMean();
+	}
+	
+	@Override
+	public long getTaskQueueDepth99thPercentile(){
+		return taskQueueDepth.getValueAtPercentile(99);
+	}
+	
+	@Override
+	public long getTaskQueueDepthMax(){
+		return taskQueueDepth.getMax();
+	}
+	
+	@Override
+	public double getRoutingTableSizeMean(){
+		return routingTableSize.getMean();
+	}
+	
+	@Override
+	public long getRoutingTableSize99thPercentile(){
+		return routingTableSize.getValueAtPercentile(99);
+	}
+	
+	@Override
+	public long getRoutingTableSizeMax(){
+		return routingTableSize.getMax();
+	}
+	
+	/**
+	 * <p>
+	 * Returns the latency of every request which returned in time.
+	 * </p>
+	 * @return the latency of the requests.
+	 */
+	public RequestLatency getRequestLatency(){
+		return requestLatency;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the latency of the requests which returned in time, by the
+	 * position of the node which sent them.
+	 * </p>
+	 * @return an unmodifiable view of the latency of the requests by node.
+	 */
+	public Map<Position, RequestLatency> getRequestLatencyByNode(){
+		return Collections.unmodifiableMap(requestLatencyByNode);
+	}
+	
+	@Override
+	public long getRequestLatency50thPercentile(){
+		return requestLatency.getUpdates().getValueAtPercentile(50);
+	}
+	
+	@Override
+	public long getRequestLatency99thPercentile(){
+		return requestLatency.getUpdates().getValueAtPercentile(99);
+	}
+	
+	@Override
+	public long getRequestLatency999thPercentile(){
+		return requestLatency.getUpdates().getValueAtPercentile(99.9);
+	}
+	
+	@Override
+	public long getRequestNanos50thPercentile(){
+		return requestLatency.getNanos().getValueAtPercentile(50);
+	}
+	
+	@Override
+	public long getRequestNanos99thPercentile(){
+		return requestLatency.getNanos().getValueAtPercentile(99);
+	}
+	
+	@Override
+	public long getRequestNanos999thPercentile(){
+		return requestLatency.getNanos().getValueAtPercentile(99.9);
+	}
+	
+	@Override
+	public double getRequestHopsMean(){
+		return requestLatency.getHops().getMean();
+	}
+	
+	/**
+	 * <p>
+	 * Returns a report of the latency of the requests which returned in time,
+	 * overall and by requesting node, the nodes sorted by position.
+	 * </p>
+	 * @return the report.
+	 */
+	@Override
+	public String getLatencyReport(){
+		StringBuilder report = new StringBuilder();
+		Map<Position, RequestLatency> sorted = new TreeMap<Position, RequestLatency>(
+				new Comparator<Position>(){
+					@Override
+					public int compare(Position a, Position b){
+						return a.getX() != b.getX() ? Integer.compare(a.getX(), b.getX()) :
+								Integer.compare(a.getY(), b.getY());
+					}
+				});
+		
+		sorted.putAll(requestLatencyByNode);
+		report.append("Request latency, all nodes:\n").append(requestLatency);
+		for(Map.Entry<Position, RequestLatency> entry : sorted.entrySet()){
+			report.append("\nRequest latency, node at ").append(entry.getKey().getX())
+					.append(';').append(entry.getKey().getY())
+					.append(":\n").append(entry.getValue());
+		}
+		
+		return report.toString();
+	}
+	
+	/**
+	 * <p>
+	 * Sets every count back to zero, and empties the histograms.
+	 * </p>
+	 */
+	@Override
+	public void reset(){
+		updates.reset();
+		agentMessagesCreated.reset();
+		requestMessagesCreated.reset();
+		messagesDelivered.reset();
+		failedSends.reset();
+		retries.reset();
+		expiredAgentMessages.reset();
+		expiredRequestMessages.reset();
+		expiredRequests.reset();
+		successfulRequests.reset();
+		taskQueueDepth.reset();
+		routingTableSize.reset();
+		requestLatency.reset();
+		requestLatencyByNode.clear();
+	}
+}
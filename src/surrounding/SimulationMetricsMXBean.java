@@ -0,0 +1,42 @@
+package surrounding;
+
+/**
+ * The management interface of <code>SimulationMetrics</code>, through which the
+ * metrics of a running simulation can be read over JMX.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see SimulationMetrics
+ * */
+public interface SimulationMetricsMXBean{
+	
+	public long getUpdates();
+	public long getAgentMessagesCreated();
+	public long getRequestMessagesCreated();
+	public long getMessagesDelivered();
+	public long getFailedSends();
+	public long getRetries();
+	public long getExpiredAgentMessages();
+	public long getExpiredRequestMessages();
+	public long getExpiredRequests();
+	public long getSuccessfulRequests();
+	
+	public double getTaskQueueDepthMean();
+	public long getTaskQueueDepth99thPercentile();
+	public long getTaskQueueDepthMax();
+	public double getRoutingTableSizeMean();
+	public long getRoutingTableSize99thPercentile();
+	public long getRoutingTableSizeMax();
+	
+	public long getRequestLatency50thPercentile();
+	public long getRequestLatency99thPercentile();
+	public long getRequestLatency999thPercentile();
+	public long getRequestNanos50thPercentile();
+	public long getRequestNanos99thPercentile();
+	public long getRequestNanos999thPercentile();
+	public double getRequestHopsMean();
+	public String getLatencyReport();
+	
+	public void reset();
+}
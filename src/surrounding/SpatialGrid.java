@@ -0,0 +1,294 @@
+package surrounding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+import nodebasis.Node;
+
+/**
+ * The <code>SpatialGrid</code> class is a uniform grid index over the nodes of a
+ * node network. Every node is put into the square cell covering its position, where
+ * the side of each cell is equal to the greatest signal strength found in the network.
+ * A range query therefore only has to look at the cells overlapping the bounding box
+ * of the queried range, rather than at every node in the network.</br>
+ * </br>
+ * The grid is built when the <code>Field</code> loads its node network. The
+ * indices of the nodes in each cell are kept one cell after the other in a single
+ * array, and a range query compares positions read from the arrays of a
+ * <code>NodeStore</code>, so only the nodes found in range are looked at themselves.</br>
+ * </br>
+ * Nodes may be added to and removed from the grid afterwards. A cell which is changed
+ * is copied out of the single array into an array of its own, kept in the order of the
+ * node indices, so a change only costs as much as the size of its cell. The cell size
+ * stays as it was when the grid was built.</br>
+ * </br>
+ * A range query returns the nodes in the order of their indices, whatever the cell
+ * size, so the neighbours of a node are listed in the same order by every grid over
+ * the same indices, such as the grid over one region of a distributed simulation.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field
+ * @see NodeStore
+ * */
+class SpatialGrid{
+
+	private static final Comparator<Node> BY_INDEX = new Comparator<Node>(){
+		@Override
+		public int compare(Node a, Node b){
+			return Integer.compare(a.getIndex(), b.getIndex());
+		}
+	};
+
+	private final NodeStore store;
+	private final int cellSize;
+	private final LongIntMap cellNumbers;
+	private final int[] cellStarts;
+	private final int[] cellMembers;
+	private int numberOfCells;
+	private int[][] changedCells;
+	private int[] changedCellSizes;
+
+	/**
+	 * <p>
+	 * Creates a <code>SpatialGrid</code> object holding the nodes of the given
+	 * store. The cell size is derived from the greatest signal strength amongst
+	 * the nodes.
+	 * </p>
+	 * @param store the nodes to index.
+	 */
+	SpatialGrid(NodeStore store){
+		int[] cellOfNode = new int[store.size()];
+		int[] nextMember;
+		int cell;
+		long key;
+
+		this.store = store;
+		this.cellSize = Math.max(1, store.getMaxSignalStrength());
+		cellNumbers = new LongIntMap();
+
+		for(int i=0; i<store.size(); i++){
+			key = getCellKey(getCell(store.getX(i)), getCell(store.getY(i)));
+			cell = cellNumbers.get(key);
+			if(cell == LongIntMap.NO_VALUE){
+				cell = numberOfCells++;
+				cellNumbers.put(key, cell);
+			}
+			cellOfNode[i] = cell;
+		}
+
+		cellStarts = new int[numberOfCells + 1];
+		for(int i=0; i<cellOfNode.length; i++){
+			cellStarts[cellOfNode[i] + 1]++;
+		}
+		for(int i=0; i<numberOfCells; i++){
+			cellStarts[i + 1] += cellStarts[i];
+		}
+		nextMember = Arrays.copyOf(cellStarts, numberOfCells);
+		cellMembers = new int[cellOfNode.length];
+		for(int i=0; i<cellOfNode.length; i++){
+			cellMembers[nextMember[cellOfNode[i]]++] = i;
+		}
+		changedCells = new int[numberOfCells][];
+		changedCellSizes = new int[numberOfCells];
+	}
+
+	/**
+	 * <p>
+	 * Adds the node with the given index to the grid, at the position the store
+	 * holds for that index.
+	 * </p>
+	 * @param index the index of the node.
+	 */
+	void add(int index){
+		long key = getCellKey(getCell(store.getX(index)), getCell(store.getY(index)));
+		int cell = cellNumbers.get(key);
+		int[] members;
+		int size;
+		int position;
+
+		if(cell == LongIntMap.NO_VALUE){
+			cell = numberOfCells++;
+			cellNumbers.put(key, cell);
+		}
+		members = getChangedCell(cell);
+		size = changedCellSizes[cell];
+		if(size == members.length){
+			members = Arrays.copyOf(members, Math.max(4, size * 2));
+			changedCells[cell] = members;
+		}
+		for(position=size; position>0 && members[position - 1]>index; position--){
+			members[position] = members[position - 1];
+		}
+		members[position] = index;
+		changedCellSizes[cell]++;
+	}
+
+	/**
+	 * <p>
+	 * Removes the node with the given index from the grid. Must be called while
+	 * the store still holds the position of the node for that index.
+	 * </p>
+	 * @param index the index of the node.
+	 */
+	void remove(int index){
+		int cell = cellNumbers.get(getCellKey(getCell(store.getX(index)),
+				getCell(store.getY(index))));
+		int[] members = getChangedCell(cell);
+		int size = changedCellSizes[cell];
+		int position = 0;
+
+		while(members[position] != index){
+			position++;
+		}
+		System.arraycopy(members, position + 1, members, position, size - position - 1);
+		changedCellSizes[cell]--;
+	}
+
+	/**
+	 * <p>
+	 * Returns all indexed nodes within the signal strength of the given node,
+	 * excluding the node itself. A node is within range if its euclidean
+	 * distance to the given node is less than or equal to the signal strength.
+	 * The nodes are returned by index.
+	 * </p>
+	 * @param nodeAtCentrum the node whose range is searched.
+	 * @return an <code>ArrayList</code> containing all found nodes.
+	 */
+	ArrayList<Node> getNodesWithinRangeofNode(Node nodeAtCentrum){
+		return findNodes(nodeAtCentrum, false);
+	}
+
+	/**
+	 * <p>
+	 * Returns all indexed nodes which have the given node within their signal
+	 * strength, excluding the node itself, i.e. the nodes which count the given
+	 * node amongst their neighbours. The cells within the greatest signal strength
+	 * of the store are searched. The nodes are returned by index.
+	 * </p>
+	 * @param nodeAtCentrum the node to be reached.
+	 * @return an <code>ArrayList</code> containing all found nodes.
+	 */
+	ArrayList<Node> getNodesReachingNode(Node nodeAtCentrum){
+		return findNodes(nodeAtCentrum, true);
+	}
+
+	/*
+	 * Helper method.
+	 *
+	 * Returns the nodes within the signal strength of the node at centrum, or
+	 * the nodes having the node at centrum within their own signal strength.
+	 * */
+	private ArrayList<Node> findNodes(Node nodeAtCentrum, boolean reaching){
+		int signalStrength = reaching ? store.getMaxSignalStrength() :
+				nodeAtCentrum.getSignalStrength();
+		int centrumX = nodeAtCentrum.getPosition().getX();
+		int centrumY = nodeAtCentrum.getPosition().getY();
+		int minCellX = getCell(centrumX-signalStrength);
+		int maxCellX = getCell(centrumX+signalStrength);
+		int minCellY = getCell(centrumY-signalStrength);
+		int maxCellY = getCell(centrumY+signalStrength);
+		long numberOfCells = ((long)maxCellX-minCellX+1)*((long)maxCellY-minCellY+1);
+		ArrayList<Node> listToReturn = new ArrayList<Node>();
+		int cell;
+
+		/*
+		 * A node with a signal strength far exceeding the cell size would
+		 * visit more (mostly empty) cells than there are nodes.
+		 * */
+		if(numberOfCells > store.size()){
+			for(int i=0; i<store.size(); i++){
+				addIfWithinRange(nodeAtCentrum, i, reaching, listToReturn);
+			}
+			return listToReturn;
+		}
+
+		for(int cellY=minCellY; cellY<=maxCellY; cellY++){
+			for(int cellX=minCellX; cellX<=maxCellX; cellX++){
+				cell = cellNumbers.get(getCellKey(cellX, cellY));
+				if(cell == LongIntMap.NO_VALUE){
+					continue;
+				}else if(changedCells[cell] != null){
+					for(int i=0; i<changedCellSizes[cell]; i++){
+						addIfWithinRange(nodeAtCentrum, changedCells[cell][i], reaching,
+								listToReturn);
+					}
+				}else{
+					for(int i=cellStarts[cell]; i<cellStarts[cell + 1]; i++){
+						addIfWithinRange(nodeAtCentrum, cellMembers[i], reaching,
+								listToReturn);
+					}
+				}
+			}
+		}
+
+		Collections.sort(listToReturn, BY_INDEX);
+		return listToReturn;
+	}
+
+	/*
+	 * Helper method.
+	 *
+	 * Adds the node with the given index to the list if it is within range
+	 * of the node at centrum, or has the node at centrum within its own range,
+	 * and isn't the node at centrum.
+	 * */
+	private void addIfWithinRange(Node nodeAtCentrum, int index, boolean reaching,
+			ArrayList<Node> list){
+		long offsetX = (long)store.getX(index)-nodeAtCentrum.getPosition().getX();
+		long offsetY = (long)store.getY(index)-nodeAtCentrum.getPosition().getY();
+		long signalStrength = reaching ? store.getSignalStrength(index) :
+				nodeAtCentrum.getSignalStrength();
+		Node node;
+
+		if(offsetX*offsetX + offsetY*offsetY <= signalStrength*signalStrength){
+			node = store.getNodes()[index];
+			if(offsetX != 0 || offsetY != 0 || !node.equals(nodeAtCentrum)){
+				list.add(node);
+			}
+		}
+	}
+
+	/*
+	 * Helper method.
+	 *
+	 * Returns the members of a cell in an array of its own, copying them out
+	 * of the single array the first time the cell is changed.
+	 * */
+	private int[] getChangedCell(int cell){
+		if(cell >= changedCells.length){
+			changedCells = Arrays.copyOf(changedCells, Math.max(cell + 1, changedCells.length * 2));
+			changedCellSizes = Arrays.copyOf(changedCellSizes, changedCells.length);
+		}
+		if(changedCells[cell] == null){
+			if(cell < cellStarts.length - 1){
+				changedCells[cell] = Arrays.copyOfRange(cellMembers, cellStarts[cell],
+						cellStarts[cell + 1] + 1);
+				changedCellSizes[cell] = cellStarts[cell + 1] - cellStarts[cell];
+			}else{
+				changedCells[cell] = new int[4];
+			}
+		}
+		return changedCells[cell];
+	}
+
+	/*
+	 * Helper method.
+	 *
+	 * Returns the cell coordinate for the given coordinate. Rounds towards
+	 * negative infinity, so that negative coordinates end up in their own cells.
+	 * */
+	private int getCell(int coordinate){
+		return Math.floorDiv(coordinate, cellSize);
+	}
+
+	/*
+	 * Helper method.
+	 * */
+	private static long getCellKey(int cellX, int cellY){
+		return ((long)cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,182 @@
+package surrounding;
+
+/**
+ * The <code>SplitMix64</code> class is a splittable random number generator giving
+ * the same numbers as <code>java.util.SplittableRandom</code>, but whose state can be
+ * read and restored. The state of a generator is its seed and its gamma, and two
+ * generators with the same state give the same numbers, which is what allows a
+ * <code>Field</code> to be checkpointed and restored mid-simulation.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field#writeCheckpoint(java.nio.file.Path)
+ * */
+final class SplitMix64{
+	
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+	
+	private long seed;
+	private final long gamma;
+	
+	/**
+	 * <p>
+	 * Creates a <code>SplitMix64</code> object with the specified seed, giving the same
+	 * numbers as a <code>SplittableRandom</code> with the same seed.
+	 * </p>
+	 * @param seed the seed.
+	 */
+	SplitMix64(long seed){
+		this(seed, GOLDEN_GAMMA);
+	}
+	
+	/**
+	 * <p>
+	 * Creates a <code>SplitMix64</code> object with the specified state.
+	 * </p>
+	 * @param seed the seed.
+	 * @param gamma the gamma, which must be odd.
+	 * @see #getSeed()
+	 * @see #getGamma()
+	 */
+	SplitMix64(long seed, long gamma){
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the current seed of the generator.
+	 * </p>
+	 * @return the seed.
+	 */
+	long getSeed(){
+		return seed;
+	}
+	
+	/**
+	 * <p>
+	 * Returns the gamma of the generator, i.e. how much the seed is advanced by
+	 * every number drawn.
+	 * </p>
+	 * @return the gamma.
+	 */
+	long getGamma(){
+		return gamma;
+	}
+	
+	/**
+	 * <p>
+	 * Returns a new generator split off this one, advancing this one.
+	 * </p>
+	 * @return the new generator.
+	 */
+	SplitMix64 split(){
+		return new SplitMix64(nextLong(), mixGamma(nextSeed()));
+	}
+	
+	/**
+	 * <p>
+	 * Advances this generator as far as splitting off the specified number of
+	 * generators would, without splitting them off. Each split advances the seed
+	 * twice, so this only takes a multiplication.
+	 * </p>
+	 * @param numberOfSplits the number of splits to skip.
+	 */
+	void skipSplits(long numberOfSplits){
+		seed += 2 * numberOfSplits * gamma;
+	}
+	
+	/**
+	 * <p>
+	 * Returns a random <code>long</code>.
+	 * </p>
+	 * @return the random number.
+	 */
+	long nextLong(){
+		return mix64(nextSeed());
+	}
+	
+	/**
+	 * <p>
+	 * Returns a random <code>int</code> between 0 (inclusive) and the specified
+	 * bound (exclusive).
+	 * </p>
+	 * @param bound the bound.
+	 * @return the random number.
+	 * @throws java.lang.IllegalArgumentException if the bound isn't positive.
+	 */
+	int nextInt(int bound) throws IllegalArgumentException{
+		int r;
+		int m;
+		
+		if(bound <= 0){
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		r = mix32(nextSeed());
+		m = bound - 1;
+		if((bound & m) == 0){
+			r &= m;
+		}else{
+			for(int u=r>>>1; u+m-(r=u%bound)<0; u=mix32(nextSeed())>>>1);
+		}
+		return r;
+	}
+	
+	/**
+	 * <p>
+	 * Returns a random <code>double</code> between 0 (inclusive) and 1 (exclusive).
+	 * </p>
+	 * @return the random number.
+	 */
+	double nextDouble(){
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Advances the seed.
+	 * */
+	private long nextSeed(){
+		return seed += gamma;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * The 64 bit output function.
+	 * */
+	private static long mix64(long z){
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * The 32 bit output function.
+	 * */
+	private static int mix32(long z){
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int)(((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Derives the gamma of a split generator, which must be odd, and have
+	 * enough bit transitions.
+	 * */
+	private static long mixGamma(long z){
+		int n;
+		
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
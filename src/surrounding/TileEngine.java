@@ -0,0 +1,382 @@
+package surrounding;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import nodebasis.Node;
+
+/**
+ * The <code>TileEngine</code> class carries out the updates of the active nodes, and
+ * the delivery of the messages they send, for the <code>Field</code>. The nodes are
+ * divided into tiles, i.e. ranges of node indices, one per thread. In spatial order
+ * (see <code>Field.setSpatialNodeOrder</code>) every tile covers a compact part of the
+ * field. Each tile is only ever modified by the thread working on it, and the threads
+ * meet at a barrier between each of the following phases:
+ * <ul>
+ * 		<li>update: the active nodes of the tile are updated, and every message they
+ * 			send is posted to the mailbox of its receiving node (see
+ * 			<code>Node.postMessage</code>), without locking. The first message posted to
+ * 			a node puts the node in the inbox kept for the pair of the sending and the
+ * 			receiving tile.</li>
+ * 		<li>delivery: the nodes in the inboxes of the tile empty their mailboxes, each
+ * 			node being handed its messages in the order of the indices of their
+ * 			senders.</li>
+ * 		<li>return: the messages which weren't accepted are returned to the task
+ * 			queues of their senders, and the nodes left without anything to do, as
+ * 			told by the node store, are no longer active.</li>
+ * </ul>
+ * Lastly the results are handed over to the result sink node by node, on the calling
+ * thread. The outcome of an update therefore doesn't depend on the number of tiles.</br>
+ * </br>
+ * The tiles are drawn anew every update, so that each holds about as many active
+ * nodes as the others, wherever the traffic happens to be. A tile always starts at a
+ * multiple of 64, so no two tiles share a word of the set of active nodes.</br>
+ * </br>
+ * In a distributed simulation, messages to nodes of other regions, whether of the halo
+ * or only known by their index, are put in an inbox of their own, and are handed to
+ * the <code>RegionLink</code> once every tile has been updated. The messages received
+ * from other regions are delivered around the delivery phase, and the messages which
+ * weren't accepted by other regions are marked as such before the return phase.
+ *
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * @see Field
+ * @see RegionLink
+ * */
+class TileEngine{
+	
+	private static final int UPDATE = 0;
+	private static final int DELIVERY = 1;
+	private static final int RETURN = 2;
+	private static final int DEFAULT_INBOX_CAPACITY = 16;
+	
+	private final NodeStore store;
+	private final Node[] nodes;
+	private final int numberOfTiles;
+	private final int[] tileStarts;
+	private final int[] activeStarts;
+	private final long[][] inboxes;
+	private final int[] inboxSizes;
+	private final RegionLink regionLink;
+	private long[] remoteMessages;
+	private int[] activeIndices;
+	private long[] activeNodes;
+	
+	/**
+	 * <p>
+	 * Creates a <code>TileEngine</code> object for the nodes of the specified store,
+	 * divided into the specified number of tiles.
+	 * </p>
+	 * @param store the node store.
+	 * @param numberOfTiles the number of tiles.
+	 * @param regionLink the link to the other regions, or <code>null</code> if the
+	 * simulation isn't distributed.
+	 */
+	TileEngine(NodeStore store, int numberOfTiles, RegionLink regionLink){
+		this.store = store;
+		nodes = store.getNodes();
+		this.numberOfTiles = numberOfTiles;
+		this.regionLink = regionLink;
+		tileStarts = new int[numberOfTiles + 1];
+		activeStarts = new int[numberOfTiles + 1];
+		inboxes = new long[numberOfTiles * (numberOfTiles + 1)][DEFAULT_INBOX_CAPACITY];
+		inboxSizes = new int[numberOfTiles * (numberOfTiles + 1)];
+		remoteMessages = new long[DEFAULT_INBOX_CAPACITY];
+	}
+	
+	/**
+	 * <p>
+	 * Returns the number of tiles.
+	 * </p>
+	 * @return the number of tiles.
+	 */
+	int getNumberOfTiles(){
+		return numberOfTiles;
+	}
+	
+	/**
+	 * <p>
+	 * Updates the specified active nodes and delivers the messages they send,
+	 * and then deactivates the nodes left without anything to do. With more than
+	 * one tile, the tiles are worked on by the threads of the specified pool.
+	 * </p>
+	 * @param activeIndices the indices of the active nodes, in ascending order.
+	 * @param numberOfActiveNodes the number of active nodes.
+	 * @param activeNodes the set of active nodes, one bit per node.
+	 * @param pool the pool, or <code>null</code> if there is only one tile.
+	 * @throws java.io.IOException if another region couldn't be reached.
+	 */
+	void update(int[] activeIndices, int numberOfActiveNodes, long[] activeNodes,
+			ForkJoinPool pool) throws IOException{
+		int numberOfRemoteMessages;
+		
+		this.activeIndices = activeIndices;
+		this.activeNodes = activeNodes;
+		divideIntoTiles(numberOfActiveNodes);
+		
+		runPhase(UPDATE, pool);
+		if(regionLink != null){
+			numberOfRemoteMessages = collectRemoteMessages();
+			regionLink.sendMessages(remoteMessages, numberOfRemoteMessages);
+			regionLink.deliverMessages(true);
+		}
+		runPhase(DELIVERY, pool);
+		if(regionLink != null){
+			regionLink.deliverMessages(false);
+			regionLink.returnMessages();
+		}
+		runPhase(RETURN, pool);
+		
+		for(int i=0; i<numberOfActiveNodes; i++){
+			nodes[activeIndices[i]].publishResults();
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Draws the tiles so that each holds about as many active nodes, and finds
+	 * the active nodes of each tile.
+	 * */
+	private void divideIntoTiles(int numberOfActiveNodes){
+		int start;
+		
+		tileStarts[0] = 0;
+		activeStarts[0] = 0;
+		for(int tile=1; tile<numberOfTiles; tile++){
+			if(numberOfActiveNodes == 0){
+				start = nodes.length & ~63;
+			}else{
+				start = activeIndices[(int)((long)tile * numberOfActiveNodes
+						/ numberOfTiles)] & ~63;
+			}
+			tileStarts[tile] = Math.max(tileStarts[tile - 1], start);
+			activeStarts[tile] = findFirstActiveNode(tileStarts[tile],
+					activeStarts[tile - 1], numberOfActiveNodes);
+		}
+		tileStarts[numberOfTiles] = nodes.length;
+		activeStarts[numberOfTiles] = numberOfActiveNodes;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns the position of the first active node whose index is at least
+	 * the specified index.
+	 * */
+	private int findFirstActiveNode(int index, int from, int to){
+		int middle;
+		
+		while(from < to){
+			middle = (from + to) >>> 1;
+			if(activeIndices[middle] < index){
+				from = middle + 1;
+			}else{
+				to = middle;
+			}
+		}
+		return from;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns the tile holding the node with the specified index, trying the
+	 * specified tile first.
+	 * */
+	private int findTile(int index, int guess){
+		int from = 0;
+		int to = numberOfTiles - 1;
+		int middle;
+		
+		if(index >= tileStarts[guess] && index < tileStarts[guess + 1]){
+			return guess;
+		}
+		while(from < to){
+			middle = (from + to + 1) >>> 1;
+			if(tileStarts[middle] <= index){
+				from = middle;
+			}else{
+				to = middle - 1;
+			}
+		}
+		return from;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Carries out the specified phase for every tile, across the threads of
+	 * the pool if there is more than one tile.
+	 * */
+	private void runPhase(int phase, ForkJoinPool pool){
+		if(numberOfTiles == 1){
+			runPhase(phase, 0);
+		}else{
+			pool.invoke(new PhaseAction(phase, 0, numberOfTiles));
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Gathers the messages to other regions from the inboxes of every tile,
+	 * in the order of the tiles, and returns their number.
+	 * */
+	private int collectRemoteMessages(){
+		int numberOfMessages = 0;
+		int inbox;
+		
+		for(int tile=0; tile<numberOfTiles; tile++){
+			inbox = numberOfTiles * numberOfTiles + tile;
+			if(remoteMessages.length < numberOfMessages + inboxSizes[inbox]){
+				remoteMessages = Arrays.copyOf(remoteMessages, Math.max(
+						remoteMessages.length * 2, numberOfMessages + inboxSizes[inbox]));
+			}
+			System.arraycopy(inboxes[inbox], 0, remoteMessages, numberOfMessages,
+					inboxSizes[inbox]);
+			numberOfMessages += inboxSizes[inbox];
+		}
+		return numberOfMessages;
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Carries out the specified phase for the specified tile.
+	 * */
+	private void runPhase(int phase, int tile){
+		switch(phase){
+		case UPDATE:
+			updateTile(tile);
+			break;
+		case DELIVERY:
+			deliverToTile(tile);
+			break;
+		default:
+			returnToTile(tile);
+			break;
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Updates the active nodes of the tile, and posts the messages they send
+	 * to the mailboxes of their receivers. A receiver is put in the inbox of its
+	 * tile by whichever tile posts to it first.
+	 * */
+	private void updateTile(int tile){
+		Node node;
+		int index;
+		int receiver;
+		
+		for(int i=0; i<numberOfTiles; i++){
+			inboxSizes[tile * numberOfTiles + i] = 0;
+		}
+		inboxSizes[numberOfTiles * numberOfTiles + tile] = 0;
+		for(int i=activeStarts[tile]; i<activeStarts[tile + 1]; i++){
+			index = activeIndices[i];
+			node = nodes[index];
+			node.update();
+			for(int message=0; message<node.getNumberOfSentMessages(); message++){
+				receiver = node.getReceiverOfMessage(message).getIndex();
+				if(regionLink == null || regionLink.isLocal(node.getReceiverOfMessage(message))){
+					if(node.postMessage(message)){
+						addToInbox(tile * numberOfTiles + findTile(receiver, tile), receiver);
+					}
+				}else{
+					addToInbox(numberOfTiles * numberOfTiles + tile,
+							((long)index << 32) | message);
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Empties the mailboxes of the nodes of the tile which have been posted to.
+	 * */
+	private void deliverToTile(int tile){
+		int inbox;
+		
+		for(int sendingTile=0; sendingTile<numberOfTiles; sendingTile++){
+			inbox = sendingTile * numberOfTiles + tile;
+			for(int i=0; i<inboxSizes[inbox]; i++){
+				nodes[(int)inboxes[inbox][i]].drainMailbox();
+			}
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Returns the messages sent from the tile which weren't accepted, and
+	 * deactivates the nodes of the tile left without anything to do.
+	 * */
+	private void returnToTile(int tile){
+		int lastWord = (tileStarts[tile + 1] + 63) >>> 6;
+		long word;
+		
+		for(int i=activeStarts[tile]; i<activeStarts[tile + 1]; i++){
+			nodes[activeIndices[i]].returnUndeliveredMessages();
+		}
+		for(int i=tileStarts[tile]>>>6; i<lastWord; i++){
+			word = activeNodes[i];
+			while(word != 0){
+				if(!store.hasPendingWork((i << 6) + Long.numberOfTrailingZeros(word))){
+					activeNodes[i] &= ~(word & -word);
+				}
+				word &= word - 1;
+			}
+		}
+	}
+	
+	/*
+	 * Helper method.
+	 *
+	 * Adds an entry to the specified inbox, making room for it if needed.
+	 * */
+	private void addToInbox(int inbox, long entry){
+		if(inboxSizes[inbox] == inboxes[inbox].length){
+			inboxes[inbox] = Arrays.copyOf(inboxes[inbox], inboxes[inbox].length * 2);
+		}
+		inboxes[inbox][inboxSizes[inbox]++] = entry;
+	}
+	
+	/*
+	 * Carries out a phase for a range of tiles, splitting the range in halves
+	 * until each tile is worked on by a task of its own.
+	 * */
+	private final class PhaseAction extends RecursiveAction{
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int phase;
+		private final int from;
+		private final int to;
+		
+		private PhaseAction(int phase, int from, int to){
+			this.phase = phase;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute(){
+			int middle;
+			
+			if(to - from == 1){
+				runPhase(phase, from);
+			}else{
+				middle = (from + to) >>> 1;
+				invokeAll(new PhaseAction(phase, from, middle),
+						new PhaseAction(phase, middle, to));
+			}
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package nodebasis;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import surrounding.Field;
+import coordination.Position;
+
+/**
+ * @author  Alexander Beliaev
+ * @version 1.0
+ * @since   2026-10-18
+ * */
+public class EventExpiryTest {
+	
+	/*
+	 * Testing if an event is forgotten once it has lived for as long as
+	 * specified.
+	 * 
+	 * A single node is put into the node network, and an event with a time
+	 * to live of 5 updates occurs at the node at time 0. The event should
+	 * be known for 5 updates, and then be forgotten during the 6th, both
+	 * by the node itself and by its routing table.
+	 * */
+	@Test
+	public void eventShouldExpireWhenSpecified() {
+		Field field = new Field(10,-1,-1,1,0);
+		Node node = new Node(field, new Position(1,1), 1, 1, 1);
+		HashMap<Position, Node> nodeMap = new HashMap<Position, Node>();
+		
+		nodeMap.put(node.getPosition(), node);
+		field.setEventTimeToLive(5);
+		field.loadNodeNetwork(nodeMap);
+		field.setSimulationIsRunning(true);
+		node.generateNewEvent(1);
+		
+		for(int i=0; i<5; i++){
+			field.update();
+			assertNotNull(node.getEventById(1));
+			assertTrue(node.getRoutingTable().containsKey(1));
+		}
+		field.update();
+		assertNull(node.getEventById(1));
+		assertTrue(node.getRoutingTable().isEmpty());
+	}
+	
+	/*
+	 * Testing if the routing table is cut down to its capacity, dropping
+	 * the oldest events first.
+	 * */
+	@Test
+	public void routingTableShouldKeepNewestEvents() {
+		Field field = new Field(10,-1,-1,1,0);
+		Node node = new Node(field, new Position(1,1), 1, 1, 1);
+		
+		field.setRoutingTableCapacity(3);
+		for(int id=1; id<=5; id++){
+			node.generateNewEvent(id);
+		}
+		node.update();
+		
+		assertEquals(3, node.getRoutingTable().size());
+		assertEquals(3, node.getRoutingTable().first().getId());
+	}
+}
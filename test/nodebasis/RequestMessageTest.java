@@ -2,6 +2,7 @@ package nodebasis;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import nodebasis.Node;
@@ -153,5 +154,78 @@ public class RequestMessageTest {
 		assertEquals(true, eRead.isSuccessfulRequest(requestId));
 		System.out.println(" ---Result: success");
 	}
+	
+	/*
+	 * Checks if the originating node gives up on a request which never
+	 * returns (the node has no neighbours), once it has waited for its
+	 * lifespan twice.
+	 * */
+	@Test
+	public void requestShouldExpireAtOrigin(){
+		Field field = new Field(100,-1,-1,1,0);
+		AllTestExpirationReader eRead = new AllTestExpirationReader(){
+			@Override
+			public ReaderMode getReaderMode(){
+				return ReaderMode.ABANDONED_REQUESTS;
+			}
+		};
+		Node node = new Node(field, new Position(1,1), 1, 1, 4);
+		HashMap<Position, Node> nodeMap = new HashMap<Position, Node>();
+		String requestId = new RequestMessage(EVENT_ID, 4, 0, node).getRequestId();
+		
+		node.setExpirationReader(eRead);
+		nodeMap.put(node.getPosition(), node);
+		
+		field.loadNodeNetwork(nodeMap);
+		field.setSimulationIsRunning(true);
+		
+		node.generateNewTask(EVENT_ID);
+		for(int i=0; i<64; i++){
+			field.update();
+		}
+		assertEquals(false, eRead.hasExpired(requestId));
+		field.update();
+		assertEquals(true, eRead.hasExpired(requestId));
+	}
+	
+	/*
+	 * Checks if a request message turned down by a busy neighbour is
+	 * sent to the next neighbour instead, rather than waiting for the
+	 * busy one. The first neighbour of the originating node never
+	 * accepts anything.
+	 * */
+	@Test
+	public void requestShouldGoAroundBusyNeighbour(){
+		Field field = new Field(20,-1,-1,1,0);
+		Node origin = new Node(field, new Position(1,1), 1, 1, 4);
+		Node busy = new Node(field, new Position(1,2), 1, 1, 1){
+			@Override
+			protected NodeState getNodeState(){
+				return NodeState.BUSY;
+			}
+		};
+		Node ready = new Node(field, new Position(2,1), 1, 1, 1);
+		AllTestExpirationReader eRead = new AllTestExpirationReader();
+		HashMap<Position, Node> nodeMap = new HashMap<Position, Node>();
+		String requestId = new RequestMessage(EVENT_ID, 4, 0, origin).getRequestId();
+		
+		nodeMap.put(origin.getPosition(), origin);
+		nodeMap.put(busy.getPosition(), busy);
+		nodeMap.put(ready.getPosition(), ready);
+		
+		field.loadNodeNetwork(nodeMap);
+		field.setSimulationIsRunning(true);
+		origin.setNeighbours(Arrays.asList(busy, ready));
+		
+		ready.generateNewEvent(EVENT_ID);
+		origin.generateNewTask(EVENT_ID);
+		origin.setRequestReader(eRead);
+		
+		for(int i=0; i<10; i++){
+			field.update();
+		}
+		
+		assertEquals(true, eRead.isSuccessfulRequest(requestId));
+	}
 
 }